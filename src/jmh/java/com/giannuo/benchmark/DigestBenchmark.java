@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.benchmark;
+
+import com.giannuo.digest.IDigest;
+import com.giannuo.digest.MD5Util;
+import com.giannuo.digest.SHAUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 文件摘要基准测试
+ *
+ * @since 1.1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DigestBenchmark {
+    /**
+     * 摘要算法
+     */
+    @Param({"MD5", "SHA"})
+    public String algorithm;
+
+    /**
+     * 文件大小（字节）
+     */
+    @Param({"1048576", "67108864"})
+    public long fileSize;
+
+    private IDigest digest;
+    private File file;
+
+    @Setup
+    public void setup() throws IOException {
+        digest = "MD5".equals(algorithm) ? MD5Util.SINGLETON : SHAUtil.SINGLETON;
+        file = FileBenchmarkSupport.randomTempFile(fileSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public String fileDigest() {
+        return digest.fileDigest(file);
+    }
+
+    @Benchmark
+    public String mappedFileDigest() {
+        return digest.mappedFileDigest(file);
+    }
+
+    @Benchmark
+    public String merkleFileDigest() {
+        return digest.merkleFileDigest(file);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * 文件类基准测试的辅助方法
+ *
+ * @since 1.1
+ */
+final class FileBenchmarkSupport {
+    private FileBenchmarkSupport() {
+    }
+
+    /**
+     * 创建指定大小、内容随机的临时文件（JVM退出时删除）
+     *
+     * @param fileSize 文件大小（字节）
+     * @return 临时文件
+     * @throws IOException 写入异常
+     * @since 1.1
+     */
+    static File randomTempFile(long fileSize) throws IOException {
+        File file = tempFile();
+        Random random = new Random(fileSize);
+        byte[] buffer = new byte[64 * 1024];
+        try (OutputStream out = Files.newOutputStream(file.toPath())) {
+            for (long remaining = fileSize; remaining > 0; remaining -= buffer.length) {
+                random.nextBytes(buffer);
+                out.write(buffer, 0, (int) Math.min(buffer.length, remaining));
+            }
+        }
+        return file;
+    }
+
+    /**
+     * 创建空的临时文件（JVM退出时删除）
+     *
+     * @return 临时文件
+     * @throws IOException 创建异常
+     * @since 1.1
+     */
+    static File tempFile() throws IOException {
+        File file = File.createTempFile("giannuo-cipher-jmh", ".bin");
+        file.deleteOnExit();
+        return file;
+    }
+}
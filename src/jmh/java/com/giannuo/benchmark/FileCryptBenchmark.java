@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.benchmark;
+
+import com.giannuo.cipher.AESCipherUtil;
+import com.giannuo.cipher.AESDecrypt;
+import com.giannuo.cipher.AESEncrypt;
+import com.giannuo.cipher.CipherEngineMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AES文件加密/解密基准测试（流式CBC格式与分段并行GCM格式）
+ * <br>
+ * 每个线程读写各自的文件，线程数通过JMH参数{@code -t}指定
+ * </br>
+ *
+ * @since 1.1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FileCryptBenchmark {
+    /**
+     * 文件大小（字节）
+     */
+    @Param({"1048576", "67108864"})
+    public long fileSize;
+
+    /**
+     * 秘钥长度（比特）
+     */
+    @Param({"128", "256"})
+    public int keySize;
+
+    private AESEncrypt encrypt;
+    private AESDecrypt decrypt;
+    private File plainFile;
+    private File secretFile;
+    private File parallelSecretFile;
+    private File outFile;
+
+    @Setup
+    public void setup() throws IOException {
+        encrypt = new AESEncrypt(AESCipherUtil.SINGLETON.generateBase64Key(keySize), StandardCharsets.UTF_8);
+        decrypt = new AESDecrypt(encrypt.getBase64Key(), encrypt.getBase64Iv(), StandardCharsets.UTF_8);
+        encrypt.setEngineMode(CipherEngineMode.THREAD_LOCAL);
+        decrypt.setEngineMode(CipherEngineMode.THREAD_LOCAL);
+
+        plainFile = FileBenchmarkSupport.randomTempFile(fileSize);
+        secretFile = FileBenchmarkSupport.tempFile();
+        parallelSecretFile = FileBenchmarkSupport.tempFile();
+        outFile = FileBenchmarkSupport.tempFile();
+        encrypt.encryptFile(plainFile.getPath(), secretFile.getPath());
+        encrypt.encryptFileParallel(plainFile.getPath(), parallelSecretFile.getPath());
+    }
+
+    @TearDown
+    public void tearDown() {
+        plainFile.delete();
+        secretFile.delete();
+        parallelSecretFile.delete();
+        outFile.delete();
+    }
+
+    @Benchmark
+    public File encryptFile() {
+        return encrypt.encryptFile(plainFile.getPath(), outFile.getPath());
+    }
+
+    @Benchmark
+    public File decryptFile() {
+        return decrypt.decryptFile(secretFile.getPath(), outFile.getPath());
+    }
+
+    @Benchmark
+    public File encryptFileParallel() {
+        return encrypt.encryptFileParallel(plainFile.getPath(), outFile.getPath());
+    }
+
+    @Benchmark
+    public File decryptFileParallel() {
+        return decrypt.decryptFileParallel(parallelSecretFile.getPath(), outFile.getPath());
+    }
+}
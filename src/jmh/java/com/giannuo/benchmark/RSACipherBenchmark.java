@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.benchmark;
+
+import com.giannuo.cipher.Base64KeyPair;
+import com.giannuo.cipher.CipherEngineMode;
+import com.giannuo.cipher.RSACipherUtil;
+import com.giannuo.cipher.RSADecrypt;
+import com.giannuo.cipher.RSAEncrypt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RSA加密/解密基准测试（含分块加解密）
+ * <br>
+ * 加密器/解密器在所有线程间共享，线程数通过JMH参数{@code -t}指定
+ * </br>
+ *
+ * @since 1.1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RSACipherBenchmark {
+    /**
+     * 秘钥长度（比特）
+     */
+    @Param({"1024", "2048"})
+    public int keySize;
+
+    /**
+     * 明文长度（字节），超过单块上限时分块加解密
+     */
+    @Param({"64", "1024"})
+    public int payloadSize;
+
+    private RSAEncrypt encrypt;
+    private RSADecrypt decrypt;
+    private byte[] plain;
+    private byte[] secret;
+
+    @Setup
+    public void setup() {
+        Base64KeyPair keyPair = RSACipherUtil.SINGLETON.generateBase64Key(keySize);
+        encrypt = new RSAEncrypt(keyPair.getBase64PublicKey(), StandardCharsets.UTF_8);
+        decrypt = new RSADecrypt(keyPair.getBase64PrivateKey(), StandardCharsets.UTF_8);
+        encrypt.setEngineMode(CipherEngineMode.THREAD_LOCAL);
+        decrypt.setEngineMode(CipherEngineMode.THREAD_LOCAL);
+
+        plain = new byte[payloadSize];
+        new Random(payloadSize).nextBytes(plain);
+        secret = encrypt.encrypt(plain);
+    }
+
+    @Benchmark
+    public byte[] encrypt() {
+        return encrypt.encrypt(plain);
+    }
+
+    @Benchmark
+    public byte[] decrypt() {
+        return decrypt.decrypt(secret);
+    }
+}
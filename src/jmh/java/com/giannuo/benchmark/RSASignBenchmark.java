@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.benchmark;
+
+import com.giannuo.cipher.Base64KeyPair;
+import com.giannuo.cipher.RSACipherUtil;
+import com.giannuo.cipher.RSASignUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RSA签名/验签基准测试
+ *
+ * @since 1.1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RSASignBenchmark {
+    /**
+     * 秘钥长度（比特）
+     */
+    @Param({"1024", "2048"})
+    public int keySize;
+
+    /**
+     * 待签名数据长度（字节）
+     */
+    @Param({"64", "65536"})
+    public int payloadSize;
+
+    private String base64PrivateSignKey;
+    private String base64PublicVerifyKey;
+    private byte[] data;
+    private byte[] sign;
+
+    @Setup
+    public void setup() {
+        Base64KeyPair keyPair = RSACipherUtil.SINGLETON.generateBase64Key(keySize);
+        base64PrivateSignKey = keyPair.getBase64PrivateKey();
+        base64PublicVerifyKey = keyPair.getBase64PublicKey();
+
+        data = new byte[payloadSize];
+        new Random(payloadSize).nextBytes(data);
+        sign = RSASignUtil.SINGLETON.sign(base64PrivateSignKey, data);
+    }
+
+    @Benchmark
+    public byte[] sign() {
+        return RSASignUtil.SINGLETON.sign(base64PrivateSignKey, data);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return RSASignUtil.SINGLETON.verify(base64PublicVerifyKey, data, sign);
+    }
+}
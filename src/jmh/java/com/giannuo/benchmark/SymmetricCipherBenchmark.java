@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.benchmark;
+
+import com.giannuo.cipher.AESCipherUtil;
+import com.giannuo.cipher.AESDecrypt;
+import com.giannuo.cipher.AESEncrypt;
+import com.giannuo.cipher.CipherDecrypt;
+import com.giannuo.cipher.CipherEncrypt;
+import com.giannuo.cipher.CipherEngineMode;
+import com.giannuo.cipher.DESCipherUtil;
+import com.giannuo.cipher.DESDecrypt;
+import com.giannuo.cipher.DESEncrypt;
+import com.giannuo.cipher.DESedeCipherUtil;
+import com.giannuo.cipher.DESedeDecrypt;
+import com.giannuo.cipher.DESedeEncrypt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对称加密/解密基准测试（AES、DES、DESede）
+ * <br>
+ * 加密器/解密器在所有线程间共享，线程数通过JMH参数{@code -t}指定
+ * </br>
+ *
+ * @since 1.1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SymmetricCipherBenchmark {
+    /**
+     * 算法-秘钥长度
+     */
+    @Param({"AES-128", "AES-256", "DES-56", "DESede-168"})
+    public String cipher;
+
+    /**
+     * 明文长度（字节）
+     */
+    @Param({"64", "1024", "65536"})
+    public int payloadSize;
+
+    /**
+     * 密码器引擎模式（多线程共享时须为线程安全模式）
+     */
+    @Param({"THREAD_LOCAL", "POOLED"})
+    public CipherEngineMode engineMode;
+
+    private CipherEncrypt encrypt;
+    private CipherDecrypt decrypt;
+    private byte[] plain;
+    private byte[] secret;
+
+    @Setup
+    public void setup() {
+        String[] cipherAndKeySize = cipher.split("-");
+        int keySize = Integer.parseInt(cipherAndKeySize[1]);
+        switch (cipherAndKeySize[0]) {
+            case "AES": {
+                AESEncrypt aesEncrypt = new AESEncrypt(AESCipherUtil.SINGLETON.generateBase64Key(keySize), StandardCharsets.UTF_8);
+                encrypt = aesEncrypt;
+                decrypt = new AESDecrypt(aesEncrypt.getBase64Key(), aesEncrypt.getBase64Iv(), StandardCharsets.UTF_8);
+                break;
+            }
+            case "DES": {
+                DESEncrypt desEncrypt = new DESEncrypt(DESCipherUtil.SINGLETON.generateBase64Key(keySize), StandardCharsets.UTF_8);
+                encrypt = desEncrypt;
+                decrypt = new DESDecrypt(desEncrypt.getBase64Key(), desEncrypt.getBase64Iv(), StandardCharsets.UTF_8);
+                break;
+            }
+            case "DESede": {
+                DESedeEncrypt desedeEncrypt = new DESedeEncrypt(DESedeCipherUtil.SINGLETON.generateBase64Key(keySize), StandardCharsets.UTF_8);
+                encrypt = desedeEncrypt;
+                decrypt = new DESedeDecrypt(desedeEncrypt.getBase64Key(), desedeEncrypt.getBase64Iv(), StandardCharsets.UTF_8);
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("不支持的算法[" + cipher + "]");
+        }
+        encrypt.setEngineMode(engineMode);
+        decrypt.setEngineMode(engineMode);
+
+        plain = new byte[payloadSize];
+        new Random(payloadSize).nextBytes(plain);
+        secret = encrypt.encrypt(plain);
+    }
+
+    @Benchmark
+    public byte[] encrypt() {
+        return encrypt.encrypt(plain);
+    }
+
+    @Benchmark
+    public byte[] decrypt() {
+        return decrypt.decrypt(secret);
+    }
+}
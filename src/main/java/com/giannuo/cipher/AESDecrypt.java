@@ -21,8 +21,16 @@ import org.jetbrains.annotations.NotNull;
 import javax.crypto.Cipher;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.io.EOFException;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
 import java.util.Base64;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * （AES）解密器
@@ -44,6 +52,32 @@ public final class AESDecrypt extends CipherDecrypt {
     private final IvParameterSpec ivParameterSpec;
 
 
+    /**
+     * (AES)解密器构造（每条消息随机向量模式，向量从密文头部读取）
+     *
+     * @param base64Key   Base64秘钥
+     * @param charsetName String  指定字符集名称
+     * @see AESEncrypt#AESEncrypt(String, Charset, boolean)
+     * @since 1.1
+     */
+    public AESDecrypt(@NotNull String base64Key, @NotNull String charsetName) {
+        this(base64Key, Charset.forName(charsetName));
+    }
+
+    /**
+     * (AES)解密器构造（每条消息随机向量模式，向量从密文头部读取）
+     *
+     * @param base64Key Base64秘钥
+     * @param charset   Charset 指定字符集
+     * @see AESEncrypt#AESEncrypt(String, Charset, boolean)
+     * @since 1.1
+     */
+    public AESDecrypt(@NotNull String base64Key, @NotNull Charset charset) {
+        super(CipherConsts.ALGORITHM_AES, charset, CipherConsts.ALGORITHM_AES_SPECIFIC_ALGORITHM_NAME);
+        this.secretKeySpec = new SecretKeySpec(Base64.getDecoder().decode(base64Key), CipherConsts.ALGORITHM_AES);
+        this.ivParameterSpec = null;
+    }
+
     /**
      * (AES)解密器构造
      *
@@ -71,11 +105,16 @@ public final class AESDecrypt extends CipherDecrypt {
     /**
      * 密码器初始化（初始化为解密器）
      *
+     * @param cipher 待初始化的密码器
      * @return cipher 密码器
      * @since 1.0
      */
     @Override
-    protected Cipher cipherInit() {
+    protected Cipher cipherInit(Cipher cipher) {
+        if (ivPrefixed()) {
+            // 每条消息随机向量模式下，解密时以密文头部的向量初始化
+            return cipher;
+        }
         try {
             cipher.init(Cipher.DECRYPT_MODE, this.secretKeySpec, this.ivParameterSpec);
             return cipher;
@@ -84,4 +123,237 @@ public final class AESDecrypt extends CipherDecrypt {
         }
     }
 
+    /**
+     * @return 是否为每条消息随机向量模式（向量前置于密文）
+     * @since 1.1
+     */
+    private boolean ivPrefixed() {
+        return ivParameterSpec == null;
+    }
+
+    /**
+     * 以密文头部的向量初始化密码器（每条消息随机向量模式）
+     *
+     * @param cipher   密码器
+     * @param in       密文
+     * @param inOffset 密文起始位置
+     * @param inLength 密文长度
+     * @throws Exception 初始化异常
+     * @since 1.1
+     */
+    private void prefixedIvInit(Cipher cipher, byte[] in, int inOffset, int inLength) throws Exception {
+        Assert.state(inLength >= CipherConsts.ALGORITHM_AES_DEF_IV_BYTE_SIZE, "密文长度[" + inLength + "]小于向量长度，缺少前置向量");
+        cipher.init(Cipher.DECRYPT_MODE, this.secretKeySpec, new IvParameterSpec(in, inOffset, CipherConsts.ALGORITHM_AES_DEF_IV_BYTE_SIZE));
+    }
+
+    /**
+     * @param cipher 已初始化的密码器
+     * @param data   待解密数据（每条消息随机向量模式下为 向量 + 加密数据）
+     * @return 解密结果
+     * @since 1.1
+     */
+    @Override
+    protected byte[] doFinal(Cipher cipher, byte[] data) throws Exception {
+        if (!ivPrefixed()) {
+            return super.doFinal(cipher, data);
+        }
+        prefixedIvInit(cipher, data, 0, data.length);
+        return cipher.doFinal(data, CipherConsts.ALGORITHM_AES_DEF_IV_BYTE_SIZE, data.length - CipherConsts.ALGORITHM_AES_DEF_IV_BYTE_SIZE);
+    }
+
+    /**
+     * @param cipher    已初始化的密码器
+     * @param in        待解密数据（每条消息随机向量模式下为 向量 + 加密数据）
+     * @param inOffset  待解密数据起始位置
+     * @param inLength  待解密数据长度
+     * @param out       解密结果输出
+     * @param outOffset 解密结果输出起始位置
+     * @return 解密结果长度
+     * @since 1.1
+     */
+    @Override
+    protected int doFinal(Cipher cipher, byte[] in, int inOffset, int inLength, byte[] out, int outOffset) throws Exception {
+        if (!ivPrefixed()) {
+            return super.doFinal(cipher, in, inOffset, inLength, out, outOffset);
+        }
+        prefixedIvInit(cipher, in, inOffset, inLength);
+        return cipher.doFinal(in, inOffset + CipherConsts.ALGORITHM_AES_DEF_IV_BYTE_SIZE, inLength - CipherConsts.ALGORITHM_AES_DEF_IV_BYTE_SIZE, out, outOffset);
+    }
+
+    /**
+     * @param cipher 已初始化的密码器
+     * @param in     待解密数据（每条消息随机向量模式下为 向量 + 加密数据）
+     * @param out    解密结果输出
+     * @return 解密结果长度
+     * @since 1.1
+     */
+    @Override
+    protected int doFinal(Cipher cipher, ByteBuffer in, ByteBuffer out) throws Exception {
+        if (!ivPrefixed()) {
+            return super.doFinal(cipher, in, out);
+        }
+        byte[] iv = new byte[CipherConsts.ALGORITHM_AES_DEF_IV_BYTE_SIZE];
+        Assert.state(in.remaining() >= iv.length, "密文长度[" + in.remaining() + "]小于向量长度，缺少前置向量");
+        in.get(iv);
+        prefixedIvInit(cipher, iv, 0, iv.length);
+        return cipher.doFinal(in, out);
+    }
+
+    /**
+     * @param cipher      已初始化的密码器
+     * @param inputLength 待解密数据长度
+     * @return 解密结果的最大长度
+     * @since 1.1
+     */
+    @Override
+    protected int getOutputSize(Cipher cipher, int inputLength) {
+        if (!ivPrefixed()) {
+            return super.getOutputSize(cipher, inputLength);
+        }
+        return Math.max(0, inputLength - CipherConsts.ALGORITHM_AES_DEF_IV_BYTE_SIZE);
+    }
+
+    /**
+     * 包装读取通道，每条消息随机向量模式下先读取前置的随机向量
+     *
+     * @param in 密文读取通道
+     * @return 明文读取通道
+     * @since 1.1
+     */
+    @NotNull
+    @Override
+    public ReadableByteChannel wrap(@NotNull ReadableByteChannel in) {
+        if (!ivPrefixed()) {
+            return super.wrap(in);
+        }
+        CipherEngine engine = engine();
+        Cipher cipher = engine.borrow();
+        try {
+            ByteBuffer iv = ByteBuffer.allocate(CipherConsts.ALGORITHM_AES_DEF_IV_BYTE_SIZE);
+            while (iv.hasRemaining()) {
+                if (in.read(iv) < 0) {
+                    throw new EOFException("密文长度小于向量长度，缺少前置向量");
+                }
+            }
+            prefixedIvInit(cipher, iv.array(), 0, iv.capacity());
+            return new CipherReadableChannel(engine, cipher, in, CipherConsts.STREAM_CRYPT_DEF_BUFFER_BYTE_SIZE);
+        } catch (Exception e) {
+            engine.release(cipher, false);
+            throw Assert.toRuntimeException(e, "读取前置向量失败");
+        }
+    }
+
+    /**
+     * 解密数据文件，每条消息随机向量模式下从加密文件头部读取向量
+     *
+     * @param sourceFilePath 待解密数据文件路径
+     * @param destFilePath   解密结果数据文件路径
+     * @param bufferSize     （读）缓冲区大小
+     * @return 解密结果文件
+     * @since 1.1
+     */
+    @Override
+    public File cryptFile(@NotNull String sourceFilePath, @NotNull String destFilePath, int bufferSize) {
+        if (!ivPrefixed()) {
+            return super.cryptFile(sourceFilePath, destFilePath, bufferSize);
+        }
+        File sourceFile = checkSourceFile(sourceFilePath);
+        File destFile = new File(destFilePath);
+        Assert.state(bufferSize > 0, "缓冲区大小[" + bufferSize + "]必须大于0");
+        try (FileChannel sourceChannel = FileChannel.open(sourceFile.toPath(), StandardOpenOption.READ);
+             ReadableByteChannel in = wrap(sourceChannel);
+             FileChannel out = FileChannel.open(destFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            transfer(in, out, bufferSize);
+            return destFile;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e);
+        }
+    }
+
+    /**
+     * 分段并行解密数据文件（AES/GCM分段加密文件格式），使用公共ForkJoin线程池
+     *
+     * @param sourceFilePath 待解密数据文件路径
+     * @param destFilePath   解密结果数据文件路径
+     * @return 解密结果文件
+     * @see AESEncrypt#encryptFileParallel(String, String)
+     * @since 1.1
+     */
+    public File decryptFileParallel(@NotNull String sourceFilePath, @NotNull String destFilePath) {
+        return decryptFileParallel(sourceFilePath, destFilePath, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 分段并行解密数据文件（AES/GCM分段加密文件格式），分段大小从文件头部读取，向量无需提供
+     *
+     * @param sourceFilePath 待解密数据文件路径
+     * @param destFilePath   解密结果数据文件路径
+     * @param pool           并行处理线程池
+     * @return 解密结果文件
+     * @see AESSegmentedFile
+     * @since 1.1
+     */
+    public File decryptFileParallel(@NotNull String sourceFilePath, @NotNull String destFilePath, @NotNull ForkJoinPool pool) {
+        File sourceFile = checkSourceFile(sourceFilePath);
+        try (FileChannel in = FileChannel.open(sourceFile.toPath(), StandardOpenOption.READ)) {
+            return AESSegmentedFile.read(in, secretKeySpec).decryptFile(in, new File(destFilePath), pool);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, "AES分段解密文件失败");
+        }
+    }
+
+    /**
+     * 打开AES分段加密文件的（随机访问）解密读取通道
+     * <br>
+     * 按明文位置读取，仅解密覆盖所读范围的分段；通道只读，非线程安全，使用完毕需关闭
+     * </br>
+     *
+     * @param sourceFilePath 待解密数据文件路径（{@link AESEncrypt#encryptFileParallel(String, String)}的加密结果）
+     * @return 解密读取通道
+     * @since 1.1
+     */
+    public SeekableByteChannel openSeekable(@NotNull String sourceFilePath) {
+        File sourceFile = checkSourceFile(sourceFilePath);
+        FileChannel in = null;
+        try {
+            in = FileChannel.open(sourceFile.toPath(), StandardOpenOption.READ);
+            return new AESSegmentedReadChannel(in, AESSegmentedFile.read(in, secretKeySpec));
+        } catch (Exception e) {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (Exception ignored) {
+                }
+            }
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            }
+            throw Assert.toRuntimeException(e, "AES分段加密文件打开失败");
+        }
+    }
+
+    /**
+     * 解密AES分段加密文件的指定（明文）范围
+     *
+     * @param sourceFilePath 待解密数据文件路径（{@link AESEncrypt#encryptFileParallel(String, String)}的加密结果）
+     * @param offset         起始（明文）位置
+     * @param length         读取长度
+     * @return 解密数据，范围超出明文长度时截断
+     * @since 1.1
+     */
+    @NotNull
+    public byte[] decryptFileRange(@NotNull String sourceFilePath, long offset, int length) {
+        try (AESSegmentedReadChannel channel = (AESSegmentedReadChannel) openSeekable(sourceFilePath)) {
+            return channel.readRange(offset, length);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, "AES分段加密文件范围解密失败");
+        }
+    }
+
 }
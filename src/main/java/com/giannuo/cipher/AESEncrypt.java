@@ -19,10 +19,18 @@ import com.giannuo.util.Assert;
 import org.jetbrains.annotations.NotNull;
 
 import javax.crypto.Cipher;
+import javax.crypto.ShortBufferException;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.concurrent.ForkJoinPool;
 
 import static com.giannuo.cipher.CipherConsts.*;
 
@@ -44,6 +52,12 @@ public final class AESEncrypt extends CipherEncrypt implements IvSupport {
      * @since 1.0
      */
     private final IvParameterSpec ivParameterSpec;
+    /**
+     * 是否为每条消息随机向量模式（向量前置于密文）
+     *
+     * @since 1.1
+     */
+    private final boolean ivPrefixed;
 
     /**
      * (AES)加密器构造
@@ -64,19 +78,54 @@ public final class AESEncrypt extends CipherEncrypt implements IvSupport {
      * @since 1.0
      */
     public AESEncrypt(@NotNull String base64Key, @NotNull Charset charset) {
+        this(base64Key, charset, false);
+    }
+
+    /**
+     * (AES)加密器构造
+     *
+     * @param base64Key   Base64秘钥
+     * @param charsetName String  指定字符集名称
+     * @param ivPrefixed  是否为每条消息随机向量模式
+     * @see #AESEncrypt(String, Charset, boolean)
+     * @since 1.1
+     */
+    public AESEncrypt(@NotNull String base64Key, @NotNull String charsetName, boolean ivPrefixed) {
+        this(base64Key, Charset.forName(charsetName), ivPrefixed);
+    }
+
+    /**
+     * (AES)加密器构造
+     * <br>
+     * 每条消息随机向量模式下，每次加密（消息、流、文件）都生成新的随机向量，并将其前置于密文（密文 = 向量 + 加密数据），
+     * 一个加密器即可长期服务所有消息；需使用{@link AESDecrypt#AESDecrypt(String, Charset)}解密，且无固定向量可获取
+     * </br>
+     *
+     * @param base64Key  Base64秘钥
+     * @param charset    Charset 指定字符集
+     * @param ivPrefixed 是否为每条消息随机向量模式
+     * @since 1.1
+     */
+    public AESEncrypt(@NotNull String base64Key, @NotNull Charset charset, boolean ivPrefixed) {
         super(ALGORITHM_AES, charset, ALGORITHM_AES_SPECIFIC_ALGORITHM_NAME);
         this.secretKeySpec = new SecretKeySpec(Base64.getDecoder().decode(base64Key), ALGORITHM_AES);
-        this.ivParameterSpec = new IvParameterSpec(randomByteArray(ALGORITHM_AES_DEF_IV_BYTE_SIZE));
+        this.ivPrefixed = ivPrefixed;
+        this.ivParameterSpec = ivPrefixed ? null : new IvParameterSpec(randomByteArray(ALGORITHM_AES_DEF_IV_BYTE_SIZE));
     }
 
     /**
      * 密码器初始化
      *
+     * @param cipher 待初始化的密码器
      * @return cipher 密码器
      * @since 1.0
      */
     @Override
-    protected Cipher cipherInit() {
+    protected Cipher cipherInit(Cipher cipher) {
+        if (ivPrefixed) {
+            // 每条消息随机向量模式下，加密时以新的随机向量初始化
+            return cipher;
+        }
         try {
             cipher.init(Cipher.ENCRYPT_MODE, this.secretKeySpec, this.ivParameterSpec);
             return cipher;
@@ -85,6 +134,190 @@ public final class AESEncrypt extends CipherEncrypt implements IvSupport {
         }
     }
 
+    /**
+     * 以新的随机向量初始化密码器（每条消息随机向量模式）
+     *
+     * @param cipher 密码器
+     * @return 随机向量
+     * @throws Exception 初始化异常
+     * @since 1.1
+     */
+    private byte[] randomIvInit(Cipher cipher) throws Exception {
+        byte[] iv = randomByteArray(ALGORITHM_AES_DEF_IV_BYTE_SIZE);
+        cipher.init(Cipher.ENCRYPT_MODE, this.secretKeySpec, new IvParameterSpec(iv));
+        return iv;
+    }
+
+    /**
+     * @param cipher 已初始化的密码器
+     * @param data   待加密数据
+     * @return 加密结果（每条消息随机向量模式下为 向量 + 加密数据）
+     * @since 1.1
+     */
+    @Override
+    protected byte[] doFinal(Cipher cipher, byte[] data) throws Exception {
+        if (!ivPrefixed) {
+            return super.doFinal(cipher, data);
+        }
+        byte[] iv = randomIvInit(cipher);
+        byte[] result = new byte[iv.length + cipher.getOutputSize(data.length)];
+        System.arraycopy(iv, 0, result, 0, iv.length);
+        int length = iv.length + cipher.doFinal(data, 0, data.length, result, iv.length);
+        return length == result.length ? result : Arrays.copyOf(result, length);
+    }
+
+    /**
+     * @param cipher    已初始化的密码器
+     * @param in        待加密数据
+     * @param inOffset  待加密数据起始位置
+     * @param inLength  待加密数据长度
+     * @param out       加密结果输出（每条消息随机向量模式下为 向量 + 加密数据）
+     * @param outOffset 加密结果输出起始位置
+     * @return 加密结果长度
+     * @since 1.1
+     */
+    @Override
+    protected int doFinal(Cipher cipher, byte[] in, int inOffset, int inLength, byte[] out, int outOffset) throws Exception {
+        if (!ivPrefixed) {
+            return super.doFinal(cipher, in, inOffset, inLength, out, outOffset);
+        }
+        byte[] iv = randomIvInit(cipher);
+        if (out.length - outOffset < iv.length + cipher.getOutputSize(inLength)) {
+            throw new ShortBufferException("输出空间不足，需要[" + (iv.length + cipher.getOutputSize(inLength)) + "]字节");
+        }
+        System.arraycopy(iv, 0, out, outOffset, iv.length);
+        return iv.length + cipher.doFinal(in, inOffset, inLength, out, outOffset + iv.length);
+    }
+
+    /**
+     * @param cipher 已初始化的密码器
+     * @param in     待加密数据
+     * @param out    加密结果输出（每条消息随机向量模式下为 向量 + 加密数据）
+     * @return 加密结果长度
+     * @since 1.1
+     */
+    @Override
+    protected int doFinal(Cipher cipher, ByteBuffer in, ByteBuffer out) throws Exception {
+        if (!ivPrefixed) {
+            return super.doFinal(cipher, in, out);
+        }
+        byte[] iv = randomIvInit(cipher);
+        if (out.remaining() < iv.length + cipher.getOutputSize(in.remaining())) {
+            throw new ShortBufferException("输出空间不足，需要[" + (iv.length + cipher.getOutputSize(in.remaining())) + "]字节");
+        }
+        out.put(iv);
+        return iv.length + cipher.doFinal(in, out);
+    }
+
+    /**
+     * @param cipher      已初始化的密码器
+     * @param inputLength 待加密数据长度
+     * @return 加密结果的最大长度（每条消息随机向量模式下含向量长度）
+     * @since 1.1
+     */
+    @Override
+    protected int getOutputSize(Cipher cipher, int inputLength) {
+        if (!ivPrefixed) {
+            return super.getOutputSize(cipher, inputLength);
+        }
+        // AES/CBC/PKCS5Padding：填充至块大小的整数倍（至少填充1字节）
+        return ALGORITHM_AES_DEF_IV_BYTE_SIZE + (inputLength / ALGORITHM_AES_DEF_IV_BYTE_SIZE + 1) * ALGORITHM_AES_DEF_IV_BYTE_SIZE;
+    }
+
+    /**
+     * 包装写出通道，每条消息随机向量模式下先写出随机向量
+     *
+     * @param out 密文写出通道
+     * @return 明文写出通道
+     * @since 1.1
+     */
+    @NotNull
+    @Override
+    public WritableByteChannel wrap(@NotNull WritableByteChannel out) {
+        if (!ivPrefixed) {
+            return super.wrap(out);
+        }
+        CipherEngine engine = engine();
+        Cipher cipher = engine.borrow();
+        try {
+            byte[] iv = randomIvInit(cipher);
+            ByteBuffer buffer = ByteBuffer.wrap(iv);
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            return new CipherWritableChannel(engine, cipher, out, STREAM_CRYPT_DEF_BUFFER_BYTE_SIZE);
+        } catch (Exception e) {
+            engine.release(cipher, false);
+            throw Assert.toRuntimeException(e, "写出随机向量失败");
+        }
+    }
+
+    /**
+     * 加密数据文件，每条消息随机向量模式下随机向量前置于加密文件
+     *
+     * @param sourceFilePath 待加密数据文件路径
+     * @param destFilePath   加密结果数据文件路径
+     * @param bufferSize     （读）缓冲区大小
+     * @return 加密结果文件
+     * @since 1.1
+     */
+    @Override
+    public File cryptFile(@NotNull String sourceFilePath, @NotNull String destFilePath, int bufferSize) {
+        if (!ivPrefixed) {
+            return super.cryptFile(sourceFilePath, destFilePath, bufferSize);
+        }
+        File sourceFile = checkSourceFile(sourceFilePath);
+        File destFile = new File(destFilePath);
+        Assert.state(bufferSize > 0, "缓冲区大小[" + bufferSize + "]必须大于0");
+        try (FileChannel in = FileChannel.open(sourceFile.toPath(), StandardOpenOption.READ);
+             FileChannel destChannel = FileChannel.open(destFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+             WritableByteChannel out = wrap(destChannel)) {
+            transfer(in, out, bufferSize);
+            return destFile;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e);
+        }
+    }
+
+    /**
+     * 分段并行加密数据文件（AES/GCM分段加密文件格式），使用默认分段大小与公共ForkJoin线程池
+     *
+     * @param sourceFilePath 待加密数据文件路径
+     * @param destFilePath   加密结果数据文件路径
+     * @return 加密结果文件
+     * @see AESDecrypt#decryptFileParallel(String, String)
+     * @since 1.1
+     */
+    public File encryptFileParallel(@NotNull String sourceFilePath, @NotNull String destFilePath) {
+        return encryptFileParallel(sourceFilePath, destFilePath, ALGORITHM_AES_DEF_SEGMENT_BYTE_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 分段并行加密数据文件（AES/GCM分段加密文件格式）
+     * <br>
+     * 与{@link #encryptFile(String, String)}（AES/CBC）格式不兼容，需使用{@link AESDecrypt#decryptFileParallel(String, String, ForkJoinPool)}解密；
+     * 各分段使用派生的分段秘钥与独立向量加密并认证，可并行处理
+     * </br>
+     *
+     * @param sourceFilePath 待加密数据文件路径
+     * @param destFilePath   加密结果数据文件路径
+     * @param segmentSize    分段（明文）大小
+     * @param pool           并行处理线程池
+     * @return 加密结果文件
+     * @see AESSegmentedFile
+     * @since 1.1
+     */
+    public File encryptFileParallel(@NotNull String sourceFilePath, @NotNull String destFilePath, int segmentSize, @NotNull ForkJoinPool pool) {
+        File sourceFile = checkSourceFile(sourceFilePath);
+        Assert.state(segmentSize > 0 && segmentSize <= ALGORITHM_AES_MAX_SEGMENT_BYTE_SIZE,
+                "分段大小[" + segmentSize + "]必须在(0, " + ALGORITHM_AES_MAX_SEGMENT_BYTE_SIZE + "]范围内");
+        AESSegmentedFile format = AESSegmentedFile.create(secretKeySpec, segmentSize,
+                randomByteArray(AESSegmentedFile.SALT_BYTE_SIZE), randomByteArray(AESSegmentedFile.NONCE_PREFIX_BYTE_SIZE));
+        return format.encryptFile(sourceFile, new File(destFilePath), pool);
+    }
+
     /**
      * @return Base64秘钥
      * @since 1.0
@@ -100,6 +333,7 @@ public final class AESEncrypt extends CipherEncrypt implements IvSupport {
      */
     @Override
     public String getBase64Iv() {
+        Assert.state(!ivPrefixed, "每条消息随机向量模式下向量前置于密文，无固定向量");
         return Base64.getEncoder().encodeToString(ivParameterSpec.getIV());
     }
 
@@ -0,0 +1,503 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.cipher;
+
+import com.giannuo.util.Assert;
+import org.jetbrains.annotations.NotNull;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * AES分段（并行）加密文件格式
+ * <br>
+ * 文件由头部与若干独立认证的分段组成，各分段可独立（并行、随机访问）加解密：
+ * </br>
+ * <table>
+ *     <tr>
+ *         <td>字段</td>
+ *         <td>长度（字节）</td>
+ *         <td>描述</td>
+ *     </tr>
+ *     <tr>
+ *         <td>magic</td>
+ *         <td>4</td>
+ *         <td>固定为`GAES`</td>
+ *     </tr>
+ *     <tr>
+ *         <td>version</td>
+ *         <td>1</td>
+ *         <td>格式版本，当前为1</td>
+ *     </tr>
+ *     <tr>
+ *         <td>segmentSize</td>
+ *         <td>4</td>
+ *         <td>分段明文大小（大端序），不超过{@link CipherConsts#ALGORITHM_AES_MAX_SEGMENT_BYTE_SIZE}</td>
+ *     </tr>
+ *     <tr>
+ *         <td>salt</td>
+ *         <td>16</td>
+ *         <td>随机盐，分段秘钥 = HmacSHA256(秘钥, salt)截取秘钥长度</td>
+ *     </tr>
+ *     <tr>
+ *         <td>noncePrefix</td>
+ *         <td>7</td>
+ *         <td>随机向量前缀，分段向量 = noncePrefix + 分段序号（4字节大端序）+ 末段标记（1字节）</td>
+ *     </tr>
+ *     <tr>
+ *         <td>segment[i]</td>
+ *         <td>segmentSize + 16</td>
+ *         <td>AES/GCM分段密文及认证标签（末段可更短），以头部作为附加认证数据</td>
+ *     </tr>
+ * </table>
+ * 末段标记可防止截断攻击，头部参与认证可防止分段大小等参数被篡改
+ *
+ * @see CipherConsts#ALGORITHM_AES_GCM_SPECIFIC_ALGORITHM_NAME
+ * @since 1.1
+ */
+final class AESSegmentedFile {
+    /**
+     * 魔数
+     *
+     * @since 1.1
+     */
+    private static final byte[] MAGIC = {'G', 'A', 'E', 'S'};
+    /**
+     * 格式版本
+     *
+     * @since 1.1
+     */
+    private static final byte VERSION = 1;
+    /**
+     * 随机盐长度
+     *
+     * @since 1.1
+     */
+    static final int SALT_BYTE_SIZE = 16;
+    /**
+     * 随机向量前缀长度
+     *
+     * @since 1.1
+     */
+    static final int NONCE_PREFIX_BYTE_SIZE = 7;
+    /**
+     * 头部长度
+     *
+     * @since 1.1
+     */
+    static final int HEADER_BYTE_SIZE = MAGIC.length + 1 + 4 + SALT_BYTE_SIZE + NONCE_PREFIX_BYTE_SIZE;
+    /**
+     * GCM认证标签长度
+     *
+     * @since 1.1
+     */
+    static final int TAG_BYTE_SIZE = 16;
+
+    /**
+     * 头部
+     *
+     * @since 1.1
+     */
+    private final byte[] header;
+    /**
+     * 分段明文大小
+     *
+     * @since 1.1
+     */
+    final int segmentSize;
+    /**
+     * 分段秘钥
+     *
+     * @since 1.1
+     */
+    private final SecretKeySpec segmentKey;
+    /**
+     * 额外的附加认证数据（如外层格式的头部），与头部一同参与各分段的认证，可为空
+     *
+     * @since 1.1
+     */
+    private final byte[] associatedData;
+
+    /**
+     * AES分段加密文件格式构造
+     *
+     * @param header         头部
+     * @param masterKey      秘钥
+     * @param associatedData 额外的附加认证数据
+     * @since 1.1
+     */
+    private AESSegmentedFile(byte[] header, SecretKeySpec masterKey, byte[] associatedData) {
+        Assert.state(Arrays.equals(MAGIC, Arrays.copyOf(header, MAGIC.length)), "非AES分段加密文件格式");
+        Assert.state(header[MAGIC.length] == VERSION, "不支持的AES分段加密文件格式版本[" + header[MAGIC.length] + "]");
+        this.header = header;
+        this.associatedData = associatedData;
+        this.segmentSize = ByteBuffer.wrap(header, MAGIC.length + 1, 4).getInt();
+        Assert.state(segmentSize > 0 && segmentSize <= CipherConsts.ALGORITHM_AES_MAX_SEGMENT_BYTE_SIZE,
+                "分段大小[" + segmentSize + "]必须在(0, " + CipherConsts.ALGORITHM_AES_MAX_SEGMENT_BYTE_SIZE + "]范围内");
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(masterKey.getEncoded(), "HmacSHA256"));
+            mac.update(header, MAGIC.length + 1 + 4, SALT_BYTE_SIZE);
+            byte[] derived = mac.doFinal();
+            this.segmentKey = new SecretKeySpec(derived, 0, masterKey.getEncoded().length, CipherConsts.ALGORITHM_AES);
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, "分段秘钥派生失败");
+        }
+    }
+
+    /**
+     * 新建AES分段加密文件格式（加密用）
+     *
+     * @param masterKey   秘钥
+     * @param segmentSize 分段明文大小
+     * @param salt        随机盐
+     * @param noncePrefix 随机向量前缀
+     * @return AES分段加密文件格式
+     * @since 1.1
+     */
+    static AESSegmentedFile create(@NotNull SecretKeySpec masterKey, int segmentSize, @NotNull byte[] salt, @NotNull byte[] noncePrefix) {
+        return create(masterKey, segmentSize, salt, noncePrefix, new byte[0]);
+    }
+
+    /**
+     * 新建AES分段加密格式（加密用），各分段额外认证{@code associatedData}
+     *
+     * @param masterKey      秘钥
+     * @param segmentSize    分段明文大小
+     * @param salt           随机盐
+     * @param noncePrefix    随机向量前缀
+     * @param associatedData 额外的附加认证数据（如外层格式的头部）
+     * @return AES分段加密格式
+     * @since 1.1
+     */
+    static AESSegmentedFile create(@NotNull SecretKeySpec masterKey, int segmentSize, @NotNull byte[] salt, @NotNull byte[] noncePrefix, @NotNull byte[] associatedData) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTE_SIZE);
+        header.put(MAGIC).put(VERSION).putInt(segmentSize).put(salt, 0, SALT_BYTE_SIZE).put(noncePrefix, 0, NONCE_PREFIX_BYTE_SIZE);
+        return new AESSegmentedFile(header.array(), masterKey, associatedData.clone());
+    }
+
+    /**
+     * 读取AES分段加密文件格式（解密用）
+     *
+     * @param channel   加密文件通道
+     * @param masterKey 秘钥
+     * @return AES分段加密文件格式
+     * @throws IOException 读取异常
+     * @since 1.1
+     */
+    static AESSegmentedFile read(@NotNull FileChannel channel, @NotNull SecretKeySpec masterKey) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTE_SIZE);
+        readFully(channel, header, 0);
+        return new AESSegmentedFile(header.array(), masterKey, new byte[0]);
+    }
+
+    /**
+     * 解析AES分段加密格式（解密用），各分段额外认证{@code associatedData}
+     *
+     * @param header         头部
+     * @param masterKey      秘钥
+     * @param associatedData 额外的附加认证数据，须与加密时一致
+     * @return AES分段加密格式
+     * @since 1.1
+     */
+    static AESSegmentedFile read(@NotNull byte[] header, @NotNull SecretKeySpec masterKey, @NotNull byte[] associatedData) {
+        Assert.state(header.length == HEADER_BYTE_SIZE, "AES分段加密格式头部长度[" + header.length + "]错误");
+        return new AESSegmentedFile(header.clone(), masterKey, associatedData.clone());
+    }
+
+    /**
+     * @return 头部（副本）
+     * @since 1.1
+     */
+    byte[] header() {
+        return header.clone();
+    }
+
+    /**
+     * @return 分段密文大小（含认证标签）
+     * @since 1.1
+     */
+    int cipherSegmentSize() {
+        return segmentSize + TAG_BYTE_SIZE;
+    }
+
+    /**
+     * 根据加密文件长度计算分段数
+     *
+     * @param cipherFileLength 加密文件长度
+     * @return 分段数
+     * @since 1.1
+     */
+    int segmentCount(long cipherFileLength) {
+        long bodyLength = cipherFileLength - HEADER_BYTE_SIZE;
+        Assert.state(bodyLength >= TAG_BYTE_SIZE, "AES分段加密文件长度[" + cipherFileLength + "]错误，文件被截断");
+        long count = (bodyLength + cipherSegmentSize() - 1) / cipherSegmentSize();
+        Assert.state(bodyLength - (count - 1) * cipherSegmentSize() >= TAG_BYTE_SIZE, "AES分段加密文件长度[" + cipherFileLength + "]错误，末段不完整");
+        Assert.state(count <= Integer.MAX_VALUE, "AES分段加密文件分段数[" + count + "]超出上限");
+        return (int) count;
+    }
+
+    /**
+     * 根据加密文件长度计算明文长度
+     *
+     * @param cipherFileLength 加密文件长度
+     * @return 明文长度
+     * @since 1.1
+     */
+    long plainLength(long cipherFileLength) {
+        return cipherFileLength - HEADER_BYTE_SIZE - (long) segmentCount(cipherFileLength) * TAG_BYTE_SIZE;
+    }
+
+    /**
+     * 按分段初始化密码器
+     *
+     * @param cipher 密码器（AES/GCM/NoPadding）
+     * @param opmode {@code Cipher.ENCRYPT_MODE}|{@code Cipher.DECRYPT_MODE}
+     * @param index  分段序号
+     * @param last   是否末段
+     * @return 已初始化的密码器
+     * @throws Exception 初始化异常
+     * @since 1.1
+     */
+    Cipher cipherInit(@NotNull Cipher cipher, int opmode, int index, boolean last) throws Exception {
+        ByteBuffer nonce = ByteBuffer.allocate(NONCE_PREFIX_BYTE_SIZE + 4 + 1);
+        nonce.put(header, HEADER_BYTE_SIZE - NONCE_PREFIX_BYTE_SIZE, NONCE_PREFIX_BYTE_SIZE).putInt(index).put((byte) (last ? 1 : 0));
+        cipher.init(opmode, segmentKey, new GCMParameterSpec(TAG_BYTE_SIZE * 8, nonce.array()));
+        cipher.updateAAD(header);
+        if (associatedData.length > 0) {
+            cipher.updateAAD(associatedData);
+        }
+        return cipher;
+    }
+
+    /**
+     * 解密单个分段
+     *
+     * @param cipher     密码器（AES/GCM/NoPadding）
+     * @param index      分段序号
+     * @param last       是否末段
+     * @param in         分段密文
+     * @param inLength   分段密文长度
+     * @param out        分段明文输出
+     * @return 分段明文长度
+     * @since 1.1
+     */
+    int decryptSegment(@NotNull Cipher cipher, int index, boolean last, @NotNull byte[] in, int inLength, @NotNull byte[] out) {
+        try {
+            cipherInit(cipher, Cipher.DECRYPT_MODE, index, last);
+            return cipher.doFinal(in, 0, inLength, out, 0);
+        } catch (AEADBadTagException e) {
+            throw Assert.toRuntimeException(e, "第[" + index + "]段认证失败，数据被篡改或秘钥错误");
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, "第[" + index + "]段解密失败");
+        }
+    }
+
+    /**
+     * @return 新建的分段密码器（未初始化）
+     * @since 1.1
+     */
+    static Cipher newCipher() {
+        try {
+            return Cipher.getInstance(CipherConsts.ALGORITHM_AES_GCM_SPECIFIC_ALGORITHM_NAME);
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e);
+        }
+    }
+
+    /**
+     * 分段并行加密文件
+     *
+     * @param sourceFile 待加密数据文件
+     * @param destFile   加密结果数据文件
+     * @param pool       并行处理线程池
+     * @return 加密结果文件
+     * @since 1.1
+     */
+    File encryptFile(@NotNull File sourceFile, @NotNull File destFile, @NotNull ForkJoinPool pool) {
+        try (FileChannel in = FileChannel.open(sourceFile.toPath(), StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(destFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(out, ByteBuffer.wrap(header), 0);
+            long plainLength = in.size();
+            long count = Math.max(1, (plainLength + segmentSize - 1) / segmentSize);
+            Assert.state(count <= Integer.MAX_VALUE, "分段数[" + count + "]超出上限，请增大分段大小");
+            int lastLength = (int) (plainLength - (count - 1) * segmentSize);
+            pool.invoke(new SegmentTask(this, Cipher.ENCRYPT_MODE, in, out, 0, (int) count, (int) count, lastLength, threshold(count, pool)));
+            return destFile;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, "AES分段加密文件失败");
+        }
+    }
+
+    /**
+     * 分段并行解密文件
+     *
+     * @param in       加密数据文件通道
+     * @param destFile 解密结果数据文件
+     * @param pool     并行处理线程池
+     * @return 解密结果文件
+     * @since 1.1
+     */
+    File decryptFile(@NotNull FileChannel in, @NotNull File destFile, @NotNull ForkJoinPool pool) {
+        try (FileChannel out = FileChannel.open(destFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long cipherLength = in.size();
+            int count = segmentCount(cipherLength);
+            int lastLength = (int) (cipherLength - HEADER_BYTE_SIZE - (long) (count - 1) * cipherSegmentSize());
+            pool.invoke(new SegmentTask(this, Cipher.DECRYPT_MODE, in, out, 0, count, count, lastLength, threshold(count, pool)));
+            return destFile;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, "AES分段解密文件失败");
+        }
+    }
+
+    /**
+     * @param count 分段数
+     * @param pool  并行处理线程池
+     * @return 叶子任务处理的分段数阈值（每个工作线程约4个任务，便于工作窃取均衡负载）
+     * @since 1.1
+     */
+    private static int threshold(long count, ForkJoinPool pool) {
+        return (int) Math.max(1, count / (pool.getParallelism() * 4L));
+    }
+
+    /**
+     * 从指定位置读满缓冲区
+     *
+     * @param channel  文件通道
+     * @param buffer   缓冲区
+     * @param position 起始位置
+     * @throws IOException 读取异常
+     * @since 1.1
+     */
+    static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position - buffer.position();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException("文件在位置[" + (offset + buffer.position()) + "]提前结束");
+            }
+        }
+    }
+
+    /**
+     * 从指定位置写出缓冲区全部数据
+     *
+     * @param channel  文件通道
+     * @param buffer   缓冲区
+     * @param position 起始位置
+     * @throws IOException 写出异常
+     * @since 1.1
+     */
+    static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position - buffer.position();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, offset + buffer.position());
+        }
+    }
+
+    /**
+     * 分段处理（加密/解密）任务，叶子任务独占一个密码器及一组缓冲区
+     *
+     * @since 1.1
+     */
+    private static final class SegmentTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final AESSegmentedFile format;
+        private final int opmode;
+        private final FileChannel in;
+        private final FileChannel out;
+        private final int from;
+        private final int to;
+        private final int count;
+        private final int lastLength;
+        private final int threshold;
+
+        /**
+         * @param format     分段加密文件格式
+         * @param opmode     {@code Cipher.ENCRYPT_MODE}|{@code Cipher.DECRYPT_MODE}
+         * @param in         输入文件通道
+         * @param out        输出文件通道
+         * @param from       起始分段序号（含）
+         * @param to         结束分段序号（不含）
+         * @param count      分段总数
+         * @param lastLength 末段输入长度
+         * @param threshold  叶子任务处理的分段数阈值
+         */
+        SegmentTask(AESSegmentedFile format, int opmode, FileChannel in, FileChannel out, int from, int to, int count, int lastLength, int threshold) {
+            this.format = format;
+            this.opmode = opmode;
+            this.in = in;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+            this.count = count;
+            this.lastLength = lastLength;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > threshold) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SegmentTask(format, opmode, in, out, from, middle, count, lastLength, threshold),
+                        new SegmentTask(format, opmode, in, out, middle, to, count, lastLength, threshold));
+                return;
+            }
+            final boolean encrypt = Cipher.ENCRYPT_MODE == opmode;
+            final int inSegmentSize = encrypt ? format.segmentSize : format.cipherSegmentSize();
+            final int outSegmentSize = encrypt ? format.cipherSegmentSize() : format.segmentSize;
+            final long inOffset = encrypt ? 0 : HEADER_BYTE_SIZE;
+            final long outOffset = encrypt ? HEADER_BYTE_SIZE : 0;
+            final Cipher cipher = newCipher();
+            final byte[] inBuffer = new byte[inSegmentSize];
+            final byte[] outBuffer = new byte[outSegmentSize];
+            try {
+                for (int index = from; index < to; index++) {
+                    boolean last = index == count - 1;
+                    int inLength = last ? lastLength : inSegmentSize;
+                    readFully(in, ByteBuffer.wrap(inBuffer, 0, inLength), inOffset + (long) index * inSegmentSize);
+                    int outLength;
+                    if (encrypt) {
+                        format.cipherInit(cipher, Cipher.ENCRYPT_MODE, index, last);
+                        outLength = cipher.doFinal(inBuffer, 0, inLength, outBuffer, 0);
+                    } else {
+                        outLength = format.decryptSegment(cipher, index, last, inBuffer, inLength, outBuffer);
+                    }
+                    writeFully(out, ByteBuffer.wrap(outBuffer, 0, outLength), outOffset + (long) index * outSegmentSize);
+                }
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw Assert.toRuntimeException(e, "第[" + from + ", " + to + ")段处理失败");
+            }
+        }
+    }
+}
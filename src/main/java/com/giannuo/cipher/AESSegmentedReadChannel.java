@@ -0,0 +1,227 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.cipher;
+
+import com.giannuo.util.Assert;
+import org.jetbrains.annotations.NotNull;
+
+import javax.crypto.Cipher;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * AES分段加密文件（随机访问）解密读取通道
+ * <br>
+ * 按明文位置读取时，仅读取并解密覆盖所读范围的分段，最近一次解密的分段被缓存以服务顺序读取；
+ * 只读，非线程安全
+ * </br>
+ *
+ * @see AESSegmentedFile
+ * @see AESDecrypt#openSeekable(String)
+ * @since 1.1
+ */
+final class AESSegmentedReadChannel implements SeekableByteChannel {
+    /**
+     * 加密文件通道
+     *
+     * @since 1.1
+     */
+    private final FileChannel channel;
+    /**
+     * 分段加密文件格式
+     *
+     * @since 1.1
+     */
+    private final AESSegmentedFile format;
+    /**
+     * 分段数
+     *
+     * @since 1.1
+     */
+    private final int segmentCount;
+    /**
+     * 明文长度
+     *
+     * @since 1.1
+     */
+    private final long size;
+    /**
+     * 分段密码器
+     *
+     * @since 1.1
+     */
+    private final Cipher cipher = AESSegmentedFile.newCipher();
+    /**
+     * 分段密文缓冲
+     *
+     * @since 1.1
+     */
+    private final byte[] cipherSegment;
+    /**
+     * 分段明文缓冲（缓存最近一次解密的分段）
+     *
+     * @since 1.1
+     */
+    private final byte[] plainSegment;
+    /**
+     * 缓存的分段序号，-1表示无缓存
+     *
+     * @since 1.1
+     */
+    private int cachedIndex = -1;
+    /**
+     * 缓存的分段明文长度
+     *
+     * @since 1.1
+     */
+    private int cachedLength;
+    /**
+     * 当前（明文）位置
+     *
+     * @since 1.1
+     */
+    private long position;
+
+    /**
+     * AES分段加密文件解密读取通道构造
+     *
+     * @param channel 加密文件通道
+     * @param format  分段加密文件格式
+     * @throws IOException 读取异常
+     * @since 1.1
+     */
+    AESSegmentedReadChannel(@NotNull FileChannel channel, @NotNull AESSegmentedFile format) throws IOException {
+        this.channel = channel;
+        this.format = format;
+        long cipherLength = channel.size();
+        this.segmentCount = format.segmentCount(cipherLength);
+        this.size = format.plainLength(cipherLength);
+        this.cipherSegment = new byte[format.cipherSegmentSize()];
+        this.plainSegment = new byte[format.cipherSegmentSize()];
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        if (position >= size) {
+            return -1;
+        }
+        int total = 0;
+        while (dst.hasRemaining() && position < size) {
+            int index = (int) (position / format.segmentSize);
+            loadSegment(index);
+            int offset = (int) (position - (long) index * format.segmentSize);
+            int length = Math.min(dst.remaining(), cachedLength - offset);
+            dst.put(plainSegment, offset, length);
+            position += length;
+            total += length;
+        }
+        return total;
+    }
+
+    /**
+     * 读取并解密分段（已缓存则跳过）
+     *
+     * @param index 分段序号
+     * @throws IOException 读取异常
+     * @since 1.1
+     */
+    private void loadSegment(int index) throws IOException {
+        if (index == cachedIndex) {
+            return;
+        }
+        boolean last = index == segmentCount - 1;
+        long offset = AESSegmentedFile.HEADER_BYTE_SIZE + (long) index * format.cipherSegmentSize();
+        int length = last ? (int) (channel.size() - offset) : format.cipherSegmentSize();
+        AESSegmentedFile.readFully(channel, ByteBuffer.wrap(cipherSegment, 0, length), offset);
+        cachedIndex = -1;
+        cachedLength = format.decryptSegment(cipher, index, last, cipherSegment, length, plainSegment);
+        cachedIndex = index;
+    }
+
+    /**
+     * 读取指定（明文）范围的数据
+     *
+     * @param offset 起始（明文）位置
+     * @param length 读取长度
+     * @return 解密数据，范围超出明文长度时截断
+     * @throws IOException 读取异常
+     * @since 1.1
+     */
+    byte[] readRange(long offset, int length) throws IOException {
+        Assert.state(offset >= 0 && length >= 0, "读取范围[" + offset + ", +" + length + "]错误");
+        position(offset);
+        ByteBuffer dst = ByteBuffer.allocate((int) Math.max(0, Math.min(length, size - offset)));
+        while (dst.hasRemaining() && read(dst) > 0) {
+            // 读满
+        }
+        return dst.array();
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+        ensureOpen();
+        return position;
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        Assert.state(newPosition >= 0, "位置[" + newPosition + "]不可为负数");
+        this.position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        ensureOpen();
+        return size;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * @throws ClosedChannelException 通道已关闭
+     * @since 1.1
+     */
+    private void ensureOpen() throws ClosedChannelException {
+        if (!channel.isOpen()) {
+            throw new ClosedChannelException();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.cipher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * 流式Base64的字符流适配：Base64文本均为ASCII字符，字节与字符一一对应，无需经字符集编解码
+ *
+ * @since 1.1
+ */
+final class Base64Streams {
+    private Base64Streams() {
+    }
+
+    /**
+     * 将（ASCII）字节输出流适配到字符输出流
+     *
+     * @param out   字符输出流
+     * @param close 关闭时是否关闭{@code out}，否则仅刷新
+     * @return 字节输出流
+     * @since 1.1
+     */
+    static OutputStream asciiOutputStream(Writer out, boolean close) {
+        return new OutputStream() {
+            private final char[] chars = new char[CipherConsts.STREAM_CRYPT_DEF_BUFFER_BYTE_SIZE];
+
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b & 0xFF);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                while (len > 0) {
+                    int n = Math.min(len, chars.length);
+                    for (int i = 0; i < n; i++) {
+                        chars[i] = (char) (b[off + i] & 0xFF);
+                    }
+                    out.write(chars, 0, n);
+                    off += n;
+                    len -= n;
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                out.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (close) {
+                    out.close();
+                } else {
+                    out.flush();
+                }
+            }
+        };
+    }
+
+    /**
+     * 将字符输入流适配为（ASCII）字节输入流，遇到非ASCII字符时抛出{@link IOException}
+     *
+     * @param in    字符输入流
+     * @param close 关闭时是否关闭{@code in}
+     * @return 字节输入流
+     * @since 1.1
+     */
+    static InputStream asciiInputStream(Reader in, boolean close) {
+        return new InputStream() {
+            private final char[] chars = new char[CipherConsts.STREAM_CRYPT_DEF_BUFFER_BYTE_SIZE];
+
+            @Override
+            public int read() throws IOException {
+                int c = in.read();
+                return c < 0 ? -1 : ascii(c);
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+                int n = in.read(chars, 0, Math.min(len, chars.length));
+                for (int i = 0; i < n; i++) {
+                    b[off + i] = (byte) ascii(chars[i]);
+                }
+                return n;
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (close) {
+                    in.close();
+                }
+            }
+        };
+    }
+
+    /**
+     * 校验ASCII字符（Base64字符均为ASCII字符，非ASCII字符不可截断为字节）
+     *
+     * @param c 字符
+     * @return 字符
+     * @throws IOException 非ASCII字符
+     * @since 1.1
+     */
+    private static int ascii(int c) throws IOException {
+        if (c > 0x7F) {
+            throw new IOException("非法的Base64字符[\\u" + String.format("%04x", c) + "]");
+        }
+        return c;
+    }
+
+    /**
+     * 将字符输入流的数据全部写入字符输出流（不关闭流）
+     *
+     * @param in  字符输入流
+     * @param out 字符输出流
+     * @throws IOException 读写异常
+     * @since 1.1
+     */
+    static void transfer(Reader in, Writer out) throws IOException {
+        char[] buffer = new char[CipherConsts.STREAM_CRYPT_DEF_BUFFER_BYTE_SIZE];
+        int len;
+        while ((len = in.read(buffer)) != -1) {
+            out.write(buffer, 0, len);
+        }
+    }
+}
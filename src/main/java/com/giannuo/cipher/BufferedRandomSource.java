@@ -0,0 +1,165 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.cipher;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.SecureRandomSpi;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 线程独享、批量预取的随机数源（默认随机数源）
+ * <br>
+ * 每个线程持有一个DRBG实例（JDK9+使用{@code DRBG}算法，JDK8回退至默认{@code SecureRandom}），
+ * 避免多线程争用同一熵源；小于预取缓冲区一半的请求（如向量、盐值）从线程本地缓冲区中切取，
+ * 缓冲区耗尽时一次性批量填充，已提供的字节随即从缓冲区中清零；
+ * {@link #secureRandom()}返回线程独享生成器的视图，不可重新设置种子
+ * </br>
+ *
+ * @see CipherConsts#RANDOM_SOURCE_DEF_BUFFER_BYTE_SIZE
+ * @since 1.1
+ */
+public enum BufferedRandomSource implements IRandomSource {
+    /**
+     * 单例
+     *
+     * @since 1.1
+     */
+    SINGLETON;
+
+    /**
+     * 线程本地状态
+     *
+     * @since 1.1
+     */
+    private final ThreadLocal<State> state = ThreadLocal.withInitial(State::new);
+    /**
+     * 累计提供的随机字节数
+     *
+     * @since 1.1
+     */
+    private final LongAdder bytesDrawn = new LongAdder();
+
+    @Override
+    public void nextBytes(@NotNull byte[] bytes) {
+        State state = this.state.get();
+        if (bytes.length > state.buffer.length / 2) {
+            // 大块请求直接生成，避免反复填充缓冲区
+            state.random.nextBytes(bytes);
+        } else {
+            state.take(bytes);
+        }
+        bytesDrawn.add(bytes.length);
+    }
+
+    @NotNull
+    @Override
+    public SecureRandom secureRandom() {
+        return state.get().view;
+    }
+
+    @Override
+    public long bytesDrawn() {
+        return bytesDrawn.sum();
+    }
+
+    /**
+     * 创建DRBG实例，不支持时回退至默认实现
+     *
+     * @return 安全随机数生成器
+     * @since 1.1
+     */
+    private static SecureRandom newDrbg() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+
+    /**
+     * 线程本地状态：DRBG实例与预取缓冲区
+     *
+     * @since 1.1
+     */
+    private static final class State {
+        private final SecureRandom random = newDrbg();
+        /**
+         * 交给JCE使用的视图（不可重新设置种子）
+         */
+        private final SecureRandom view = new UnseedableView(random);
+        private final byte[] buffer = new byte[CipherConsts.RANDOM_SOURCE_DEF_BUFFER_BYTE_SIZE];
+        /**
+         * 缓冲区中下一个可用字节的位置，等于缓冲区长度时表示耗尽
+         */
+        private int position = buffer.length;
+
+        private void take(byte[] bytes) {
+            if (buffer.length - position < bytes.length) {
+                random.nextBytes(buffer);
+                position = 0;
+            }
+            System.arraycopy(buffer, position, bytes, 0, bytes.length);
+            Arrays.fill(buffer, position, position + bytes.length, (byte) 0);
+            position += bytes.length;
+        }
+    }
+
+    /**
+     * 不可重新设置种子的安全随机数生成器视图：随机数委托给线程独享的生成器，{@code setSeed}抛出异常
+     *
+     * @since 1.1
+     */
+    private static final class UnseedableView extends SecureRandom {
+        private static final long serialVersionUID = 1L;
+
+        private UnseedableView(SecureRandom random) {
+            super(new UnseedableSpi(random), null);
+        }
+    }
+
+    /**
+     * {@link UnseedableView}的服务实现
+     *
+     * @since 1.1
+     */
+    private static final class UnseedableSpi extends SecureRandomSpi {
+        private static final long serialVersionUID = 1L;
+        private final transient SecureRandom random;
+
+        private UnseedableSpi(SecureRandom random) {
+            this.random = random;
+        }
+
+        @Override
+        protected void engineSetSeed(byte[] seed) {
+            throw new UnsupportedOperationException("线程共享的随机数生成器不可重新设置种子，请使用new SecureRandom(seed)");
+        }
+
+        @Override
+        protected void engineNextBytes(byte[] bytes) {
+            random.nextBytes(bytes);
+        }
+
+        @Override
+        protected byte[] engineGenerateSeed(int numBytes) {
+            return random.generateSeed(numBytes);
+        }
+    }
+}
@@ -98,6 +98,35 @@ public interface CipherConsts {
      */
     String ALGORITHM_AES_SPECIFIC_ALGORITHM_NAME = "AES/CBC/PKCS5Padding";
 
+    /**
+     * AES分段（并行）文件加密算法实例名，指明了算法/工作模式/填充模式
+     * <ul>
+     *     <li>加密算法：AES</li>
+     *     <li>工作模式：GCM（Galois/Counter Mode），基于CTR计数器模式并附带认证标签，各分段可独立加解密，支持并行化</li>
+     *     <li>填充方式：NoPadding</li>
+     * </ul>
+     *
+     * @since 1.1
+     */
+    String ALGORITHM_AES_GCM_SPECIFIC_ALGORITHM_NAME = "AES/GCM/NoPadding";
+
+    /**
+     * AES分段（并行）文件加密默认分段（明文）大小：1MB
+     *
+     * @since 1.1
+     */
+    int ALGORITHM_AES_DEF_SEGMENT_BYTE_SIZE = 1024 * 1024;
+
+    /**
+     * AES分段（并行）文件加密最大分段（明文）大小：64MB
+     * <br>
+     * 分段大小来自未经认证的文件头部，解析时按此上限校验，避免构造的文件在认证前触发超大缓冲区分配
+     * </br>
+     *
+     * @since 1.1
+     */
+    int ALGORITHM_AES_MAX_SEGMENT_BYTE_SIZE = 64 * 1024 * 1024;
+
     /**
      * 算法名：DES
      *
@@ -276,4 +305,84 @@ public interface CipherConsts {
      */
     String ALGORITHM_RSA_SIGNATURE_ALGORITHM_NAME = "SHA512withRSA";
 
+    /**
+     * 密码器池默认容量：CPU核数的2倍
+     *
+     * @see CipherEngineMode#POOLED
+     * @since 1.1
+     */
+    int CIPHER_POOL_DEF_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
+    /**
+     * 文件加解密默认（读）缓冲区大小：64KB
+     *
+     * @since 1.1
+     */
+    int FILE_CRYPT_DEF_BUFFER_BYTE_SIZE = 64 * 1024;
+
+    /**
+     * 流式加解密默认缓冲区大小：8KB
+     *
+     * @since 1.1
+     */
+    int STREAM_CRYPT_DEF_BUFFER_BYTE_SIZE = 8 * 1024;
+
+    /**
+     * 随机数源默认（每线程）预取缓冲区大小：256B，可满足16个AES向量
+     *
+     * @see BufferedRandomSource
+     * @since 1.1
+     */
+    int RANDOM_SOURCE_DEF_BUFFER_BYTE_SIZE = 256;
+
+    /**
+     * RSA数字信封消息体（AES/GCM）分段明文大小：64KB
+     *
+     * @since 1.1
+     */
+    int RSA_ENVELOPE_SEGMENT_BYTE_SIZE = 64 * 1024;
+
+    /**
+     * RSA秘钥缓存默认容量（公钥、私钥分别计）
+     *
+     * @since 1.1
+     */
+    int RSA_KEY_CACHE_DEF_MAX_SIZE = 64;
+
+    /**
+     * RSA秘钥缓存默认存活时间：30分钟
+     *
+     * @since 1.1
+     */
+    long RSA_KEY_CACHE_DEF_TTL_MILLIS = 30 * 60 * 1000L;
+
+    /**
+     * RSA秘钥对预生成池默认深度（每种秘钥长度）
+     *
+     * @see RSAKeyPairPool
+     * @since 1.1
+     */
+    int RSA_KEY_PAIR_POOL_DEF_DEPTH = 4;
+    /**
+     * RSA秘钥对预生成池默认执行器的线程数（守护线程，空闲时回收）
+     *
+     * @see RSAKeyPairPool
+     * @since 1.1
+     */
+    int RSA_KEY_PAIR_POOL_DEF_THREADS = 2;
+    /**
+     * RSA秘钥对预生成池后台补充失败后的首次重试间隔（毫秒），连续失败时逐次翻倍
+     *
+     * @see RSAKeyPairPool
+     * @since 1.1
+     */
+    long RSA_KEY_PAIR_POOL_RETRY_BACKOFF_MILLIS = 1000;
+    /**
+     * RSA秘钥对预生成池后台补充失败后的最大重试间隔（毫秒）
+     *
+     * @see RSAKeyPairPool
+     * @since 1.1
+     */
+    long RSA_KEY_PAIR_POOL_MAX_RETRY_BACKOFF_MILLIS = 60_000;
+
 }
@@ -19,9 +19,18 @@ import com.giannuo.util.Assert;
 import org.jetbrains.annotations.NotNull;
 
 import javax.crypto.Cipher;
-import javax.crypto.CipherInputStream;
-import java.io.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 /**
  * 密码器（抽象类）
@@ -47,6 +56,30 @@ abstract class CipherCrypt {
      * @since 1.0
      */
     protected final Cipher cipher;
+    /**
+     * 明确的算法名称
+     *
+     * @since 1.1
+     */
+    protected final String specificAlgorithmName;
+    /**
+     * 密码器引擎
+     *
+     * @since 1.1
+     */
+    private volatile CipherEngine engine;
+    /**
+     * 是否已冻结（冻结后不可再修改引擎模式、随机数源等配置，用于多线程共享的实例）
+     *
+     * @since 1.1
+     */
+    private volatile boolean frozen;
+    /**
+     * 并行处理时工作线程复用密码器的引擎（单密码器模式下按需创建的线程独享引擎）
+     *
+     * @since 1.1
+     */
+    private volatile CipherEngine workerEngine;
 
 
     /**
@@ -60,23 +93,345 @@ abstract class CipherCrypt {
     protected CipherCrypt(@NotNull String algorithm, @NotNull Charset charset, @NotNull String specificAlgorithmName) {
         this.algorithm = algorithm;
         this.charset = charset;
+        this.specificAlgorithmName = specificAlgorithmName;
+        this.cipher = newCipher();
+        this.engine = new CipherEngine.Single(this);
+    }
+
+    /**
+     * 密码器初始化（初始化构造时创建的共享密码器）
+     *
+     * @return cipher 密码器
+     * @since 1.0
+     */
+    protected Cipher cipherInit() {
+        return cipherInit(cipher);
+    }
+
+    /**
+     * 密码器初始化
+     *
+     * @param cipher 待初始化的密码器
+     * @return cipher 密码器
+     * @since 1.1
+     */
+    protected abstract Cipher cipherInit(Cipher cipher);
+
+    /**
+     * 创建新的（未初始化的）密码器实例
+     *
+     * @return 密码器
+     * @since 1.1
+     */
+    protected Cipher newCipher() {
         try {
-            this.cipher = Cipher.getInstance(specificAlgorithmName);
+            return Cipher.getInstance(specificAlgorithmName);
         } catch (Exception e) {
             throw Assert.toRuntimeException(e);
         }
     }
 
     /**
-     * 密码器初始化
+     * 创建新的已初始化的密码器实例
      *
-     * @return cipher 密码器
-     * @since 1.0
+     * @return 已初始化的密码器
+     * @since 1.1
+     */
+    protected Cipher newInitializedCipher() {
+        return cipherInit(newCipher());
+    }
+
+    /**
+     * 设置密码器引擎模式，使用默认池容量{@link CipherConsts#CIPHER_POOL_DEF_SIZE}
+     *
+     * @param mode 引擎模式
+     * @see CipherEngineMode
+     * @since 1.1
      */
-    protected abstract Cipher cipherInit();
+    public void setEngineMode(@NotNull CipherEngineMode mode) {
+        setEngineMode(mode, CipherConsts.CIPHER_POOL_DEF_SIZE);
+    }
 
     /**
-     * 根据cipherInit初始化的模式（加密/解密）处理数据文件
+     * 设置密码器引擎模式
+     * <ul>
+     *     <li>{@link CipherEngineMode#SINGLE}：默认，非线程安全</li>
+     *     <li>{@link CipherEngineMode#THREAD_LOCAL}：线程安全，每线程一个已初始化的密码器</li>
+     *     <li>{@link CipherEngineMode#POOLED}：线程安全，有界分段的已初始化密码器池</li>
+     * </ul>
+     * 注：应在加密器/解密器发布给其他线程之前设置
+     *
+     * @param mode     引擎模式
+     * @param poolSize 池容量（仅池化模式有效）
+     * @since 1.1
+     */
+    public void setEngineMode(@NotNull CipherEngineMode mode, int poolSize) {
+        assertNotFrozen();
+        Assert.state(poolSize > 0, "密码器池容量[" + poolSize + "]必须大于0");
+        this.engine = CipherEngine.of(this, mode, poolSize);
+    }
+
+    /**
+     * 冻结配置，此后修改引擎模式、随机数源将抛出异常
+     *
+     * @see RSAKeyRegistry
+     * @since 1.1
+     */
+    void freeze() {
+        this.frozen = true;
+    }
+
+    /**
+     * @return 是否已冻结配置
+     * @since 1.1
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * 校验配置未冻结
+     *
+     * @since 1.1
+     */
+    protected void assertNotFrozen() {
+        Assert.state(!frozen, "共享的加密器/解密器配置已冻结，不可修改");
+    }
+
+    /**
+     * @return 密码器引擎模式
+     * @since 1.1
+     */
+    public CipherEngineMode getEngineMode() {
+        return engine.mode();
+    }
+
+    /**
+     * 使用已初始化的密码器处理（加密/解密）数据
+     *
+     * @param cipher 已初始化的密码器
+     * @param data   待处理数据
+     * @return 处理结果
+     * @throws Exception 处理异常
+     * @since 1.1
+     */
+    protected byte[] doFinal(Cipher cipher, byte[] data) throws Exception {
+        return cipher.doFinal(data);
+    }
+
+    /**
+     * 使用已初始化的密码器处理（加密/解密）数据，结果写入调用方提供的字节数组
+     *
+     * @param cipher    已初始化的密码器
+     * @param in        待处理数据
+     * @param inOffset  待处理数据起始位置
+     * @param inLength  待处理数据长度
+     * @param out       处理结果输出
+     * @param outOffset 处理结果输出起始位置
+     * @return 处理结果长度
+     * @throws Exception 处理异常（输出空间不足时为{@code ShortBufferException}）
+     * @since 1.1
+     */
+    protected int doFinal(Cipher cipher, byte[] in, int inOffset, int inLength, byte[] out, int outOffset) throws Exception {
+        return cipher.doFinal(in, inOffset, inLength, out, outOffset);
+    }
+
+    /**
+     * 使用已初始化的密码器处理（加密/解密）数据，结果写入调用方提供的缓冲区
+     *
+     * @param cipher 已初始化的密码器
+     * @param in     待处理数据，处理后position推进到limit
+     * @param out    处理结果输出，处理后position推进处理结果长度
+     * @return 处理结果长度
+     * @throws Exception 处理异常（输出空间不足时为{@code ShortBufferException}）
+     * @since 1.1
+     */
+    protected int doFinal(Cipher cipher, ByteBuffer in, ByteBuffer out) throws Exception {
+        return cipher.doFinal(in, out);
+    }
+
+    /**
+     * 计算处理结果的最大长度
+     *
+     * @param cipher      已初始化的密码器
+     * @param inputLength 待处理数据长度
+     * @return 处理结果的最大长度
+     * @since 1.1
+     */
+    protected int getOutputSize(Cipher cipher, int inputLength) {
+        return cipher.getOutputSize(inputLength);
+    }
+
+    /**
+     * 计算处理结果的最大长度，可用于预先分配输出缓冲区
+     *
+     * @param inputLength 待处理数据长度
+     * @return 处理结果的最大长度
+     * @since 1.1
+     */
+    public int getOutputSize(int inputLength) {
+        return doWithCipher(cipher -> getOutputSize(cipher, inputLength));
+    }
+
+    /**
+     * @return 密码器引擎
+     * @since 1.1
+     */
+    CipherEngine engine() {
+        return engine;
+    }
+
+    /**
+     * 并行处理时工作线程借出密码器的引擎：线程独享、池化模式下即为当前引擎；
+     * 单密码器模式下共享的密码器不可并发使用，使用按需创建的线程独享引擎，每个工作线程只初始化一次密码器
+     *
+     * @return 密码器引擎（借出的密码器互不相同）
+     * @since 1.1
+     */
+    CipherEngine workerEngine() {
+        final CipherEngine engine = this.engine;
+        if (engine.mode() != CipherEngineMode.SINGLE) {
+            return engine;
+        }
+        CipherEngine worker = this.workerEngine;
+        if (worker == null) {
+            // 竞争时至多多建一个引擎，不影响正确性
+            this.workerEngine = worker = new CipherEngine.PerThread(this);
+        }
+        return worker;
+    }
+
+    /**
+     * 从密码器引擎借出一个已初始化的密码器执行处理，处理完成后归还
+     *
+     * @param callback 密码器处理回调
+     * @param <T>      处理结果类型
+     * @return 处理结果
+     * @since 1.1
+     */
+    <T> T doWithCipher(CipherCallback<T> callback) {
+        return doWithCipher(callback, false);
+    }
+
+    /**
+     * 从密码器引擎借出一个已初始化的密码器执行处理，处理完成后归还
+     *
+     * @param callback  密码器处理回调
+     * @param exclusive 是否需要独占的密码器（并发处理时）
+     * @param <T>       处理结果类型
+     * @return 处理结果
+     * @see CipherEngine#borrowExclusive()
+     * @since 1.1
+     */
+    <T> T doWithCipher(CipherCallback<T> callback, boolean exclusive) {
+        final CipherEngine engine = this.engine;
+        final Cipher cipher = exclusive ? engine.borrowExclusive() : engine.borrow();
+        boolean reusable = false;
+        try {
+            T result = callback.doWith(cipher);
+            reusable = true;
+            return result;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e);
+        } finally {
+            engine.release(cipher, reusable);
+        }
+    }
+
+    /**
+     * 批量处理数据：整批（或每个并行分片）只借出/初始化一次密码器
+     * <br>
+     * 并行时按公共ForkJoin线程池的并行度将数据切分为若干分片，每个分片独占一个密码器
+     * </br>
+     *
+     * @param datas    待处理数据
+     * @param parallel 是否并行处理
+     * @param callback 单条数据处理回调
+     * @param <T>      待处理数据类型
+     * @param <R>      处理结果类型
+     * @return 处理结果，与待处理数据一一对应
+     * @since 1.1
+     */
+    @SuppressWarnings("unchecked")
+    <T, R> List<R> doBatch(@NotNull List<T> datas, boolean parallel, @NotNull CipherBatchCallback<T, R> callback) {
+        final Object[] inputs = datas.toArray();
+        final Object[] results = new Object[inputs.length];
+        final int chunks = parallel ? Math.min(inputs.length, ForkJoinPool.getCommonPoolParallelism() * 4) : 1;
+        if (chunks <= 1) {
+            doWithCipher(cipher -> doBatch(cipher, inputs, results, 0, inputs.length, callback));
+        } else {
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                int from = (int) ((long) inputs.length * chunk / chunks);
+                int to = (int) ((long) inputs.length * (chunk + 1) / chunks);
+                doWithCipher(cipher -> doBatch(cipher, inputs, results, from, to, callback), true);
+            });
+        }
+        return (List<R>) Arrays.asList(results);
+    }
+
+    /**
+     * 批量处理数据分片
+     *
+     * @param cipher   已初始化的密码器
+     * @param inputs   待处理数据
+     * @param results  处理结果
+     * @param from     分片起始位置（含）
+     * @param to       分片结束位置（不含）
+     * @param callback 单条数据处理回调
+     * @param <T>      待处理数据类型
+     * @param <R>      处理结果类型
+     * @return null
+     * @throws Exception 处理异常
+     * @since 1.1
+     */
+    @SuppressWarnings("unchecked")
+    private <T, R> Void doBatch(Cipher cipher, Object[] inputs, Object[] results, int from, int to, CipherBatchCallback<T, R> callback) throws Exception {
+        for (int i = from; i < to; i++) {
+            results[i] = callback.doWith(cipher, (T) inputs[i]);
+        }
+        return null;
+    }
+
+    /**
+     * 批量处理中单条数据的处理回调
+     *
+     * @param <T> 待处理数据类型
+     * @param <R> 处理结果类型
+     * @since 1.1
+     */
+    @FunctionalInterface
+    interface CipherBatchCallback<T, R> {
+        /**
+         * @param cipher 已初始化的密码器
+         * @param data   待处理数据
+         * @return 处理结果
+         * @throws Exception 处理异常
+         * @since 1.1
+         */
+        R doWith(Cipher cipher, T data) throws Exception;
+    }
+
+    /**
+     * 密码器处理回调
+     *
+     * @param <T> 处理结果类型
+     * @since 1.1
+     */
+    @FunctionalInterface
+    interface CipherCallback<T> {
+        /**
+         * @param cipher 已初始化的密码器
+         * @return 处理结果
+         * @throws Exception 处理异常
+         * @since 1.1
+         */
+        T doWith(Cipher cipher) throws Exception;
+    }
+
+    /**
+     * 根据cipherInit初始化的模式（加密/解密）处理数据文件，使用默认缓冲区大小{@link CipherConsts#FILE_CRYPT_DEF_BUFFER_BYTE_SIZE}
      *
      * @param sourceFilePath 待处理（加密/解密）数据文件路径
      * @param destFilePath   处理（加密/解密）结果数据文件路径
@@ -84,40 +439,109 @@ abstract class CipherCrypt {
      * @since 1.0
      */
     public File cryptFile(@NotNull String sourceFilePath, @NotNull String destFilePath) {
-        File sourceFile = new File(sourceFilePath);
+        return cryptFile(sourceFilePath, destFilePath, CipherConsts.FILE_CRYPT_DEF_BUFFER_BYTE_SIZE);
+    }
+
+    /**
+     * 根据cipherInit初始化的模式（加密/解密）处理数据文件
+     * <br>
+     * 基于{@code FileChannel}与直接缓冲区（{@code ByteBuffer.allocateDirect}），
+     * 通过{@code Cipher.update(ByteBuffer, ByteBuffer)}处理数据，避免堆内字节数组的拷贝
+     * </br>
+     *
+     * @param sourceFilePath 待处理（加密/解密）数据文件路径
+     * @param destFilePath   处理（加密/解密）结果数据文件路径
+     * @param bufferSize     （读）缓冲区大小
+     * @return 处理（加密/解密）结果文件
+     * @since 1.1
+     */
+    public File cryptFile(@NotNull String sourceFilePath, @NotNull String destFilePath, int bufferSize) {
+        File sourceFile = checkSourceFile(sourceFilePath);
         File destFile = new File(destFilePath);
+        Assert.state(bufferSize > 0, "缓冲区大小[" + bufferSize + "]必须大于0");
+
+        return doWithCipher(cipher -> {
+            try (FileChannel in = FileChannel.open(sourceFile.toPath(), StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(destFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer inBuffer = ByteBuffer.allocateDirect(bufferSize);
+                ByteBuffer outBuffer = ByteBuffer.allocateDirect(cipher.getOutputSize(bufferSize));
+                while (in.read(inBuffer) != -1) {
+                    inBuffer.flip();
+                    outBuffer = ensureOutputBuffer(outBuffer, cipher.getOutputSize(inBuffer.remaining()));
+                    cipher.update(inBuffer, outBuffer);
+                    writeFully(out, outBuffer);
+                    inBuffer.clear();
+                }
+                inBuffer.flip();
+                outBuffer = ensureOutputBuffer(outBuffer, cipher.getOutputSize(0));
+                cipher.doFinal(inBuffer, outBuffer);
+                writeFully(out, outBuffer);
+
+                return destFile;
+            }
+        });
+    }
+
+    /**
+     * 校验待处理（加密/解密）数据文件
+     *
+     * @param sourceFilePath 待处理（加密/解密）数据文件路径
+     * @return 待处理（加密/解密）数据文件
+     * @since 1.1
+     */
+    static File checkSourceFile(@NotNull String sourceFilePath) {
+        File sourceFile = new File(sourceFilePath);
         Assert.state(sourceFile.exists(), "源文件[" + sourceFilePath + "]不存在");
         Assert.state(!sourceFile.isDirectory(), "源文件[" + sourceFilePath + "]类型错误，不可以是目录");
         Assert.state(sourceFile.isFile(), "源文件[" + sourceFilePath + "]类型错误，非文件");
+        return sourceFile;
+    }
 
-        final InputStream in;
-        OutputStream out = null;
-        CipherInputStream cin = null;
-        try {
-            // 密码器初始化
-            cipherInit();
-            in = new FileInputStream(sourceFile);
-            out = new FileOutputStream(destFile);
-            cin = new CipherInputStream(in, cipher);
-            byte[] buffer = new byte[512];
-            int i;
-            while ((i = cin.read(buffer)) != -1) {
-                out.write(buffer, 0, i);
-            }
+    /**
+     * 确保（直接）输出缓冲区容量足够，不足时重新分配
+     *
+     * @param buffer   输出缓冲区
+     * @param required 所需容量
+     * @return 容量足够的（已清空的）输出缓冲区
+     * @since 1.1
+     */
+    static ByteBuffer ensureOutputBuffer(ByteBuffer buffer, int required) {
+        if (buffer.capacity() < required) {
+            return ByteBuffer.allocateDirect(required);
+        }
+        buffer.clear();
+        return buffer;
+    }
 
-            return destFile;
-        } catch (Exception e) {
-            throw Assert.toRuntimeException(e);
-        } finally {
-            try {
-                if (out != null) {
-                    out.close();
-                }
-                if (cin != null) {
-                    cin.close();//closed `in` and `cin`
-                }
-            } catch (Exception ignored) {
-            }
+    /**
+     * 将读取通道的数据全部写入写出通道（不关闭通道）
+     *
+     * @param in         读取通道
+     * @param out        写出通道
+     * @param bufferSize 缓冲区大小
+     * @throws IOException 读写异常
+     * @since 1.1
+     */
+    static void transfer(ReadableByteChannel in, WritableByteChannel out, int bufferSize) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+        while (in.read(buffer) != -1) {
+            writeFully(out, buffer);
+            buffer.clear();
+        }
+    }
+
+    /**
+     * 将输出缓冲区中已写入的数据全部写出到通道
+     *
+     * @param channel 写出通道
+     * @param buffer  输出缓冲区（写模式）
+     * @throws IOException 写出异常
+     * @since 1.1
+     */
+    static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
         }
     }
 }
@@ -19,8 +19,19 @@ import com.giannuo.util.Assert;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.Base64;
+import java.util.List;
 
 /**
  * 解密器（抽象类）
@@ -67,6 +78,19 @@ public abstract class CipherDecrypt extends CipherCrypt {
         return super.cryptFile(sourceFilePath, destFilePath);
     }
 
+    /**
+     * 解密数据文件
+     *
+     * @param sourceFilePath 待解密数据文件路径
+     * @param destFilePath   解密结果数据文件路径
+     * @param bufferSize     （读）缓冲区大小
+     * @return 解密结果文件
+     * @since 1.1
+     */
+    public File decryptFile(@NotNull String sourceFilePath, @NotNull String destFilePath, int bufferSize) {
+        return cryptFile(sourceFilePath, destFilePath, bufferSize);
+    }
+
     /**
      * 解密（字节数组）数据
      *
@@ -76,12 +100,180 @@ public abstract class CipherDecrypt extends CipherCrypt {
      */
     @NotNull
     public byte[] decrypt(@NotNull byte[] data) {
-        try {
-            cipherInit();
-            return cipher.doFinal(data);
+        return doWithCipher(cipher -> doFinal(cipher, data));
+    }
+
+    /**
+     * 解密数据，结果写入调用方提供的字节数组（不分配结果数组）
+     *
+     * @param in        待解密数据
+     * @param inOffset  待解密数据起始位置
+     * @param inLength  待解密数据长度
+     * @param out       解密结果输出，剩余空间应不小于{@link #getOutputSize(int)}
+     * @param outOffset 解密结果输出起始位置
+     * @return 解密结果长度
+     * @since 1.1
+     */
+    public int decrypt(@NotNull byte[] in, int inOffset, int inLength, @NotNull byte[] out, int outOffset) {
+        return doWithCipher(cipher -> doFinal(cipher, in, inOffset, inLength, out, outOffset));
+    }
+
+    /**
+     * 解密数据，结果写入调用方提供的（可以是直接）缓冲区（不分配结果数组）
+     *
+     * @param in  待解密数据，处理后position推进到limit
+     * @param out 解密结果输出，剩余空间应不小于{@link #getOutputSize(int)}，处理后position推进结果长度
+     * @return 解密结果长度
+     * @since 1.1
+     */
+    public int decrypt(@NotNull ByteBuffer in, @NotNull ByteBuffer out) {
+        return doWithCipher(cipher -> doFinal(cipher, in, out));
+    }
+
+    /**
+     * 批量解密（Base64字符串）数据，整批只初始化一次密码器
+     *
+     * @param base64Datas 待解密数据
+     * @return 解密结果数据，与待解密数据一一对应
+     * @since 1.1
+     */
+    @NotNull
+    public List<String> decryptBase64(@NotNull List<String> base64Datas) {
+        return decryptBase64(base64Datas, false);
+    }
+
+    /**
+     * 批量解密（Base64字符串）数据
+     *
+     * @param base64Datas 待解密数据
+     * @param parallel    是否（使用公共ForkJoin线程池）并行解密
+     * @return 解密结果数据，与待解密数据一一对应
+     * @since 1.1
+     */
+    @NotNull
+    public List<String> decryptBase64(@NotNull List<String> base64Datas, boolean parallel) {
+        final Base64.Decoder decoder = Base64.getDecoder();
+        return doBatch(base64Datas, parallel, (cipher, data) -> new String(doFinal(cipher, decoder.decode(data)), charset));
+    }
+
+    /**
+     * 批量解密（字节数组）数据，整批只初始化一次密码器
+     *
+     * @param datas 待解密数据
+     * @return 解密结果，与待解密数据一一对应
+     * @since 1.1
+     */
+    @NotNull
+    public List<byte[]> decrypt(@NotNull List<byte[]> datas) {
+        return decrypt(datas, false);
+    }
+
+    /**
+     * 批量解密（字节数组）数据
+     *
+     * @param datas    待解密数据
+     * @param parallel 是否（使用公共ForkJoin线程池）并行解密
+     * @return 解密结果，与待解密数据一一对应
+     * @since 1.1
+     */
+    @NotNull
+    public List<byte[]> decrypt(@NotNull List<byte[]> datas, boolean parallel) {
+        return doBatch(datas, parallel, this::doFinal);
+    }
+
+    /**
+     * 包装输入流：从{@code in}读取的密文数据被解密后供读取，内存占用有界
+     *
+     * @param in 密文输入流
+     * @return 明文输入流
+     * @since 1.1
+     */
+    @NotNull
+    public InputStream wrap(@NotNull InputStream in) {
+        return Channels.newInputStream(wrap(Channels.newChannel(in)));
+    }
+
+    /**
+     * 包装读取通道：从{@code in}读取的密文数据被解密后供读取，内存占用有界
+     * <br>
+     * 复用解密器的秘钥与向量；单实例引擎模式下，通道读尽或关闭前不可使用该解密器处理其他数据
+     * </br>
+     *
+     * @param in 密文读取通道
+     * @return 明文读取通道
+     * @since 1.1
+     */
+    @NotNull
+    public ReadableByteChannel wrap(@NotNull ReadableByteChannel in) {
+        CipherEngine engine = engine();
+        return new CipherReadableChannel(engine, engine.borrow(), in, CipherConsts.STREAM_CRYPT_DEF_BUFFER_BYTE_SIZE);
+    }
+
+    /**
+     * 包装输入流：从{@code in}读取的Base64密文数据被Base64解码并解密后供读取，内存占用有界
+     * <br>
+     * 即{@code wrap(Base64.getDecoder().wrap(in))}
+     * </br>
+     *
+     * @param in Base64密文输入流
+     * @return 明文输入流
+     * @see #wrap(InputStream)
+     * @since 1.1
+     */
+    @NotNull
+    public InputStream wrapBase64(@NotNull InputStream in) {
+        return wrap(Base64.getDecoder().wrap(in));
+    }
+
+    /**
+     * 包装字符输入流：从{@code in}读取的Base64密文数据被Base64解码、解密并按字符集解码后供读取，内存占用有界
+     *
+     * @param in Base64密文字符输入流
+     * @return 明文字符输入流，关闭时关闭{@code in}
+     * @since 1.1
+     */
+    @NotNull
+    public Reader wrapBase64(@NotNull Reader in) {
+        return new InputStreamReader(wrapBase64(Base64Streams.asciiInputStream(in, true)), charset);
+    }
+
+    /**
+     * 解密（Base64）数据：从{@code in}读取Base64密文，解密结果写出到{@code out}，内存占用有界
+     * <br>
+     * 不关闭{@code in}与{@code out}，结果与{@link #decryptBase64(String)}一致
+     * </br>
+     *
+     * @param in  Base64密文字符输入流
+     * @param out 明文字符输出流
+     * @since 1.1
+     */
+    public void decryptBase64(@NotNull Reader in, @NotNull Writer out) {
+        try (Reader reader = new InputStreamReader(wrapBase64(Base64Streams.asciiInputStream(in, false)), charset)) {
+            Base64Streams.transfer(reader, out);
+            out.flush();
         } catch (Exception e) {
-            throw Assert.toRuntimeException(e);
+            throw Assert.toRuntimeException(e, "[" + specificAlgorithmName + "]解密Base64数据出错");
         }
     }
 
+    /**
+     * 解密（Base64文本）数据文件，内存占用有界
+     *
+     * @param sourceFilePath 待解密（Base64）数据文件路径
+     * @param destFilePath   解密结果数据文件路径
+     * @return 解密结果文件
+     * @see CipherEncrypt#encryptBase64File(String, String)
+     * @since 1.1
+     */
+    public File decryptBase64File(@NotNull String sourceFilePath, @NotNull String destFilePath) {
+        File sourceFile = checkSourceFile(sourceFilePath);
+        File destFile = new File(destFilePath);
+        try (InputStream in = wrapBase64(Files.newInputStream(sourceFile.toPath()));
+             FileChannel out = FileChannel.open(destFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            transfer(Channels.newChannel(in), out, CipherConsts.FILE_CRYPT_DEF_BUFFER_BYTE_SIZE);
+            return destFile;
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, "[" + specificAlgorithmName + "]解密Base64文件出错");
+        }
+    }
 }
@@ -19,9 +19,19 @@ import com.giannuo.util.Assert;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
-import java.security.SecureRandom;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.Base64;
+import java.util.List;
 
 /**
  * 加密器（抽象类）
@@ -35,6 +45,13 @@ public abstract class CipherEncrypt extends CipherCrypt {
      */
     abstract String getBase64Key();
 
+    /**
+     * 随机数源，默认为线程独享、批量预取的随机数源
+     *
+     * @since 1.1
+     */
+    private volatile IRandomSource randomSource = BufferedRandomSource.SINGLETON;
+
     /**
      * 默认加密器（抽象类）构造
      *
@@ -56,9 +73,28 @@ public abstract class CipherEncrypt extends CipherCrypt {
      */
     @NotNull
     protected byte[] randomByteArray(int size) {
-        byte[] bytes = new byte[size];
-        new SecureRandom().nextBytes(bytes);
-        return bytes;
+        return randomSource.nextBytes(size);
+    }
+
+    /**
+     * 设置随机数源，影响此后生成的向量、盐值（构造时生成的固定向量不受影响）
+     * <br>注：配置已冻结（如{@link RSAKeyRegistry}共享的实例）时抛出异常</br>
+     *
+     * @param randomSource 随机数源
+     * @since 1.1
+     */
+    public void setRandomSource(@NotNull IRandomSource randomSource) {
+        assertNotFrozen();
+        this.randomSource = randomSource;
+    }
+
+    /**
+     * @return 随机数源
+     * @since 1.1
+     */
+    @NotNull
+    public IRandomSource getRandomSource() {
+        return randomSource;
     }
 
     /**
@@ -87,6 +123,19 @@ public abstract class CipherEncrypt extends CipherCrypt {
         return super.cryptFile(sourceFilePath, destFilePath);
     }
 
+    /**
+     * 加密数据文件
+     *
+     * @param sourceFilePath 待加密数据文件路径
+     * @param destFilePath   加密结果数据文件路径
+     * @param bufferSize     （读）缓冲区大小
+     * @return 加密结果文件
+     * @since 1.1
+     */
+    public File encryptFile(@NotNull String sourceFilePath, @NotNull String destFilePath, int bufferSize) {
+        return cryptFile(sourceFilePath, destFilePath, bufferSize);
+    }
+
     /**
      * 加密数据
      *
@@ -96,11 +145,185 @@ public abstract class CipherEncrypt extends CipherCrypt {
      */
     @NotNull
     public byte[] encrypt(@NotNull byte[] data) {
-        try {
-            cipherInit();
-            return cipher.doFinal(data);
+        return doWithCipher(cipher -> doFinal(cipher, data));
+    }
+
+    /**
+     * 加密数据，结果写入调用方提供的字节数组（不分配结果数组）
+     *
+     * @param in        待加密数据
+     * @param inOffset  待加密数据起始位置
+     * @param inLength  待加密数据长度
+     * @param out       加密结果输出，剩余空间应不小于{@link #getOutputSize(int)}
+     * @param outOffset 加密结果输出起始位置
+     * @return 加密结果长度
+     * @since 1.1
+     */
+    public int encrypt(@NotNull byte[] in, int inOffset, int inLength, @NotNull byte[] out, int outOffset) {
+        return doWithCipher(cipher -> doFinal(cipher, in, inOffset, inLength, out, outOffset));
+    }
+
+    /**
+     * 加密数据，结果写入调用方提供的（可以是直接）缓冲区（不分配结果数组）
+     *
+     * @param in  待加密数据，处理后position推进到limit
+     * @param out 加密结果输出，剩余空间应不小于{@link #getOutputSize(int)}，处理后position推进结果长度
+     * @return 加密结果长度
+     * @since 1.1
+     */
+    public int encrypt(@NotNull ByteBuffer in, @NotNull ByteBuffer out) {
+        return doWithCipher(cipher -> doFinal(cipher, in, out));
+    }
+
+    /**
+     * 批量加密（字符串）数据，整批只初始化一次密码器
+     *
+     * @param datas 待加密数据
+     * @return 加密结果Base64数据，与待加密数据一一对应
+     * @since 1.1
+     */
+    @NotNull
+    public List<String> encryptBase64(@NotNull List<String> datas) {
+        return encryptBase64(datas, false);
+    }
+
+    /**
+     * 批量加密（字符串）数据
+     *
+     * @param datas    待加密数据
+     * @param parallel 是否（使用公共ForkJoin线程池）并行加密
+     * @return 加密结果Base64数据，与待加密数据一一对应
+     * @since 1.1
+     */
+    @NotNull
+    public List<String> encryptBase64(@NotNull List<String> datas, boolean parallel) {
+        final Base64.Encoder encoder = Base64.getEncoder();
+        return doBatch(datas, parallel, (cipher, data) -> encoder.encodeToString(doFinal(cipher, data.getBytes(charset))));
+    }
+
+    /**
+     * 批量加密数据，整批只初始化一次密码器
+     *
+     * @param datas 待加密数据
+     * @return 加密结果，与待加密数据一一对应
+     * @since 1.1
+     */
+    @NotNull
+    public List<byte[]> encrypt(@NotNull List<byte[]> datas) {
+        return encrypt(datas, false);
+    }
+
+    /**
+     * 批量加密数据
+     *
+     * @param datas    待加密数据
+     * @param parallel 是否（使用公共ForkJoin线程池）并行加密
+     * @return 加密结果，与待加密数据一一对应
+     * @since 1.1
+     */
+    @NotNull
+    public List<byte[]> encrypt(@NotNull List<byte[]> datas, boolean parallel) {
+        return doBatch(datas, parallel, this::doFinal);
+    }
+
+    /**
+     * 包装输出流：写入的明文数据被加密后写出到{@code out}，内存占用有界
+     * <br>
+     * 关闭返回的输出流时完成最后一块（含填充）的加密并关闭{@code out}，未关闭则密文不完整
+     * </br>
+     *
+     * @param out 密文输出流
+     * @return 明文输出流
+     * @since 1.1
+     */
+    @NotNull
+    public OutputStream wrap(@NotNull OutputStream out) {
+        return Channels.newOutputStream(wrap(Channels.newChannel(out)));
+    }
+
+    /**
+     * 包装写出通道：写入的明文数据被加密后写出到{@code out}，内存占用有界
+     * <br>
+     * 复用加密器的秘钥与向量；单实例引擎模式下，通道关闭前不可使用该加密器处理其他数据
+     * </br>
+     *
+     * @param out 密文写出通道
+     * @return 明文写出通道
+     * @since 1.1
+     */
+    @NotNull
+    public WritableByteChannel wrap(@NotNull WritableByteChannel out) {
+        CipherEngine engine = engine();
+        return new CipherWritableChannel(engine, engine.borrow(), out, CipherConsts.STREAM_CRYPT_DEF_BUFFER_BYTE_SIZE);
+    }
+
+    /**
+     * 包装输出流：写入的明文数据被加密并Base64编码后写出到{@code out}，内存占用有界
+     * <br>
+     * 即{@code wrap(Base64.getEncoder().wrap(out))}；关闭返回的输出流时完成加密及Base64填充并关闭{@code out}
+     * </br>
+     *
+     * @param out Base64密文输出流
+     * @return 明文输出流
+     * @see #wrap(OutputStream)
+     * @since 1.1
+     */
+    @NotNull
+    public OutputStream wrapBase64(@NotNull OutputStream out) {
+        return wrap(Base64.getEncoder().wrap(out));
+    }
+
+    /**
+     * 包装字符输出流：写入的（字符串）明文数据按字符集编码、加密并Base64编码后写出到{@code out}，内存占用有界
+     * <br>
+     * 关闭返回的字符输出流时完成加密及Base64填充并关闭{@code out}，结果与{@link #encryptBase64(String)}一致
+     * </br>
+     *
+     * @param out Base64密文字符输出流
+     * @return 明文字符输出流
+     * @since 1.1
+     */
+    @NotNull
+    public Writer wrapBase64(@NotNull Writer out) {
+        return new OutputStreamWriter(wrapBase64(Base64Streams.asciiOutputStream(out, true)), charset);
+    }
+
+    /**
+     * 加密（字符串）数据：从{@code in}读取明文，加密结果Base64数据写出到{@code out}，内存占用有界
+     * <br>
+     * 不关闭{@code in}与{@code out}，结果与{@link #encryptBase64(String)}一致
+     * </br>
+     *
+     * @param in  明文字符输入流
+     * @param out Base64密文字符输出流
+     * @since 1.1
+     */
+    public void encryptBase64(@NotNull Reader in, @NotNull Writer out) {
+        try (Writer writer = new OutputStreamWriter(wrapBase64(Base64Streams.asciiOutputStream(out, false)), charset)) {
+            Base64Streams.transfer(in, writer);
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, "[" + specificAlgorithmName + "]加密Base64数据出错");
+        }
+    }
+
+    /**
+     * 加密数据文件，加密结果以Base64文本写入结果文件，内存占用有界
+     *
+     * @param sourceFilePath 待加密数据文件路径
+     * @param destFilePath   加密结果（Base64）数据文件路径
+     * @return 加密结果文件
+     * @see CipherDecrypt#decryptBase64File(String, String)
+     * @since 1.1
+     */
+    public File encryptBase64File(@NotNull String sourceFilePath, @NotNull String destFilePath) {
+        File sourceFile = checkSourceFile(sourceFilePath);
+        File destFile = new File(destFilePath);
+        try (FileChannel in = FileChannel.open(sourceFile.toPath(), StandardOpenOption.READ);
+             OutputStream out = wrapBase64(Files.newOutputStream(destFile.toPath()))) {
+            transfer(in, Channels.newChannel(out), CipherConsts.FILE_CRYPT_DEF_BUFFER_BYTE_SIZE);
+            return destFile;
         } catch (Exception e) {
-            throw Assert.toRuntimeException(e);
+            throw Assert.toRuntimeException(e, "[" + specificAlgorithmName + "]加密Base64文件出错");
         }
     }
 }
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.cipher;
+
+import javax.crypto.Cipher;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 密码器引擎，向加密器/解密器提供已初始化的JCE密码器实例
+ * <ul>
+ *     <li>借出：{@link #borrow()}，得到一个已按加密器/解密器的秘钥、向量初始化的密码器</li>
+ *     <li>归还：{@link #release(Cipher, boolean)}，处理异常的密码器状态不确定，不再复用</li>
+ * </ul>
+ * 注：JCE密码器在{@code doFinal}之后会重置为最近一次{@code init}时的状态，因此归还的密码器无需重新初始化即可再次使用
+ *
+ * @see CipherEngineMode
+ * @since 1.1
+ */
+abstract class CipherEngine {
+    /**
+     * 所属的加密器/解密器
+     *
+     * @since 1.1
+     */
+    protected final CipherCrypt crypt;
+
+    /**
+     * 密码器引擎构造
+     *
+     * @param crypt 所属的加密器/解密器
+     * @since 1.1
+     */
+    protected CipherEngine(CipherCrypt crypt) {
+        this.crypt = crypt;
+    }
+
+    /**
+     * 借出一个已初始化的密码器
+     *
+     * @return 已初始化的密码器
+     * @since 1.1
+     */
+    abstract Cipher borrow();
+
+    /**
+     * 借出一个由调用方独占的已初始化的密码器（可与其他借出的密码器并发使用）
+     * <br>
+     * 线程独享/池化引擎借出的密码器本就独占；单实例引擎则新建密码器，归还时直接丢弃
+     * </br>
+     *
+     * @return 已初始化的密码器
+     * @since 1.1
+     */
+    Cipher borrowExclusive() {
+        return borrow();
+    }
+
+    /**
+     * 归还密码器
+     *
+     * @param cipher   借出的密码器
+     * @param reusable 是否可复用（处理过程中发生异常则不可复用）
+     * @since 1.1
+     */
+    abstract void release(Cipher cipher, boolean reusable);
+
+    /**
+     * @return 引擎模式
+     * @since 1.1
+     */
+    abstract CipherEngineMode mode();
+
+    /**
+     * 创建密码器引擎
+     *
+     * @param crypt    所属的加密器/解密器
+     * @param mode     引擎模式
+     * @param poolSize 池容量（仅池化模式有效）
+     * @return 密码器引擎
+     * @since 1.1
+     */
+    static CipherEngine of(CipherCrypt crypt, CipherEngineMode mode, int poolSize) {
+        switch (mode) {
+            case SINGLE:
+                return new Single(crypt);
+            case THREAD_LOCAL:
+                return new PerThread(crypt);
+            case POOLED:
+                return new Pooled(crypt, poolSize);
+            default:
+                throw new RuntimeException("不支持的密码器引擎模式[" + mode + "]");
+        }
+    }
+
+    /**
+     * 单实例引擎：共享构造时创建的密码器，每次借出前重新初始化，非线程安全
+     *
+     * @since 1.1
+     */
+    static final class Single extends CipherEngine {
+        Single(CipherCrypt crypt) {
+            super(crypt);
+        }
+
+        @Override
+        Cipher borrow() {
+            return crypt.cipherInit();
+        }
+
+        @Override
+        Cipher borrowExclusive() {
+            return crypt.newInitializedCipher();
+        }
+
+        @Override
+        void release(Cipher cipher, boolean reusable) {
+            // 共享实例，下次借出时重新初始化；独占实例直接丢弃
+        }
+
+        @Override
+        CipherEngineMode mode() {
+            return CipherEngineMode.SINGLE;
+        }
+    }
+
+    /**
+     * 线程独享引擎：每个线程缓存一个已初始化的密码器
+     * <br>
+     * 借出时从线程缓存中取走，归还时放回，同一线程嵌套借出（如流处理过程中再调用加密）时新建实例，避免状态串扰
+     * </br>
+     *
+     * @since 1.1
+     */
+    static final class PerThread extends CipherEngine {
+        private final ThreadLocal<Cipher> local = new ThreadLocal<>();
+
+        PerThread(CipherCrypt crypt) {
+            super(crypt);
+        }
+
+        @Override
+        Cipher borrow() {
+            Cipher cipher = local.get();
+            if (cipher == null) {
+                return crypt.newInitializedCipher();
+            }
+            local.set(null);
+            return cipher;
+        }
+
+        @Override
+        void release(Cipher cipher, boolean reusable) {
+            if (reusable && local.get() == null) {
+                local.set(cipher);
+            }
+        }
+
+        @Override
+        CipherEngineMode mode() {
+            return CipherEngineMode.THREAD_LOCAL;
+        }
+    }
+
+    /**
+     * 池化引擎：有界、分段的密码器池
+     * <br>
+     * 槽位数为不小于池容量的2的幂，线程按线程ID散列选取起始槽位依次探测，借还均为CAS操作
+     * </br>
+     *
+     * @since 1.1
+     */
+    static final class Pooled extends CipherEngine {
+        private final AtomicReferenceArray<Cipher> slots;
+        private final int mask;
+
+        Pooled(CipherCrypt crypt, int poolSize) {
+            super(crypt);
+            int size = 1;
+            while (size < poolSize) {
+                size <<= 1;
+            }
+            this.slots = new AtomicReferenceArray<>(size);
+            this.mask = size - 1;
+        }
+
+        @Override
+        Cipher borrow() {
+            int start = probe();
+            for (int i = 0; i <= mask; i++) {
+                int index = (start + i) & mask;
+                Cipher cipher = slots.get(index);
+                if (cipher != null && slots.compareAndSet(index, cipher, null)) {
+                    return cipher;
+                }
+            }
+            // 池空，新建
+            return crypt.newInitializedCipher();
+        }
+
+        @Override
+        void release(Cipher cipher, boolean reusable) {
+            if (!reusable) {
+                return;
+            }
+            int start = probe();
+            for (int i = 0; i <= mask; i++) {
+                int index = (start + i) & mask;
+                if (slots.get(index) == null && slots.compareAndSet(index, null, cipher)) {
+                    return;
+                }
+            }
+            // 池满，丢弃
+        }
+
+        @Override
+        CipherEngineMode mode() {
+            return CipherEngineMode.POOLED;
+        }
+
+        /**
+         * @return 当前线程的起始探测槽位
+         */
+        private int probe() {
+            long id = Thread.currentThread().getId();
+            int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & mask;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.cipher;
+
+/**
+ * 密码器引擎模式，决定加密器/解密器如何获取JCE密码器实例
+ *
+ * @see CipherCrypt#setEngineMode(CipherEngineMode)
+ * @since 1.1
+ */
+public enum CipherEngineMode {
+    /**
+     * 单实例模式（默认）
+     * <br>
+     * 共享构造时创建的JCE密码器实例，每次处理前重新初始化，非线程安全
+     * </br>
+     *
+     * @since 1.1
+     */
+    SINGLE,
+    /**
+     * 线程独享模式
+     * <br>
+     * 每个线程持有一个已初始化的JCE密码器实例，热路径无锁，适合固定线程池
+     * </br>
+     *
+     * @since 1.1
+     */
+    THREAD_LOCAL,
+    /**
+     * 池化模式
+     * <br>
+     * 有界、分段（按线程散列选取起始槽位）的已初始化JCE密码器实例池，借还均为CAS操作，热路径无锁，
+     * 池满时归还的实例直接丢弃，池空时新建实例
+     * </br>
+     *
+     * @since 1.1
+     */
+    POOLED
+}
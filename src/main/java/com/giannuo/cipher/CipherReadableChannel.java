@@ -0,0 +1,154 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.cipher;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.crypto.Cipher;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * 密码器读取通道：从上游通道读取的数据经密码器处理（加密/解密）后供读取
+ * <br>
+ * 每次从上游最多读取缓冲区大小的数据，内存占用有界；上游读尽时完成最后一块（含填充）的处理并归还密码器
+ * </br>
+ *
+ * @see CipherDecrypt#wrap(ReadableByteChannel)
+ * @since 1.1
+ */
+final class CipherReadableChannel implements ReadableByteChannel {
+    /**
+     * 密码器引擎（归还密码器用）
+     *
+     * @since 1.1
+     */
+    private final CipherEngine engine;
+    /**
+     * 已初始化的密码器
+     *
+     * @since 1.1
+     */
+    private final Cipher cipher;
+    /**
+     * 上游通道
+     *
+     * @since 1.1
+     */
+    private final ReadableByteChannel in;
+    /**
+     * 输入缓冲区
+     *
+     * @since 1.1
+     */
+    private final ByteBuffer inBuffer;
+    /**
+     * 输出缓冲区（读模式，剩余部分为待读取的处理结果）
+     *
+     * @since 1.1
+     */
+    private ByteBuffer outBuffer;
+    /**
+     * 是否已完成最后一块的处理（密码器已归还）
+     *
+     * @since 1.1
+     */
+    private boolean finished;
+    /**
+     * 是否打开
+     *
+     * @since 1.1
+     */
+    private boolean open = true;
+
+    /**
+     * 密码器读取通道构造
+     *
+     * @param engine     密码器引擎
+     * @param cipher     从引擎借出的已初始化的密码器
+     * @param in         上游通道
+     * @param bufferSize 单次从上游读取的最大长度
+     * @since 1.1
+     */
+    CipherReadableChannel(@NotNull CipherEngine engine, @NotNull Cipher cipher, @NotNull ReadableByteChannel in, int bufferSize) {
+        this.engine = engine;
+        this.cipher = cipher;
+        this.in = in;
+        this.inBuffer = ByteBuffer.allocate(bufferSize);
+        this.outBuffer = ByteBuffer.allocate(cipher.getOutputSize(bufferSize));
+        this.outBuffer.flip();
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        while (!outBuffer.hasRemaining()) {
+            if (finished) {
+                return -1;
+            }
+            inBuffer.clear();
+            int read = in.read(inBuffer);
+            if (read == 0) {
+                return 0;
+            }
+            inBuffer.flip();
+            try {
+                outBuffer = CipherCrypt.ensureOutputBuffer(outBuffer, cipher.getOutputSize(inBuffer.remaining()));
+                if (read < 0) {
+                    cipher.doFinal(inBuffer, outBuffer);
+                    finished = true;
+                    engine.release(cipher, true);
+                } else {
+                    cipher.update(inBuffer, outBuffer);
+                }
+            } catch (Exception e) {
+                finished = true;
+                engine.release(cipher, false);
+                throw new IOException("密码器处理数据失败", e);
+            }
+            outBuffer.flip();
+        }
+        int length = Math.min(dst.remaining(), outBuffer.remaining());
+        ByteBuffer chunk = outBuffer.duplicate();
+        chunk.limit(chunk.position() + length);
+        dst.put(chunk);
+        outBuffer.position(chunk.position());
+        return length;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!open) {
+            return;
+        }
+        open = false;
+        if (!finished) {
+            // 未读尽，密码器状态不确定，不再复用
+            finished = true;
+            engine.release(cipher, false);
+        }
+        in.close();
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.cipher;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.crypto.Cipher;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * 密码器写出通道：写入的数据经密码器处理（加密/解密）后写出到下游通道
+ * <br>
+ * 每次最多处理缓冲区大小的数据，内存占用有界；关闭时完成最后一块（含填充）的处理、关闭下游通道并归还密码器
+ * </br>
+ *
+ * @see CipherEncrypt#wrap(WritableByteChannel)
+ * @since 1.1
+ */
+final class CipherWritableChannel implements WritableByteChannel {
+    /**
+     * 密码器引擎（归还密码器用）
+     *
+     * @since 1.1
+     */
+    private final CipherEngine engine;
+    /**
+     * 已初始化的密码器
+     *
+     * @since 1.1
+     */
+    private final Cipher cipher;
+    /**
+     * 下游通道
+     *
+     * @since 1.1
+     */
+    private final WritableByteChannel out;
+    /**
+     * 单次处理的最大输入长度
+     *
+     * @since 1.1
+     */
+    private final int bufferSize;
+    /**
+     * 输出缓冲区
+     *
+     * @since 1.1
+     */
+    private ByteBuffer outBuffer;
+    /**
+     * 是否打开
+     *
+     * @since 1.1
+     */
+    private boolean open = true;
+
+    /**
+     * 密码器写出通道构造
+     *
+     * @param engine     密码器引擎
+     * @param cipher     从引擎借出的已初始化的密码器
+     * @param out        下游通道
+     * @param bufferSize 单次处理的最大输入长度
+     * @since 1.1
+     */
+    CipherWritableChannel(@NotNull CipherEngine engine, @NotNull Cipher cipher, @NotNull WritableByteChannel out, int bufferSize) {
+        this.engine = engine;
+        this.cipher = cipher;
+        this.out = out;
+        this.bufferSize = bufferSize;
+        this.outBuffer = ByteBuffer.allocate(cipher.getOutputSize(bufferSize));
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        int total = src.remaining();
+        try {
+            while (src.hasRemaining()) {
+                ByteBuffer chunk = src.duplicate();
+                chunk.limit(chunk.position() + Math.min(bufferSize, chunk.remaining()));
+                outBuffer = CipherCrypt.ensureOutputBuffer(outBuffer, cipher.getOutputSize(chunk.remaining()));
+                cipher.update(chunk, outBuffer);
+                src.position(chunk.position());
+                CipherCrypt.writeFully(out, outBuffer);
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("密码器处理数据失败", e);
+        }
+        return total;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!open) {
+            return;
+        }
+        open = false;
+        boolean reusable = false;
+        try {
+            outBuffer = CipherCrypt.ensureOutputBuffer(outBuffer, cipher.getOutputSize(0));
+            cipher.doFinal(ByteBuffer.allocate(0), outBuffer);
+            reusable = true;
+            CipherCrypt.writeFully(out, outBuffer);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("密码器处理数据失败", e);
+        } finally {
+            engine.release(cipher, reusable);
+            out.close();
+        }
+    }
+}
@@ -71,11 +71,12 @@ public final class DESDecrypt extends CipherDecrypt {
     /**
      * 密码器初始化（初始化为解密器）
      *
+     * @param cipher 待初始化的密码器
      * @return cipher 密码器
      * @since 1.0
      */
     @Override
-    protected Cipher cipherInit() {
+    protected Cipher cipherInit(Cipher cipher) {
         try {
             cipher.init(Cipher.DECRYPT_MODE, this.secretKeySpec, this.ivParameterSpec);
             return cipher;
@@ -70,11 +70,12 @@ public final class DESEncrypt extends CipherEncrypt implements IvSupport {
     /**
      * 密码器初始化
      *
+     * @param cipher 待初始化的密码器
      * @return cipher 密码器
      * @since 1.0
      */
     @Override
-    protected Cipher cipherInit() {
+    protected Cipher cipherInit(Cipher cipher) {
         try {
             cipher.init(Cipher.ENCRYPT_MODE, this.secretKeySpec, this.ivParameterSpec);
             return cipher;
@@ -73,7 +73,7 @@ public interface IAsymmetricCipherUtil {
             KeyPairGenerator keyPairGen = KeyPairGenerator.getInstance(getAlgorithm());
 
             // 初始化
-            keyPairGen.initialize(keySize);
+            keyPairGen.initialize(keySize, BufferedRandomSource.SINGLETON.secureRandom());
 
             // 生成一个密钥对
             KeyPair keyPair = keyPairGen.generateKeyPair();
@@ -98,6 +98,7 @@ public interface IAsymmetricCipherUtil {
             KeyPairGenerator keyPairGen = KeyPairGenerator.getInstance(getAlgorithm());
 
             // 初始化
+            // 带种子的生成使用独立的SecureRandom，种子不影响线程共享的随机数生成器
             SecureRandom secureRandom = new SecureRandom(seed);
             keyPairGen.initialize(keySize, secureRandom);
 
@@ -163,7 +164,9 @@ public interface IAsymmetricCipherUtil {
             KeyPairGenerator keyPairGen = KeyPairGenerator.getInstance(getAlgorithm());
 
             // 初始化
-            keyPairGen.initialize(param, new SecureRandom(seed));
+            // 带种子的生成使用独立的SecureRandom，种子不影响线程共享的随机数生成器
+            SecureRandom secureRandom = new SecureRandom(seed);
+            keyPairGen.initialize(param, secureRandom);
 
             // 生成一个密钥对
             KeyPair keyPair = keyPairGen.generateKeyPair();
@@ -18,7 +18,17 @@ package com.giannuo.cipher;
 import com.giannuo.util.Assert;
 
 import javax.crypto.Cipher;
-import java.io.ByteArrayOutputStream;
+import javax.crypto.ShortBufferException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * 块处理公共接口
@@ -37,35 +47,205 @@ public interface ICommonBlockHandle {
      * @since 1.0
      */
     default byte[] rsaBlockCodec(Cipher cipher, int opmode, byte[] datas, int keySize) {
-        final int MAX_BLOCK;
+        // 结果长度可由块数与模长算出：预分配结果数组，各块直接写入，加密无需再复制，解密仅截取一次
+        final byte[] out = new byte[rsaBlockOutputSize(opmode, datas.length, keySize)];
+        final int length = rsaBlockCodec(cipher, opmode, datas, 0, datas.length, out, 0, keySize);
+        return length == out.length ? out : Arrays.copyOf(out, length);
+    }
+
+    /**
+     * 【(RSA)加密|解密】并行分块处理
+     * <br>
+     * 各块相互独立：按块数将数据分片，由{@code pool}并行处理，每个分片使用{@code cipherSupplier}借出的独立密码器，
+     * 分片处理成功后交由{@code cipherRecycler}归还，同一工作线程的后续分片可复用（如线程独享、池化的密码器引擎）；
+     * 第i块的结果直接写入预分配结果数组的第 i * 输出块大小 处（加密为k，解密为k - 11，k为模长字节数），
+     * 解密时若有块的明文短于 k - 11，最后顺序压缩一次
+     * </br>
+     *
+     * @param cipherSupplier 已初始化密码器的提供者（每个分片调用一次，同一时刻借出的密码器互不相同）
+     * @param cipherRecycler 分片处理成功后归还密码器（处理失败的密码器不归还）
+     * @param opmode         cipher处理类型 {@code Cipher.DECRYPT_MODE}|{@code Cipher.ENCRYPT_MODE}
+     * @param datas          待处理数据
+     * @param keySize        密码长度
+     * @param pool           并行处理的线程池
+     * @return 【(RSA)加密|解密】分块处理过的数据
+     * @since 1.1
+     */
+    default byte[] rsaBlockCodecParallel(Supplier<Cipher> cipherSupplier, Consumer<Cipher> cipherRecycler, int opmode, byte[] datas, int keySize, ForkJoinPool pool) {
+        final int MAX_BLOCK = rsaMaxBlock(opmode, keySize);
+        final int blocks = (datas.length + MAX_BLOCK - 1) / MAX_BLOCK;
+        final int chunks = Math.min(blocks, pool.getParallelism() * 4);
+        if (chunks <= 1) {
+            Cipher cipher = cipherSupplier.get();
+            byte[] result = rsaBlockCodec(cipher, opmode, datas, keySize);
+            cipherRecycler.accept(cipher);
+            return result;
+        }
+        final int OUT_BLOCK = Cipher.ENCRYPT_MODE == opmode ? keySize / 8 : keySize / 8 - 11;
+        final byte[] out = new byte[rsaBlockOutputSize(opmode, datas.length, keySize)];
+        final int[] lengths = new int[blocks];
+        List<Callable<Void>> tasks = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            final int from = (int) ((long) blocks * chunk / chunks);
+            final int to = (int) ((long) blocks * (chunk + 1) / chunks);
+            tasks.add(() -> {
+                Cipher cipher = cipherSupplier.get();
+                for (int i = from; i < to; i++) {
+                    int offSet = i * MAX_BLOCK;
+                    lengths[i] = cipher.doFinal(datas, offSet, Math.min(MAX_BLOCK, datas.length - offSet), out, i * OUT_BLOCK);
+                }
+                cipherRecycler.accept(cipher);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Assert.toRuntimeException(e, "块处理阈值为[" + MAX_BLOCK + "]，并行加解密数据被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw Assert.toRuntimeException(cause instanceof Exception ? (Exception) cause : e, "块处理阈值为[" + MAX_BLOCK + "]，加解密数据时发生异常");
+        }
+
+        // 压缩（仅解密中存在短块时才有数据移动）
+        int position = 0;
+        for (int i = 0; i < blocks; i++) {
+            if (position != i * OUT_BLOCK) {
+                System.arraycopy(out, i * OUT_BLOCK, out, position, lengths[i]);
+            }
+            position += lengths[i];
+        }
+        return position == out.length ? out : Arrays.copyOf(out, position);
+    }
+
+    /**
+     * 【(RSA)加密|解密】分块处理的输入块大小
+     *
+     * @param opmode  cipher处理类型 {@code Cipher.DECRYPT_MODE}|{@code Cipher.ENCRYPT_MODE}
+     * @param keySize 密码长度
+     * @return 输入块大小
+     * @since 1.1
+     */
+    default int rsaMaxBlock(int opmode, int keySize) {
         if (Cipher.DECRYPT_MODE == opmode) {
-            MAX_BLOCK = keySize / 8;
+            return keySize / 8;
         } else if (Cipher.ENCRYPT_MODE == opmode) {
             /*
              参考：https://tools.ietf.org/html/rfc2313#section-8
              其中k指：length of modulus in octets，即此处的kesize/8
              */
-            MAX_BLOCK = keySize / 8 - 11;
+            return keySize / 8 - 11;
         } else {
             throw new RuntimeException("不支持的Cipher处理类型，expected >> Cipher.DECRYPT_MODE | Cipher.ENCRYPT_MODE <<");
         }
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            int offSet = 0;
-            byte[] buff;
-            int i = 0;
-            while (datas.length > offSet) {
-                if (datas.length - offSet > MAX_BLOCK) {
-                    buff = cipher.doFinal(datas, offSet, MAX_BLOCK);
+    }
+
+    /**
+     * 【(RSA)加密|解密】分块处理结果的最大长度
+     * <ul>
+     *     <li>加密：块数 * k，恰好为密文长度</li>
+     *     <li>解密：块数 * (k - 11) + 11，保证写入任一块时剩余空间不小于JCE要求的k字节</li>
+     * </ul>
+     * 其中k为模长（字节）
+     *
+     * @param opmode      cipher处理类型 {@code Cipher.DECRYPT_MODE}|{@code Cipher.ENCRYPT_MODE}
+     * @param inputLength 待处理数据长度
+     * @param keySize     密码长度
+     * @return 处理结果的最大长度
+     * @since 1.1
+     */
+    default int rsaBlockOutputSize(int opmode, int inputLength, int keySize) {
+        final int MAX_BLOCK = rsaMaxBlock(opmode, keySize);
+        final int blocks = (inputLength + MAX_BLOCK - 1) / MAX_BLOCK;
+        if (Cipher.ENCRYPT_MODE == opmode) {
+            return blocks * (keySize / 8);
+        }
+        return blocks == 0 ? 0 : blocks * (keySize / 8 - 11) + 11;
+    }
+
+    /**
+     * 【(RSA)加密|解密】分块处理，结果写入调用方提供的字节数组
+     *
+     * @param cipher    密码处理器
+     * @param opmode    cipher处理类型 {@code Cipher.DECRYPT_MODE}|{@code Cipher.ENCRYPT_MODE}
+     * @param in        待处理数据
+     * @param inOffset  待处理数据起始位置
+     * @param inLength  待处理数据长度
+     * @param out       处理结果输出
+     * @param outOffset 处理结果输出起始位置
+     * @param keySize   密码长度
+     * @return 处理结果长度
+     * @since 1.1
+     */
+    default int rsaBlockCodec(Cipher cipher, int opmode, byte[] in, int inOffset, int inLength, byte[] out, int outOffset, int keySize) {
+        final int MAX_BLOCK = rsaMaxBlock(opmode, keySize);
+        try {
+            int position = outOffset;
+            for (int offSet = 0; offSet < inLength; offSet += MAX_BLOCK) {
+                int length = Math.min(MAX_BLOCK, inLength - offSet);
+                if (out.length - position >= cipher.getOutputSize(length)) {
+                    position += cipher.doFinal(in, inOffset + offSet, length, out, position);
+                } else {
+                    // 剩余空间不足JCE要求的输出长度（仅可能出现在解密的最后几块），经临时数组中转
+                    byte[] buff = cipher.doFinal(in, inOffset + offSet, length);
+                    if (out.length - position < buff.length) {
+                        throw new ShortBufferException("输出空间不足，需要[" + (position - outOffset + buff.length) + "]字节以上");
+                    }
+                    System.arraycopy(buff, 0, out, position, buff.length);
+                    position += buff.length;
+                }
+            }
+            return position - outOffset;
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, "块处理阈值为[" + MAX_BLOCK + "]，加解密数据时发生异常");
+        }
+    }
+
+    /**
+     * 【(RSA)加密|解密】分块处理，结果写入调用方提供的（可以是直接）缓冲区
+     *
+     * @param cipher  密码处理器
+     * @param opmode  cipher处理类型 {@code Cipher.DECRYPT_MODE}|{@code Cipher.ENCRYPT_MODE}
+     * @param in      待处理数据，处理后position推进到limit（处理失败时limit不变）
+     * @param out     处理结果输出，处理后position推进处理结果长度
+     * @param keySize 密码长度
+     * @return 处理结果长度
+     * @since 1.1
+     */
+    default int rsaBlockCodec(Cipher cipher, int opmode, ByteBuffer in, ByteBuffer out, int keySize) {
+        final int MAX_BLOCK = rsaMaxBlock(opmode, keySize);
+        final int limit = in.limit();
+        try {
+            final int start = out.position();
+            while (in.position() < limit) {
+                int length = Math.min(MAX_BLOCK, limit - in.position());
+                in.limit(in.position() + length);
+                if (out.remaining() >= cipher.getOutputSize(length)) {
+                    cipher.doFinal(in, out);
                 } else {
-                    buff = cipher.doFinal(datas, offSet, datas.length - offSet);
+                    // 剩余空间不足JCE要求的输出长度（仅可能出现在解密的最后几块），经临时数组中转
+                    byte[] block = new byte[length];
+                    in.get(block);
+                    byte[] buff = cipher.doFinal(block);
+                    if (out.remaining() < buff.length) {
+                        throw new ShortBufferException("输出空间不足，需要[" + (out.position() - start + buff.length) + "]字节以上");
+                    }
+                    out.put(buff);
                 }
-                out.write(buff, 0, buff.length);
-                i++;
-                offSet = i * MAX_BLOCK;
+                in.limit(limit);
             }
-            return out.toByteArray();
+            return out.position() - start;
         } catch (Exception e) {
             throw Assert.toRuntimeException(e, "块处理阈值为[" + MAX_BLOCK + "]，加解密数据时发生异常");
+        } finally {
+            // 处理失败时恢复调用方的limit
+            in.limit(limit);
         }
     }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.cipher;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.security.SecureRandom;
+
+/**
+ * 随机数源接口，为向量、盐值及秘钥生成提供安全随机数
+ *
+ * @see BufferedRandomSource
+ * @see CipherEncrypt#setRandomSource(IRandomSource)
+ * @since 1.1
+ */
+public interface IRandomSource {
+    /**
+     * 以随机字节填充数组
+     *
+     * @param bytes 待填充的字节数组
+     * @since 1.1
+     */
+    void nextBytes(@NotNull byte[] bytes);
+
+    /**
+     * 生成随机字节数组
+     *
+     * @param size 字节数组长度
+     * @return 随机字节数组
+     * @since 1.1
+     */
+    @NotNull
+    default byte[] nextBytes(int size) {
+        byte[] bytes = new byte[size];
+        nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * 获取可直接交给JCE（如{@code KeyGenerator}、{@code KeyPairGenerator}）使用的安全随机数生成器
+     * <br>实现若返回共享的生成器，应拒绝{@code setSeed}，避免调用方的种子影响其他调用方的向量、秘钥</br>
+     *
+     * @return 安全随机数生成器
+     * @since 1.1
+     */
+    @NotNull
+    SecureRandom secureRandom();
+
+    /**
+     * @return 通过{@link #nextBytes(byte[])}累计提供的随机字节数
+     * @since 1.1
+     */
+    long bytesDrawn();
+}
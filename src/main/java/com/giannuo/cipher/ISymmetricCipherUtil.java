@@ -24,6 +24,7 @@ import java.io.File;
 import java.nio.charset.Charset;
 import java.security.SecureRandom;
 import java.util.Base64;
+import java.util.List;
 import java.util.function.Supplier;
 
 /**
@@ -50,6 +51,7 @@ public interface ISymmetricCipherUtil {
             // KeyGenerator : 秘钥生成器
             KeyGenerator keyGenerator = KeyGenerator.getInstance(getKeyGeneratorAlgorithm());
             // keyGenerator.init(keySize);
+            keyGenerator.init(BufferedRandomSource.SINGLETON.secureRandom());
             SecretKey sk = keyGenerator.generateKey();
             return Base64.getEncoder().encodeToString(sk.getEncoded());
         } catch (Exception e) {
@@ -69,7 +71,7 @@ public interface ISymmetricCipherUtil {
         try {
             // KeyGenerator : 秘钥生成器
             KeyGenerator keyGenerator = KeyGenerator.getInstance(getKeyGeneratorAlgorithm());
-            keyGenerator.init(keySize);
+            keyGenerator.init(keySize, BufferedRandomSource.SINGLETON.secureRandom());
             SecretKey sk = keyGenerator.generateKey();
             return Base64.getEncoder().encodeToString(sk.getEncoded());
         } catch (Exception e) {
@@ -89,7 +91,9 @@ public interface ISymmetricCipherUtil {
         try {
             // KeyGenerator : 秘钥生成器
             KeyGenerator keyGenerator = KeyGenerator.getInstance(getKeyGeneratorAlgorithm());
-            keyGenerator.init(new SecureRandom(seed));
+            // 带种子的生成使用独立的SecureRandom，种子不影响线程共享的随机数生成器
+            SecureRandom secureRandom = new SecureRandom(seed);
+            keyGenerator.init(secureRandom);
             SecretKey sk = keyGenerator.generateKey();
             return Base64.getEncoder().encodeToString(sk.getEncoded());
         } catch (Exception e) {
@@ -126,6 +130,20 @@ public interface ISymmetricCipherUtil {
     }
 
 
+    /**
+     * 批量加密数据，整批只初始化一次密码器
+     *
+     * @param datas    待加密（字符串）数据
+     * @param encrypt  加密器
+     * @param parallel 是否（使用公共ForkJoin线程池）并行加密
+     * @return 加密结果Base64数据，与待加密数据一一对应
+     * @since 1.1
+     */
+    @NotNull
+    default List<String> encrypt(@NotNull List<String> datas, @NotNull CipherEncrypt encrypt, boolean parallel) {
+        return encrypt.encryptBase64(datas, parallel);
+    }
+
     /**
      * 加密数据文件
      *
@@ -169,6 +187,20 @@ public interface ISymmetricCipherUtil {
         return decrypt.decryptBase64(data);
     }
 
+    /**
+     * 批量解密数据，整批只初始化一次密码器
+     *
+     * @param datas    待解密（Base64字符串）数据
+     * @param decrypt  解密器
+     * @param parallel 是否（使用公共ForkJoin线程池）并行解密
+     * @return 解密结果数据，与待解密数据一一对应
+     * @since 1.1
+     */
+    @NotNull
+    default List<String> decrypt(@NotNull List<String> datas, @NotNull CipherDecrypt decrypt, boolean parallel) {
+        return decrypt.decryptBase64(datas, parallel);
+    }
+
     /**
      * 解密数据文件
      *
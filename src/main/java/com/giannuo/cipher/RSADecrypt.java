@@ -19,12 +19,22 @@ import com.giannuo.util.Assert;
 import org.jetbrains.annotations.NotNull;
 
 import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
-import java.security.KeyFactory;
+import java.nio.file.StandardOpenOption;
 import java.security.PrivateKey;
 import java.security.interfaces.RSAPrivateKey;
-import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * （AES）解密器
@@ -38,6 +48,12 @@ public final class RSADecrypt extends CipherDecrypt implements ICommonBlockHandl
      * @since 1.0
      */
     private final PrivateKey privateKey;
+    /**
+     * 密码长度（模长比特数），构造时计算
+     *
+     * @since 1.1
+     */
+    private final int keySize;
 
 
     /**
@@ -59,27 +75,47 @@ public final class RSADecrypt extends CipherDecrypt implements ICommonBlockHandl
      * @since 1.0
      */
     public RSADecrypt(@NotNull String base64PrivateKey, @NotNull Charset charset) {
+        this(parsePrivateKey(base64PrivateKey), charset);
+    }
+
+    /**
+     * (RSA)解密器构造（使用已解析的私钥）
+     *
+     * @param privateKey 私钥（PKCS#8解析得到的{@code RSAPrivateCrtKey}携带CRT参数，解密走CRT快速路径）
+     * @param charset    Charset 指定字符集
+     * @see RSAKeyRegistry
+     * @since 1.1
+     */
+    RSADecrypt(@NotNull PrivateKey privateKey, @NotNull Charset charset) {
         super(CipherConsts.ALGORITHM_RSA, charset, CipherConsts.ALGORITHM_RSA);
+        this.privateKey = privateKey;
+        this.keySize = ((RSAPrivateKey) privateKey).getModulus().bitLength();
+    }
+
+    /**
+     * 解析私钥（不经过缓存，缓存仅由{@link RSAKeyRegistry}使用）
+     *
+     * @param base64PrivateKey Base64私钥
+     * @return 私钥
+     * @since 1.1
+     */
+    private static PrivateKey parsePrivateKey(String base64PrivateKey) {
         try {
-            // PKCS#8
-            PKCS8EncodedKeySpec privateKeySpec = new PKCS8EncodedKeySpec(Base64.getDecoder().decode(base64PrivateKey));
-            // RSAKeyFactory
-            KeyFactory keyFactory = KeyFactory.getInstance(CipherConsts.ALGORITHM_RSA);
-            // RSA privateKey
-            this.privateKey = keyFactory.generatePrivate(privateKeySpec);
+            return RSAKeyCache.parsePrivateKey(base64PrivateKey);
         } catch (Exception e) {
-            throw Assert.toRuntimeException(e, "解密私钥（" + base64PrivateKey + "）初始化失败");
+            throw Assert.toRuntimeException(e, "解密私钥初始化失败");
         }
     }
 
     /**
      * 密码器初始化（初始化为解密器）
      *
+     * @param cipher 待初始化的密码器
      * @return cipher 密码器
      * @since 1.0
      */
     @Override
-    protected Cipher cipherInit() {
+    protected Cipher cipherInit(Cipher cipher) {
         try {
             cipher.init(Cipher.DECRYPT_MODE, privateKey);
             return cipher;
@@ -89,16 +125,211 @@ public final class RSADecrypt extends CipherDecrypt implements ICommonBlockHandl
     }
 
     /**
-     * 解密（字节数组）数据
+     * 分块解密数据
      *
-     * @param data 待解密（字节数组）数据
-     * @return 加密结果（字节数组）数据
-     * @since 1.0
+     * @param cipher 已初始化的密码器
+     * @param data   待解密数据
+     * @return 解密结果
+     * @since 1.1
+     */
+    @Override
+    protected byte[] doFinal(Cipher cipher, byte[] data) {
+        return rsaBlockCodec(cipher, Cipher.DECRYPT_MODE, data, keySize());
+    }
+
+    /**
+     * 分块解密数据，结果写入调用方提供的字节数组
+     *
+     * @param cipher    已初始化的密码器
+     * @param in        待解密数据
+     * @param inOffset  待解密数据起始位置
+     * @param inLength  待解密数据长度
+     * @param out       解密结果输出
+     * @param outOffset 解密结果输出起始位置
+     * @return 解密结果长度
+     * @since 1.1
+     */
+    @Override
+    protected int doFinal(Cipher cipher, byte[] in, int inOffset, int inLength, byte[] out, int outOffset) {
+        return rsaBlockCodec(cipher, Cipher.DECRYPT_MODE, in, inOffset, inLength, out, outOffset, keySize());
+    }
+
+    /**
+     * 分块解密数据，结果写入调用方提供的缓冲区
+     *
+     * @param cipher 已初始化的密码器
+     * @param in     待解密数据
+     * @param out    解密结果输出
+     * @return 解密结果长度
+     * @since 1.1
+     */
+    @Override
+    protected int doFinal(Cipher cipher, ByteBuffer in, ByteBuffer out) {
+        return rsaBlockCodec(cipher, Cipher.DECRYPT_MODE, in, out, keySize());
+    }
+
+    /**
+     * @param cipher      已初始化的密码器
+     * @param inputLength 待解密数据长度
+     * @return 分块解密结果的最大长度
+     * @since 1.1
+     */
+    @Override
+    protected int getOutputSize(Cipher cipher, int inputLength) {
+        return rsaBlockOutputSize(Cipher.DECRYPT_MODE, inputLength, keySize());
+    }
+
+    /**
+     * 并行分块解密数据（使用公共线程池），适用于多块的大数据
+     *
+     * @param data 待解密数据
+     * @return 解密结果
+     * @see #decryptParallel(byte[], ForkJoinPool)
+     * @since 1.1
+     */
+    @NotNull
+    public byte[] decryptParallel(@NotNull byte[] data) {
+        return decryptParallel(data, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 并行分块解密数据，各块由线程池中的工作线程使用独立的密码器处理（每个工作线程复用密码器，见{@link #setEngineMode(CipherEngineMode)}），结果直接写入预分配的结果数组
+     *
+     * @param data 待解密数据
+     * @param pool 并行处理的线程池
+     * @return 解密结果
+     * @since 1.1
+     */
+    @NotNull
+    public byte[] decryptParallel(@NotNull byte[] data, @NotNull ForkJoinPool pool) {
+        CipherEngine engine = workerEngine();
+        return rsaBlockCodecParallel(engine::borrow, cipher -> engine.release(cipher, true), Cipher.DECRYPT_MODE, data, keySize(), pool);
+    }
+
+    /**
+     * 数字信封解密（RSA+AES混合解密）
+     *
+     * @param envelope 信封（头部 + AES密文）
+     * @return 解密结果
+     * @see RSAEnvelope
+     * @since 1.1
+     */
+    @NotNull
+    public byte[] decryptEnvelope(@NotNull byte[] envelope) {
+        ReadableByteChannel in = Channels.newChannel(new ByteArrayInputStream(envelope));
+        try {
+            byte[] wrappedKey = RSAEnvelope.readWrappedKey(in);
+            ByteBuffer result = ByteBuffer.allocate(RSAEnvelope.plainLength(envelope.length, wrappedKey));
+            try (ReadableByteChannel plain = envelopeBody(wrappedKey, in)) {
+                while (result.hasRemaining() && plain.read(result) >= 0) {
+                    // 读满
+                }
+                // 读至末尾，确保末段经过认证
+                Assert.state(!result.hasRemaining() && plain.read(ByteBuffer.allocate(1)) < 0, "信封长度错误");
+            }
+            return result.array();
+        } catch (IOException e) {
+            throw Assert.toRuntimeException(e, "数字信封解密失败");
+        }
+    }
+
+    /**
+     * 数字信封解密（RSA+AES混合解密）
+     *
+     * @param base64Envelope Base64信封
+     * @return 解密结果（字符串）
+     * @since 1.1
+     */
+    @NotNull
+    public String decryptEnvelopeBase64(@NotNull String base64Envelope) {
+        return new String(decryptEnvelope(Base64.getDecoder().decode(base64Envelope)), charset);
+    }
+
+    /**
+     * 包装输入流，流式解密数字信封
+     *
+     * @param in 信封输入流
+     * @return 明文输入流，关闭时关闭{@code in}
+     * @since 1.1
+     */
+    @NotNull
+    public InputStream wrapEnvelope(@NotNull InputStream in) {
+        return Channels.newInputStream(wrapEnvelope(Channels.newChannel(in)));
+    }
+
+    /**
+     * 包装读取通道，流式解密数字信封：先读取信封头部并解密AES秘钥，消息体经AES流式解密后读出
+     *
+     * @param in 信封读取通道
+     * @return 明文读取通道，关闭时关闭{@code in}
+     * @since 1.1
+     */
+    @NotNull
+    public ReadableByteChannel wrapEnvelope(@NotNull ReadableByteChannel in) {
+        try {
+            return envelopeBody(RSAEnvelope.readWrappedKey(in), in);
+        } catch (IOException e) {
+            throw Assert.toRuntimeException(e, "读取信封头部失败");
+        }
+    }
+
+    /**
+     * 解密数字信封文件
+     *
+     * @param sourceFilePath 信封文件路径
+     * @param destFilePath   解密结果数据文件路径
+     * @return 解密结果文件
+     * @since 1.1
+     */
+    public File decryptEnvelopeFile(@NotNull String sourceFilePath, @NotNull String destFilePath) {
+        File sourceFile = checkSourceFile(sourceFilePath);
+        File destFile = new File(destFilePath);
+        try (FileChannel sourceChannel = FileChannel.open(sourceFile.toPath(), StandardOpenOption.READ);
+             ReadableByteChannel in = wrapEnvelope(sourceChannel);
+             FileChannel out = FileChannel.open(destFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            transfer(in, out, CipherConsts.FILE_CRYPT_DEF_BUFFER_BYTE_SIZE);
+            return destFile;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e);
+        }
+    }
+
+    /**
+     * @param wrappedKey RSA加密后的信封AES秘钥
+     * @param in         信封读取通道，位于消息体起始位置
+     * @return 信封消息体解密读取通道
+     * @throws IOException 读取异常
+     * @since 1.1
+     */
+    private ReadableByteChannel envelopeBody(byte[] wrappedKey, ReadableByteChannel in) throws IOException {
+        byte[] aesKey = decrypt(wrappedKey);
+        try {
+            Assert.state(aesKey.length == RSAEnvelope.AES_KEY_BYTE_SIZE, "信封AES秘钥长度[" + aesKey.length + "]不正确");
+            return RSAEnvelope.open(wrappedKey, new SecretKeySpec(aesKey, CipherConsts.ALGORITHM_AES), in);
+        } finally {
+            Arrays.fill(aesKey, (byte) 0);
+        }
+    }
+
+    /**
+     * @return 密码长度（模长比特数）
+     * @since 1.1
+     */
+    private int keySize() {
+        return keySize;
+    }
+
+    /**
+     * RSA不支持流式解密（单次解密数据长度受模长限制）
+     *
+     * @throws RuntimeException 不支持
+     * @since 1.1
      */
     @NotNull
     @Override
-    public byte[] decrypt(@NotNull byte[] data) {
-        cipherInit();
-        return rsaBlockCodec(cipher, Cipher.DECRYPT_MODE, data, ((RSAPrivateKey) privateKey).getModulus().bitLength());
+    public ReadableByteChannel wrap(@NotNull ReadableByteChannel in) {
+        throw Assert.toRuntimeException("RSA不支持流式解密（单次解密数据长度受模长限制）");
     }
 }
@@ -19,12 +19,22 @@ import com.giannuo.util.Assert;
 import org.jetbrains.annotations.NotNull;
 
 import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
-import java.security.KeyFactory;
+import java.nio.file.StandardOpenOption;
 import java.security.PublicKey;
 import java.security.interfaces.RSAPublicKey;
-import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * （RSA）加密器
@@ -38,6 +48,12 @@ public final class RSAEncrypt extends CipherEncrypt implements ICommonBlockHandl
      * @since 1.0
      */
     private final PublicKey publicKey;
+    /**
+     * 密码长度（模长比特数），构造时计算
+     *
+     * @since 1.1
+     */
+    private final int keySize;
 
 
     /**
@@ -67,27 +83,47 @@ public final class RSAEncrypt extends CipherEncrypt implements ICommonBlockHandl
      * @since 1.0
      */
     public RSAEncrypt(@NotNull String base64PublicKey, @NotNull Charset charset) {
+        this(parsePublicKey(base64PublicKey), charset);
+    }
+
+    /**
+     * (RSA)加密器构造（使用已解析的公钥）
+     *
+     * @param publicKey 公钥
+     * @param charset   Charset 指定字符集
+     * @see RSAKeyRegistry
+     * @since 1.1
+     */
+    RSAEncrypt(@NotNull PublicKey publicKey, @NotNull Charset charset) {
         super(CipherConsts.ALGORITHM_RSA, charset, CipherConsts.ALGORITHM_RSA);
+        this.publicKey = publicKey;
+        this.keySize = ((RSAPublicKey) publicKey).getModulus().bitLength();
+    }
+
+    /**
+     * 解析公钥（不经过缓存，缓存仅由{@link RSAKeyRegistry}使用）
+     *
+     * @param base64PublicKey Base64公钥
+     * @return 公钥
+     * @since 1.1
+     */
+    private static PublicKey parsePublicKey(String base64PublicKey) {
         try {
-            // X.509 是密码学里公钥证书的格式标准
-            X509EncodedKeySpec publicKeySpec = new X509EncodedKeySpec(Base64.getDecoder().decode(base64PublicKey));
-            // RSAKeyFactory
-            KeyFactory keyFactory = KeyFactory.getInstance(CipherConsts.ALGORITHM_RSA);
-            // RSA publicKey
-            this.publicKey = keyFactory.generatePublic(publicKeySpec);
+            return RSAKeyCache.parsePublicKey(base64PublicKey);
         } catch (Exception e) {
-            throw Assert.toRuntimeException(e, "加密公钥（" + base64PublicKey + "）初始化失败");
+            throw Assert.toRuntimeException(e, "加密公钥初始化失败");
         }
     }
 
     /**
      * 密码器初始化（初始化为解密器）
      *
+     * @param cipher 待初始化的密码器
      * @return cipher 密码器
      * @since 1.0
      */
     @Override
-    protected Cipher cipherInit() {
+    protected Cipher cipherInit(Cipher cipher) {
         try {
             cipher.init(Cipher.ENCRYPT_MODE, publicKey);
             return cipher;
@@ -97,16 +133,193 @@ public final class RSAEncrypt extends CipherEncrypt implements ICommonBlockHandl
     }
 
     /**
-     * 加密数据
+     * 分块加密数据
+     *
+     * @param cipher 已初始化的密码器
+     * @param data   待加密数据
+     * @return 加密结果
+     * @since 1.1
+     */
+    @Override
+    protected byte[] doFinal(Cipher cipher, byte[] data) {
+        return rsaBlockCodec(cipher, Cipher.ENCRYPT_MODE, data, keySize());
+    }
+
+    /**
+     * 分块加密数据，结果写入调用方提供的字节数组
+     *
+     * @param cipher    已初始化的密码器
+     * @param in        待加密数据
+     * @param inOffset  待加密数据起始位置
+     * @param inLength  待加密数据长度
+     * @param out       加密结果输出
+     * @param outOffset 加密结果输出起始位置
+     * @return 加密结果长度
+     * @since 1.1
+     */
+    @Override
+    protected int doFinal(Cipher cipher, byte[] in, int inOffset, int inLength, byte[] out, int outOffset) {
+        return rsaBlockCodec(cipher, Cipher.ENCRYPT_MODE, in, inOffset, inLength, out, outOffset, keySize());
+    }
+
+    /**
+     * 分块加密数据，结果写入调用方提供的缓冲区
+     *
+     * @param cipher 已初始化的密码器
+     * @param in     待加密数据
+     * @param out    加密结果输出
+     * @return 加密结果长度
+     * @since 1.1
+     */
+    @Override
+    protected int doFinal(Cipher cipher, ByteBuffer in, ByteBuffer out) {
+        return rsaBlockCodec(cipher, Cipher.ENCRYPT_MODE, in, out, keySize());
+    }
+
+    /**
+     * @param cipher      已初始化的密码器
+     * @param inputLength 待加密数据长度
+     * @return 分块加密结果的最大长度
+     * @since 1.1
+     */
+    @Override
+    protected int getOutputSize(Cipher cipher, int inputLength) {
+        return rsaBlockOutputSize(Cipher.ENCRYPT_MODE, inputLength, keySize());
+    }
+
+    /**
+     * 并行分块加密数据（使用公共线程池），适用于多块的大数据
      *
      * @param data 待加密数据
      * @return 加密结果
-     * @since 1.0
+     * @see #encryptParallel(byte[], ForkJoinPool)
+     * @since 1.1
+     */
+    @NotNull
+    public byte[] encryptParallel(@NotNull byte[] data) {
+        return encryptParallel(data, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 并行分块加密数据，各块由线程池中的工作线程使用独立的密码器处理（每个工作线程复用密码器，见{@link #setEngineMode(CipherEngineMode)}），结果直接写入预分配的结果数组
+     *
+     * @param data 待加密数据
+     * @param pool 并行处理的线程池
+     * @return 加密结果
+     * @since 1.1
+     */
+    @NotNull
+    public byte[] encryptParallel(@NotNull byte[] data, @NotNull ForkJoinPool pool) {
+        CipherEngine engine = workerEngine();
+        return rsaBlockCodecParallel(engine::borrow, cipher -> engine.release(cipher, true), Cipher.ENCRYPT_MODE, data, keySize(), pool);
+    }
+
+    /**
+     * 数字信封加密（RSA+AES混合加密），适用于大数据：仅用RSA加密随机生成的AES秘钥，数据由AES加密
+     *
+     * @param data 待加密数据
+     * @return 信封（头部 + AES密文）
+     * @see RSAEnvelope
+     * @since 1.1
+     */
+    @NotNull
+    public byte[] encryptEnvelope(@NotNull byte[] data) {
+        int segments = Math.max(1, (data.length + CipherConsts.RSA_ENVELOPE_SEGMENT_BYTE_SIZE - 1) / CipherConsts.RSA_ENVELOPE_SEGMENT_BYTE_SIZE);
+        ByteArrayOutputStream envelope = new ByteArrayOutputStream(RSAEnvelope.HEADER_PREFIX_BYTE_SIZE + keySize() / 8
+                + AESSegmentedFile.HEADER_BYTE_SIZE + data.length + segments * AESSegmentedFile.TAG_BYTE_SIZE);
+        try (WritableByteChannel out = wrapEnvelope(Channels.newChannel(envelope))) {
+            out.write(ByteBuffer.wrap(data));
+        } catch (IOException e) {
+            throw Assert.toRuntimeException(e, "数字信封加密失败");
+        }
+        return envelope.toByteArray();
+    }
+
+    /**
+     * 数字信封加密（RSA+AES混合加密）
+     *
+     * @param data 待加密（字符串）数据
+     * @return Base64信封
+     * @since 1.1
+     */
+    @NotNull
+    public String encryptEnvelopeBase64(@NotNull String data) {
+        return Base64.getEncoder().encodeToString(encryptEnvelope(data.getBytes(charset)));
+    }
+
+    /**
+     * 包装输出流，以数字信封格式流式加密写入的数据
+     *
+     * @param out 信封输出流
+     * @return 明文输出流，关闭时完成加密并关闭{@code out}
+     * @since 1.1
+     */
+    @NotNull
+    public OutputStream wrapEnvelope(@NotNull OutputStream out) {
+        return Channels.newOutputStream(wrapEnvelope(Channels.newChannel(out)));
+    }
+
+    /**
+     * 包装写出通道，以数字信封格式流式加密写入的数据：先写出信封头部，数据经AES流式加密后写出
+     *
+     * @param out 信封写出通道
+     * @return 明文写出通道，关闭时完成加密并关闭{@code out}
+     * @since 1.1
+     */
+    @NotNull
+    public WritableByteChannel wrapEnvelope(@NotNull WritableByteChannel out) {
+        byte[] aesKey = randomByteArray(RSAEnvelope.AES_KEY_BYTE_SIZE);
+        try {
+            SecretKeySpec secretKey = new SecretKeySpec(aesKey, CipherConsts.ALGORITHM_AES);
+            return RSAEnvelope.seal(encrypt(aesKey), secretKey, randomByteArray(AESSegmentedFile.SALT_BYTE_SIZE),
+                    randomByteArray(AESSegmentedFile.NONCE_PREFIX_BYTE_SIZE), out);
+        } catch (IOException e) {
+            throw Assert.toRuntimeException(e, "写出信封头部失败");
+        } finally {
+            Arrays.fill(aesKey, (byte) 0);
+        }
+    }
+
+    /**
+     * 以数字信封格式加密数据文件
+     *
+     * @param sourceFilePath 待加密数据文件路径
+     * @param destFilePath   信封文件路径
+     * @return 信封文件
+     * @since 1.1
+     */
+    public File encryptEnvelopeFile(@NotNull String sourceFilePath, @NotNull String destFilePath) {
+        File sourceFile = checkSourceFile(sourceFilePath);
+        File destFile = new File(destFilePath);
+        try (FileChannel in = FileChannel.open(sourceFile.toPath(), StandardOpenOption.READ);
+             FileChannel destChannel = FileChannel.open(destFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+             WritableByteChannel out = wrapEnvelope(destChannel)) {
+            transfer(in, out, CipherConsts.FILE_CRYPT_DEF_BUFFER_BYTE_SIZE);
+            return destFile;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e);
+        }
+    }
+
+    /**
+     * @return 密码长度（模长比特数）
+     * @since 1.1
+     */
+    private int keySize() {
+        return keySize;
+    }
+
+    /**
+     * RSA不支持流式加密（单次加密数据长度受模长限制）
+     *
+     * @throws RuntimeException 不支持
+     * @since 1.1
      */
     @NotNull
     @Override
-    public byte[] encrypt(@NotNull byte[] data) {
-        cipherInit();
-        return rsaBlockCodec(cipher, Cipher.ENCRYPT_MODE, data, ((RSAPublicKey) publicKey).getModulus().bitLength());
+    public WritableByteChannel wrap(@NotNull WritableByteChannel out) {
+        throw Assert.toRuntimeException("RSA不支持流式加密（单次加密数据长度受模长限制）");
     }
 }
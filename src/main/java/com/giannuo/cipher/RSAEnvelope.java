@@ -0,0 +1,390 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.cipher;
+
+import com.giannuo.util.Assert;
+import org.jetbrains.annotations.NotNull;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * RSA+AES混合（数字信封）加密格式
+ * <br>
+ * 每个信封随机生成一个AES秘钥，仅用RSA加密该秘钥（一次RSA运算），消息体使用AES/GCM分段流式加密并认证：
+ * </br>
+ * <table>
+ *     <tr>
+ *         <td>字段</td>
+ *         <td>长度（字节）</td>
+ *         <td>描述</td>
+ *     </tr>
+ *     <tr>
+ *         <td>magic</td>
+ *         <td>4</td>
+ *         <td>固定为`GENV`</td>
+ *     </tr>
+ *     <tr>
+ *         <td>version</td>
+ *         <td>1</td>
+ *         <td>格式版本，当前为2</td>
+ *     </tr>
+ *     <tr>
+ *         <td>wrappedKeyLength</td>
+ *         <td>2</td>
+ *         <td>RSA加密后的AES秘钥长度（大端序），即模长字节数</td>
+ *     </tr>
+ *     <tr>
+ *         <td>wrappedKey</td>
+ *         <td>wrappedKeyLength</td>
+ *         <td>RSA加密后的AES秘钥（256位）</td>
+ *     </tr>
+ *     <tr>
+ *         <td>body</td>
+ *         <td>32 + 明文长度 + 16 * 分段数</td>
+ *         <td>{@link AESSegmentedFile}格式（分段大小{@link CipherConsts#RSA_ENVELOPE_SEGMENT_BYTE_SIZE}），
+ *         信封头部（magic至wrappedKey）作为各分段的附加认证数据</td>
+ *     </tr>
+ * </table>
+ * 消息体与信封头部的任何篡改、截断均导致认证失败，解密时不会释放未经认证的明文
+ *
+ * @see RSAEncrypt#encryptEnvelope(byte[])
+ * @see RSADecrypt#decryptEnvelope(byte[])
+ * @since 1.1
+ */
+final class RSAEnvelope {
+    /**
+     * 魔数
+     *
+     * @since 1.1
+     */
+    private static final byte[] MAGIC = {'G', 'E', 'N', 'V'};
+    /**
+     * 格式版本
+     *
+     * @since 1.1
+     */
+    private static final byte VERSION = 2;
+    /**
+     * 头部固定部分（不含RSA加密后的AES秘钥）长度
+     *
+     * @since 1.1
+     */
+    static final int HEADER_PREFIX_BYTE_SIZE = MAGIC.length + 1 + 2;
+    /**
+     * 消息体AES秘钥长度（256位）
+     *
+     * @since 1.1
+     */
+    static final int AES_KEY_BYTE_SIZE = 32;
+
+    private RSAEnvelope() {
+    }
+
+    /**
+     * 生成信封头部
+     *
+     * @param wrappedKey RSA加密后的AES秘钥
+     * @return 信封头部
+     * @since 1.1
+     */
+    @NotNull
+    static byte[] header(@NotNull byte[] wrappedKey) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_PREFIX_BYTE_SIZE + wrappedKey.length);
+        header.put(MAGIC).put(VERSION).putShort((short) wrappedKey.length).put(wrappedKey);
+        return header.array();
+    }
+
+    /**
+     * 从信封通道中读取RSA加密后的AES秘钥，读取后通道位于消息体起始位置
+     *
+     * @param in 信封读取通道
+     * @return RSA加密后的AES秘钥
+     * @throws IOException 读取异常
+     * @since 1.1
+     */
+    @NotNull
+    static byte[] readWrappedKey(@NotNull ReadableByteChannel in) throws IOException {
+        ByteBuffer prefix = readFully(in, ByteBuffer.allocate(HEADER_PREFIX_BYTE_SIZE));
+        return readFully(in, ByteBuffer.allocate(wrappedKeyLength(prefix.array()))).array();
+    }
+
+    /**
+     * 根据信封长度计算明文长度
+     *
+     * @param envelopeLength 信封长度
+     * @param wrappedKey     RSA加密后的AES秘钥
+     * @return 明文长度
+     * @since 1.1
+     */
+    static int plainLength(int envelopeLength, @NotNull byte[] wrappedKey) {
+        int cipherSegmentSize = CipherConsts.RSA_ENVELOPE_SEGMENT_BYTE_SIZE + AESSegmentedFile.TAG_BYTE_SIZE;
+        int bodyLength = envelopeLength - HEADER_PREFIX_BYTE_SIZE - wrappedKey.length - AESSegmentedFile.HEADER_BYTE_SIZE;
+        Assert.state(bodyLength >= AESSegmentedFile.TAG_BYTE_SIZE, "信封长度[" + envelopeLength + "]错误，信封被截断");
+        int count = (bodyLength + cipherSegmentSize - 1) / cipherSegmentSize;
+        return bodyLength - count * AESSegmentedFile.TAG_BYTE_SIZE;
+    }
+
+    /**
+     * 写出信封头部及消息体头部，返回消息体加密写出通道
+     *
+     * @param wrappedKey  RSA加密后的AES秘钥
+     * @param aesKey      AES秘钥
+     * @param salt        随机盐
+     * @param noncePrefix 随机向量前缀
+     * @param out         信封写出通道
+     * @return 明文写出通道，关闭时完成加密并关闭{@code out}
+     * @throws IOException 写出异常
+     * @since 1.1
+     */
+    @NotNull
+    static WritableByteChannel seal(@NotNull byte[] wrappedKey, @NotNull SecretKeySpec aesKey, @NotNull byte[] salt,
+                                    @NotNull byte[] noncePrefix, @NotNull WritableByteChannel out) throws IOException {
+        byte[] header = header(wrappedKey);
+        AESSegmentedFile format = AESSegmentedFile.create(aesKey, CipherConsts.RSA_ENVELOPE_SEGMENT_BYTE_SIZE, salt, noncePrefix, header);
+        writeFully(out, ByteBuffer.wrap(header));
+        writeFully(out, ByteBuffer.wrap(format.header()));
+        return new SealingChannel(format, out);
+    }
+
+    /**
+     * 读取消息体头部，返回消息体解密读取通道
+     *
+     * @param wrappedKey RSA加密后的AES秘钥（已由{@link #readWrappedKey(ReadableByteChannel)}读取）
+     * @param aesKey     AES秘钥
+     * @param in         信封读取通道，位于消息体起始位置
+     * @return 明文读取通道，关闭时关闭{@code in}
+     * @throws IOException 读取异常
+     * @since 1.1
+     */
+    @NotNull
+    static ReadableByteChannel open(@NotNull byte[] wrappedKey, @NotNull SecretKeySpec aesKey, @NotNull ReadableByteChannel in) throws IOException {
+        byte[] bodyHeader = readFully(in, ByteBuffer.allocate(AESSegmentedFile.HEADER_BYTE_SIZE)).array();
+        AESSegmentedFile format = AESSegmentedFile.read(bodyHeader, aesKey, header(wrappedKey));
+        Assert.state(format.segmentSize == CipherConsts.RSA_ENVELOPE_SEGMENT_BYTE_SIZE, "信封消息体分段大小[" + format.segmentSize + "]错误");
+        return new OpeningChannel(format, in);
+    }
+
+    /**
+     * 校验头部固定部分并解析加密秘钥长度
+     *
+     * @param prefix 头部固定部分
+     * @return RSA加密后的AES秘钥长度
+     * @since 1.1
+     */
+    private static int wrappedKeyLength(byte[] prefix) {
+        Assert.state(Arrays.equals(MAGIC, Arrays.copyOf(prefix, MAGIC.length)), "非RSA数字信封格式");
+        Assert.state(prefix[MAGIC.length] == VERSION, "不支持的RSA数字信封格式版本[" + prefix[MAGIC.length] + "]");
+        int length = ByteBuffer.wrap(prefix, MAGIC.length + 1, 2).getShort() & 0xFFFF;
+        Assert.state(length > 0, "加密秘钥长度[" + length + "]必须大于0");
+        return length;
+    }
+
+    /**
+     * 读满缓冲区
+     *
+     * @param in     读取通道
+     * @param buffer 缓冲区
+     * @return 缓冲区
+     * @throws IOException 读取异常
+     * @since 1.1
+     */
+    private static ByteBuffer readFully(ReadableByteChannel in, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer) < 0) {
+                throw new EOFException("信封提前结束，头部不完整");
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * 写出缓冲区全部数据
+     *
+     * @param out    写出通道
+     * @param buffer 缓冲区（读模式）
+     * @throws IOException 写出异常
+     * @since 1.1
+     */
+    private static void writeFully(WritableByteChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * 消息体加密写出通道：明文按分段缓冲，分段写满且有后续数据时加密写出，关闭时以末段标记加密剩余数据
+     *
+     * @since 1.1
+     */
+    private static final class SealingChannel implements WritableByteChannel {
+        private final AESSegmentedFile format;
+        private final WritableByteChannel out;
+        private final Cipher cipher = AESSegmentedFile.newCipher();
+        private final byte[] plain;
+        private final byte[] sealed;
+        private int plainLength;
+        private int index;
+        private boolean open = true;
+
+        private SealingChannel(AESSegmentedFile format, WritableByteChannel out) {
+            this.format = format;
+            this.out = out;
+            this.plain = new byte[format.segmentSize];
+            this.sealed = new byte[format.cipherSegmentSize()];
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (!open) {
+                throw new ClosedChannelException();
+            }
+            int total = src.remaining();
+            while (src.hasRemaining()) {
+                if (plainLength == plain.length) {
+                    sealSegment(false);
+                }
+                int length = Math.min(src.remaining(), plain.length - plainLength);
+                src.get(plain, plainLength, length);
+                plainLength += length;
+            }
+            return total;
+        }
+
+        private void sealSegment(boolean last) throws IOException {
+            Assert.state(index >= 0, "信封分段数超出上限");
+            try {
+                format.cipherInit(cipher, Cipher.ENCRYPT_MODE, index, last);
+                int length = cipher.doFinal(plain, 0, plainLength, sealed, 0);
+                writeFully(out, ByteBuffer.wrap(sealed, 0, length));
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("信封第[" + index + "]段加密失败", e);
+            }
+            index++;
+            plainLength = 0;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!open) {
+                return;
+            }
+            open = false;
+            try {
+                sealSegment(true);
+            } finally {
+                Arrays.fill(plain, (byte) 0);
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * 消息体解密读取通道：逐段读取并认证，多读1字节以判断末段（末段标记参与认证，可发现截断）
+     *
+     * @since 1.1
+     */
+    private static final class OpeningChannel implements ReadableByteChannel {
+        private final AESSegmentedFile format;
+        private final ReadableByteChannel in;
+        private final Cipher cipher = AESSegmentedFile.newCipher();
+        /**
+         * 分段密文缓冲，多1字节用于判断是否末段
+         *
+         * @since 1.1
+         */
+        private final byte[] sealed;
+        private final byte[] plain;
+        private int sealedLength;
+        private int plainPosition;
+        private int plainLength;
+        private int index;
+        private boolean finished;
+        private boolean open = true;
+
+        private OpeningChannel(AESSegmentedFile format, ReadableByteChannel in) {
+            this.format = format;
+            this.in = in;
+            this.sealed = new byte[format.cipherSegmentSize() + 1];
+            this.plain = new byte[format.cipherSegmentSize()];
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            if (!open) {
+                throw new ClosedChannelException();
+            }
+            while (plainPosition == plainLength) {
+                if (finished) {
+                    return -1;
+                }
+                openSegment();
+            }
+            int length = Math.min(dst.remaining(), plainLength - plainPosition);
+            dst.put(plain, plainPosition, length);
+            plainPosition += length;
+            return length;
+        }
+
+        private void openSegment() throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(sealed, sealedLength, sealed.length - sealedLength);
+            while (buffer.hasRemaining() && in.read(buffer) >= 0) {
+                // 读满或至末尾
+            }
+            sealedLength = buffer.position();
+            boolean last = sealedLength < sealed.length;
+            int length = last ? sealedLength : format.cipherSegmentSize();
+            Assert.state(length >= AESSegmentedFile.TAG_BYTE_SIZE, "信封第[" + index + "]段不完整，信封被截断");
+            plainLength = format.decryptSegment(cipher, index, last, sealed, length, plain);
+            plainPosition = 0;
+            index++;
+            if (last) {
+                finished = true;
+            } else {
+                sealed[0] = sealed[length];
+                sealedLength = 1;
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (open) {
+                open = false;
+                Arrays.fill(plain, (byte) 0);
+                in.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.cipher;
+
+import com.giannuo.util.Assert;
+import com.giannuo.util.LruCache;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RSA秘钥缓存，缓存已解析的公钥/私钥对象
+ * <br>
+ * 以Base64秘钥的SHA-256摘要为缓存键（缓存不持有秘钥原文），避免重复Base64解码及{@code KeyFactory}解析
+ * </br>
+ *
+ * @see CipherConsts#RSA_KEY_CACHE_DEF_MAX_SIZE
+ * @see CipherConsts#RSA_KEY_CACHE_DEF_TTL_MILLIS
+ * @since 1.1
+ */
+final class RSAKeyCache {
+    /**
+     * 私钥缓存
+     *
+     * @since 1.1
+     */
+    static final LruCache<String, PrivateKey> PRIVATE_KEYS = new LruCache<>(CipherConsts.RSA_KEY_CACHE_DEF_MAX_SIZE, CipherConsts.RSA_KEY_CACHE_DEF_TTL_MILLIS, TimeUnit.MILLISECONDS);
+    /**
+     * 公钥缓存
+     *
+     * @since 1.1
+     */
+    static final LruCache<String, PublicKey> PUBLIC_KEYS = new LruCache<>(CipherConsts.RSA_KEY_CACHE_DEF_MAX_SIZE, CipherConsts.RSA_KEY_CACHE_DEF_TTL_MILLIS, TimeUnit.MILLISECONDS);
+    /**
+     * 线程独享的缓存键摘要器
+     *
+     * @since 1.1
+     */
+    private static final ThreadLocal<MessageDigest> KEY_DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e);
+        }
+    });
+
+    private RSAKeyCache() {
+    }
+
+    /**
+     * 获取（PKCS#8）私钥
+     *
+     * @param base64PrivateKey Base64私钥
+     * @return 私钥
+     * @since 1.1
+     */
+    @NotNull
+    static PrivateKey privateKey(@NotNull String base64PrivateKey) {
+        return PRIVATE_KEYS.get(cacheKey(base64PrivateKey), k -> parsePrivateKey(base64PrivateKey));
+    }
+
+    /**
+     * 获取（X.509）公钥
+     *
+     * @param base64PublicKey Base64公钥
+     * @return 公钥
+     * @since 1.1
+     */
+    @NotNull
+    static PublicKey publicKey(@NotNull String base64PublicKey) {
+        return PUBLIC_KEYS.get(cacheKey(base64PublicKey), k -> parsePublicKey(base64PublicKey));
+    }
+
+    /**
+     * 解析（PKCS#8）私钥
+     *
+     * @param base64PrivateKey Base64私钥
+     * @return 私钥
+     * @since 1.1
+     */
+    @NotNull
+    static PrivateKey parsePrivateKey(@NotNull String base64PrivateKey) {
+        try {
+            // PKCS#8
+            PKCS8EncodedKeySpec privateKeySpec = new PKCS8EncodedKeySpec(Base64.getDecoder().decode(base64PrivateKey));
+            return KeyFactory.getInstance(CipherConsts.ALGORITHM_RSA).generatePrivate(privateKeySpec);
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, "(" + CipherConsts.ALGORITHM_RSA + ")私钥初始化失败");
+        }
+    }
+
+    /**
+     * 解析（X.509）公钥
+     *
+     * @param base64PublicKey Base64公钥
+     * @return 公钥
+     * @since 1.1
+     */
+    @NotNull
+    static PublicKey parsePublicKey(@NotNull String base64PublicKey) {
+        try {
+            // X.509 是密码学里公钥证书的格式标准
+            X509EncodedKeySpec publicKeySpec = new X509EncodedKeySpec(Base64.getDecoder().decode(base64PublicKey));
+            return KeyFactory.getInstance(CipherConsts.ALGORITHM_RSA).generatePublic(publicKeySpec);
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, "(" + CipherConsts.ALGORITHM_RSA + ")公钥初始化失败");
+        }
+    }
+
+    /**
+     * @param base64Key Base64秘钥
+     * @return 缓存键：秘钥的SHA-256摘要（Base64）
+     * @since 1.1
+     */
+    static String cacheKey(@NotNull String base64Key) {
+        return Base64.getEncoder().encodeToString(KEY_DIGEST.get().digest(base64Key.getBytes(StandardCharsets.ISO_8859_1)));
+    }
+}
@@ -0,0 +1,358 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.cipher;
+
+import com.giannuo.util.Assert;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.security.KeyPairGenerator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 非对称秘钥对预生成池
+ * <br>
+ * 为每种秘钥长度在后台预生成至多{@code depth}个秘钥对，取出后即在{@code executor}上异步补充，
+ * 使（如4096位RSA）秘钥对的获取不阻塞调用线程；池中的秘钥对只会被取出一次
+ * </br>
+ * <ul>
+ *     <li>{@link #poll(int)}：非阻塞，池空时返回null</li>
+ *     <li>{@link #take(int)}：池中有秘钥对时立即完成，否则在{@code executor}上生成</li>
+ *     <li>统计：各秘钥长度的池深度、命中、未命中、生成及生成失败次数</li>
+ *     <li>秘钥长度在首次使用时校验一次，非法长度立即抛出异常；后台补充失败后按退避间隔（逐次翻倍）暂停补充，
+ *     间隔过后的下一次取用或预热时重试</li>
+ * </ul>
+ * 注意：预生成的私钥在取出前驻留内存
+ *
+ * @see CipherConsts#RSA_KEY_PAIR_POOL_DEF_DEPTH
+ * @since 1.1
+ */
+public final class RSAKeyPairPool {
+    /**
+     * 秘钥对生成工具
+     *
+     * @since 1.1
+     */
+    private final IAsymmetricCipherUtil util;
+    /**
+     * 每种秘钥长度的池深度
+     *
+     * @since 1.1
+     */
+    private final int depth;
+    /**
+     * 生成秘钥对的执行器
+     *
+     * @since 1.1
+     */
+    private final Executor executor;
+    /**
+     * 默认执行器的线程编号
+     *
+     * @since 1.1
+     */
+    private static final AtomicInteger DEFAULT_THREAD_NUMBER = new AtomicInteger();
+    private final ConcurrentHashMap<Integer, Slot> slots = new ConcurrentHashMap<>();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder generatedCount = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+
+    /**
+     * RSA秘钥对预生成池构造，使用默认池深度及默认执行器
+     * <br>默认执行器为（所有默认构造的池共享的）{@link CipherConsts#RSA_KEY_PAIR_POOL_DEF_THREADS}个守护线程，空闲时回收，不占用公共线程池</br>
+     *
+     * @since 1.1
+     */
+    public RSAKeyPairPool() {
+        this(RSACipherUtil.SINGLETON, CipherConsts.RSA_KEY_PAIR_POOL_DEF_DEPTH, DefaultExecutor.INSTANCE);
+    }
+
+    /**
+     * 秘钥对预生成池构造
+     *
+     * @param util     秘钥对生成工具，如{@link RSACipherUtil#SINGLETON}
+     * @param depth    每种秘钥长度的池深度
+     * @param executor 生成秘钥对的执行器（由调用方管理生命周期）
+     * @since 1.1
+     */
+    public RSAKeyPairPool(@NotNull IAsymmetricCipherUtil util, int depth, @NotNull Executor executor) {
+        Assert.state(depth > 0, "池深度[" + depth + "]必须大于0");
+        this.util = util;
+        this.depth = depth;
+        this.executor = executor;
+    }
+
+    /**
+     * 预热：异步将指定秘钥长度的池填满
+     *
+     * @param keySize 秘钥（的比特位）长度
+     * @since 1.1
+     */
+    public void prefill(int keySize) {
+        refill(slot(keySize), keySize);
+    }
+
+    /**
+     * 非阻塞获取预生成的秘钥对，并异步补充
+     *
+     * @param keySize 秘钥（的比特位）长度
+     * @return 秘钥对，池空时返回null
+     * @since 1.1
+     */
+    @Nullable
+    public Base64KeyPair poll(int keySize) {
+        Slot slot = slot(keySize);
+        Base64KeyPair keyPair = take(slot);
+        refill(slot, keySize);
+        return keyPair;
+    }
+
+    /**
+     * 获取秘钥对：池中有预生成的秘钥对时立即完成，否则先在执行器上提交本次生成，再异步补充，
+     * 本次生成不排在补充之后
+     *
+     * @param keySize 秘钥（的比特位）长度
+     * @return 秘钥对
+     * @since 1.1
+     */
+    @NotNull
+    public CompletableFuture<Base64KeyPair> take(int keySize) {
+        Slot slot = slot(keySize);
+        Base64KeyPair keyPair = take(slot);
+        CompletableFuture<Base64KeyPair> future;
+        if (keyPair != null) {
+            future = CompletableFuture.completedFuture(keyPair);
+        } else {
+            future = CompletableFuture.supplyAsync(() -> {
+                Base64KeyPair generated = generate(keySize);
+                // 生成成功，立即恢复后台补充
+                slot.failures.set(0);
+                return generated;
+            }, executor);
+        }
+        refill(slot, keySize);
+        return future;
+    }
+
+    /**
+     * 从池中取出一个秘钥对并统计命中/未命中
+     *
+     * @param slot 池
+     * @return 秘钥对，池空时返回null
+     * @since 1.1
+     */
+    @Nullable
+    private Base64KeyPair take(Slot slot) {
+        Base64KeyPair keyPair = slot.queue.poll();
+        if (keyPair != null) {
+            slot.size.decrementAndGet();
+            hitCount.increment();
+        } else {
+            missCount.increment();
+        }
+        return keyPair;
+    }
+
+    /**
+     * @param keySize 秘钥（的比特位）长度
+     * @return 当前池深度（可立即取出的秘钥对数量）
+     * @since 1.1
+     */
+    public int depth(int keySize) {
+        Slot slot = slots.get(keySize);
+        return slot == null ? 0 : slot.size.get();
+    }
+
+    /**
+     * @return 命中（取出预生成秘钥对）次数
+     * @since 1.1
+     */
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return 未命中（池空）次数
+     * @since 1.1
+     */
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return 生成的秘钥对数量（含池空时同步生成的）
+     * @since 1.1
+     */
+    public long generatedCount() {
+        return generatedCount.sum();
+    }
+
+    /**
+     * @return 后台补充生成失败的次数
+     * @since 1.1
+     */
+    public long failureCount() {
+        return failureCount.sum();
+    }
+
+    /**
+     * @param keySize 秘钥（的比特位）长度
+     * @return 秘钥长度对应的池（首次使用时校验秘钥长度）
+     * @since 1.1
+     */
+    private Slot slot(int keySize) {
+        Slot slot = slots.get(keySize);
+        return slot != null ? slot : slots.computeIfAbsent(keySize, k -> {
+            validate(k);
+            return new Slot();
+        });
+    }
+
+    /**
+     * 校验秘钥长度（仅初始化秘钥对生成器，不生成秘钥对）
+     *
+     * @param keySize 秘钥（的比特位）长度
+     * @since 1.1
+     */
+    private void validate(int keySize) {
+        try {
+            KeyPairGenerator.getInstance(util.getAlgorithm()).initialize(keySize);
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, "(" + util.getAlgorithm() + ")秘钥长度[" + keySize + "]不合法");
+        }
+    }
+
+    /**
+     * 异步补充至池深度：已有 + 生成中 的数量不超过池深度；生成失败后在退避间隔内不补充
+     *
+     * @param slot    池
+     * @param keySize 秘钥（的比特位）长度
+     * @since 1.1
+     */
+    private void refill(Slot slot, int keySize) {
+        if (slot.failures.get() > 0 && System.nanoTime() - slot.retryTime < 0) {
+            return;
+        }
+        while (true) {
+            int pending = slot.pending.get();
+            if (slot.size.get() + pending >= depth) {
+                return;
+            }
+            if (!slot.pending.compareAndSet(pending, pending + 1)) {
+                continue;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        slot.queue.offer(generate(keySize));
+                        slot.size.incrementAndGet();
+                        slot.failures.set(0);
+                    } catch (RuntimeException e) {
+                        slot.backoff();
+                        failureCount.increment();
+                    } finally {
+                        slot.pending.decrementAndGet();
+                    }
+                });
+            } catch (RuntimeException e) {
+                // 执行器拒绝（如已关闭），放弃本次补充
+                slot.pending.decrementAndGet();
+                failureCount.increment();
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param keySize 秘钥（的比特位）长度
+     * @return 新生成的秘钥对
+     * @since 1.1
+     */
+    private Base64KeyPair generate(int keySize) {
+        Base64KeyPair keyPair = util.generateBase64Key(keySize);
+        generatedCount.increment();
+        return keyPair;
+    }
+
+    /**
+     * 单一秘钥长度的池
+     *
+     * @since 1.1
+     */
+    private static final class Slot {
+        private final Queue<Base64KeyPair> queue = new ConcurrentLinkedQueue<>();
+        /**
+         * 池中秘钥对数量（{@code ConcurrentLinkedQueue#size()}为O(n)）
+         */
+        private final AtomicInteger size = new AtomicInteger();
+        /**
+         * 生成中的秘钥对数量
+         */
+        private final AtomicInteger pending = new AtomicInteger();
+        /**
+         * 连续失败次数（成功生成后清零）
+         */
+        private final AtomicInteger failures = new AtomicInteger();
+        /**
+         * 失败后允许重试补充的时间（纳秒），避免每次取用都调度注定失败的生成
+         */
+        private volatile long retryTime;
+
+        /**
+         * 记录一次失败，重试间隔随连续失败的补充轮次翻倍，不超过最大间隔；同一轮中并发的失败只计一次
+         */
+        private synchronized void backoff() {
+            long now = System.nanoTime();
+            if (failures.get() > 0 && now - retryTime < 0) {
+                return;
+            }
+            int shift = Math.min(failures.get(), 16);
+            long millis = Math.min(CipherConsts.RSA_KEY_PAIR_POOL_RETRY_BACKOFF_MILLIS << shift, CipherConsts.RSA_KEY_PAIR_POOL_MAX_RETRY_BACKOFF_MILLIS);
+            // 先设置重试时间再计数，使读到失败次数的线程同时读到新的重试时间
+            retryTime = now + TimeUnit.MILLISECONDS.toNanos(millis);
+            failures.incrementAndGet();
+        }
+    }
+
+    /**
+     * 默认执行器（首次使用时创建）
+     *
+     * @since 1.1
+     */
+    private static final class DefaultExecutor {
+        private static final ThreadPoolExecutor INSTANCE = new ThreadPoolExecutor(
+                CipherConsts.RSA_KEY_PAIR_POOL_DEF_THREADS, CipherConsts.RSA_KEY_PAIR_POOL_DEF_THREADS,
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "giannuo-rsa-key-pair-" + DEFAULT_THREAD_NUMBER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        static {
+            INSTANCE.allowCoreThreadTimeOut(true);
+        }
+    }
+}
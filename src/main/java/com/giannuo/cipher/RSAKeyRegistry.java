@@ -0,0 +1,147 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.cipher;
+
+import com.giannuo.util.LruCache;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.Charset;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RSA秘钥注册表，缓存已解析的秘钥及可直接使用的（线程安全）加密器/解密器
+ * <br>
+ * 相同秘钥的重复请求无需再次Base64解码、ASN.1解析及秘钥校验，也无需新建加密器/解密器；
+ * 已解析秘钥与{@link RSASignUtil}共用同一缓存，缓存键为秘钥的SHA-256摘要
+ * </br>
+ * <ul>
+ *     <li>PKCS#8私钥解析为携带CRT参数的{@code RSAPrivateCrtKey}，解密走CRT快速路径</li>
+ *     <li>加密器/解密器使用{@link CipherEngineMode#POOLED}引擎，可被多线程共享，其配置已冻结（修改引擎模式、随机数源将抛出异常）</li>
+ * </ul>
+ *
+ * @see CipherConsts#RSA_KEY_CACHE_DEF_MAX_SIZE
+ * @see CipherConsts#RSA_KEY_CACHE_DEF_TTL_MILLIS
+ * @since 1.1
+ */
+public enum RSAKeyRegistry {
+    // （枚举模式）单例
+    SINGLETON;
+
+    /**
+     * 加密器缓存
+     *
+     * @since 1.1
+     */
+    private final LruCache<String, RSAEncrypt> encryptors = new LruCache<>(CipherConsts.RSA_KEY_CACHE_DEF_MAX_SIZE, CipherConsts.RSA_KEY_CACHE_DEF_TTL_MILLIS, TimeUnit.MILLISECONDS);
+    /**
+     * 解密器缓存
+     *
+     * @since 1.1
+     */
+    private final LruCache<String, RSADecrypt> decryptors = new LruCache<>(CipherConsts.RSA_KEY_CACHE_DEF_MAX_SIZE, CipherConsts.RSA_KEY_CACHE_DEF_TTL_MILLIS, TimeUnit.MILLISECONDS);
+
+    /**
+     * 获取（缓存的）已解析公钥
+     *
+     * @param base64PublicKey Base64公钥（X.509）
+     * @return 公钥
+     * @since 1.1
+     */
+    @NotNull
+    public PublicKey publicKey(@NotNull String base64PublicKey) {
+        return RSAKeyCache.publicKey(base64PublicKey);
+    }
+
+    /**
+     * 获取（缓存的）已解析私钥
+     *
+     * @param base64PrivateKey Base64私钥（PKCS#8）
+     * @return 私钥
+     * @since 1.1
+     */
+    @NotNull
+    public PrivateKey privateKey(@NotNull String base64PrivateKey) {
+        return RSAKeyCache.privateKey(base64PrivateKey);
+    }
+
+    /**
+     * 获取（缓存的）线程安全加密器
+     *
+     * @param base64PublicKey Base64公钥（X.509）
+     * @param charset         字符集
+     * @return 加密器（池化引擎，配置已冻结）
+     * @since 1.1
+     */
+    @NotNull
+    public RSAEncrypt encryptor(@NotNull String base64PublicKey, @NotNull Charset charset) {
+        return encryptors.get(RSAKeyCache.cacheKey(base64PublicKey) + charset.name(), k -> {
+            RSAEncrypt encrypt = new RSAEncrypt(publicKey(base64PublicKey), charset);
+            encrypt.setEngineMode(CipherEngineMode.POOLED);
+            encrypt.freeze();
+            return encrypt;
+        });
+    }
+
+    /**
+     * 获取（缓存的）线程安全解密器，可作为{@link IAsymmetricCipherUtil#decrypt(String, java.util.function.Supplier)}的解密器提供者
+     *
+     * @param base64PrivateKey Base64私钥（PKCS#8）
+     * @param charset          字符集
+     * @return 解密器（池化引擎，配置已冻结）
+     * @since 1.1
+     */
+    @NotNull
+    public RSADecrypt decryptor(@NotNull String base64PrivateKey, @NotNull Charset charset) {
+        return decryptors.get(RSAKeyCache.cacheKey(base64PrivateKey) + charset.name(), k -> {
+            RSADecrypt decrypt = new RSADecrypt(privateKey(base64PrivateKey), charset);
+            decrypt.setEngineMode(CipherEngineMode.POOLED);
+            decrypt.freeze();
+            return decrypt;
+        });
+    }
+
+    /**
+     * @return 加密器缓存（命中/未命中/淘汰统计）
+     * @since 1.1
+     */
+    @NotNull
+    public LruCache<String, RSAEncrypt> encryptorCache() {
+        return encryptors;
+    }
+
+    /**
+     * @return 解密器缓存（命中/未命中/淘汰统计）
+     * @since 1.1
+     */
+    @NotNull
+    public LruCache<String, RSADecrypt> decryptorCache() {
+        return decryptors;
+    }
+
+    /**
+     * 清空已解析秘钥及加密器/解密器缓存（如秘钥轮换后）
+     *
+     * @since 1.1
+     */
+    public void clear() {
+        encryptors.clear();
+        decryptors.clear();
+        RSAKeyCache.PUBLIC_KEYS.clear();
+        RSAKeyCache.PRIVATE_KEYS.clear();
+    }
+}
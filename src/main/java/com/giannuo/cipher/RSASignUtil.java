@@ -16,15 +16,13 @@
 package com.giannuo.cipher;
 
 import com.giannuo.util.Assert;
+import com.giannuo.util.LruCache;
 import org.jetbrains.annotations.NotNull;
 
 import java.nio.charset.Charset;
-import java.security.KeyFactory;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.security.Signature;
-import java.security.spec.PKCS8EncodedKeySpec;
-import java.security.spec.X509EncodedKeySpec;
 import java.util.Base64;
 
 /**
@@ -36,6 +34,65 @@ public enum RSASignUtil {
     // （枚举模式）单例
     SINGLETON;
 
+    /**
+     * 线程独享的签名器，每次签名/验签前重新初始化
+     *
+     * @since 1.1
+     */
+    private static final ThreadLocal<Signature> SIGNATURE = ThreadLocal.withInitial(() -> {
+        try {
+            return Signature.getInstance(CipherConsts.ALGORITHM_RSA_SIGNATURE_ALGORITHM_NAME);
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, "(" + CipherConsts.ALGORITHM_RSA_SIGNATURE_ALGORITHM_NAME + ")签名算法实例获取失败");
+        }
+    });
+
+    /**
+     * 已解析的签名私钥缓存（以私钥的SHA-256摘要为键），可用于查看命中/未命中/淘汰统计
+     *
+     * @return 私钥缓存
+     * @since 1.1
+     */
+    @NotNull
+    public LruCache<String, PrivateKey> privateKeyCache() {
+        return RSAKeyCache.PRIVATE_KEYS;
+    }
+
+    /**
+     * 已解析的验签公钥缓存（以公钥的SHA-256摘要为键），可用于查看命中/未命中/淘汰统计
+     *
+     * @return 公钥缓存
+     * @since 1.1
+     */
+    @NotNull
+    public LruCache<String, PublicKey> publicKeyCache() {
+        return RSAKeyCache.PUBLIC_KEYS;
+    }
+
+    /**
+     * 创建可复用的签名器（使用缓存的已解析私钥），支持流式追加数据及文件签名
+     *
+     * @param base64PrivateSignKey 签名私钥
+     * @return 签名器（非线程安全）
+     * @since 1.1
+     */
+    @NotNull
+    public RSASigner newSigner(@NotNull String base64PrivateSignKey) {
+        return new RSASigner(RSAKeyCache.privateKey(base64PrivateSignKey));
+    }
+
+    /**
+     * 创建可复用的验签器（使用缓存的已解析公钥），支持流式追加数据及文件验签
+     *
+     * @param base64PublicVerifyKey 验签公钥
+     * @return 验签器（非线程安全）
+     * @since 1.1
+     */
+    @NotNull
+    public RSAVerifier newVerifier(@NotNull String base64PublicVerifyKey) {
+        return new RSAVerifier(RSAKeyCache.publicKey(base64PublicVerifyKey));
+    }
+
     /* >>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>> */
     // 签名
 
@@ -62,29 +119,17 @@ public enum RSASignUtil {
      * @since 1.0
      */
     public byte[] sign(String base64PrivateSignKey, byte[] data) {
-        // 签名器
-        final Signature signature;
-        try {
-            signature = Signature.getInstance(CipherConsts.ALGORITHM_RSA_SIGNATURE_ALGORITHM_NAME);
-        } catch (Exception e) {
-            throw Assert.toRuntimeException(e, "(" + CipherConsts.ALGORITHM_RSA_SIGNATURE_ALGORITHM_NAME + ")签名算法实例获取失败");
-        }
-
-        // 签名私钥
+        // 签名私钥（缓存）
         final PrivateKey privateSignKey;
         try {
-            // PKCS#8
-            PKCS8EncodedKeySpec privateKeySpec = new PKCS8EncodedKeySpec(Base64.getDecoder().decode(base64PrivateSignKey));
-            // RSAKeyFactory
-            KeyFactory keyFactory = KeyFactory.getInstance(CipherConsts.ALGORITHM_RSA);
-            // RSA privateKey
-            privateSignKey = keyFactory.generatePrivate(privateKeySpec);
+            privateSignKey = RSAKeyCache.privateKey(base64PrivateSignKey);
         } catch (Exception e) {
-            throw Assert.toRuntimeException(e, "(" + CipherConsts.ALGORITHM_RSA + ")签名私钥（" + base64PrivateSignKey + "）初始化失败");
+            throw Assert.toRuntimeException(e, "(" + CipherConsts.ALGORITHM_RSA + ")签名私钥初始化失败");
         }
 
         // 签名
         try {
+            Signature signature = SIGNATURE.get();
             signature.initSign(privateSignKey);
             signature.update(data);
             return signature.sign();
@@ -118,29 +163,17 @@ public enum RSASignUtil {
      * @since 1.0
      */
     public boolean verify(String base64PublicVerifyKey, byte[] data, byte[] sign) {
-        // 签名器
-        final Signature signature;
-        try {
-            signature = Signature.getInstance(CipherConsts.ALGORITHM_RSA_SIGNATURE_ALGORITHM_NAME);
-        } catch (Exception e) {
-            throw Assert.toRuntimeException(e, "(" + CipherConsts.ALGORITHM_RSA_SIGNATURE_ALGORITHM_NAME + ")签名算法实例获取失败");
-        }
-
-        // 签名私钥
+        // 验签公钥（缓存）
         final PublicKey publicVerifyKey;
         try {
-            // X.509 是密码学里公钥证书的格式标准
-            X509EncodedKeySpec publicKeySpec = new X509EncodedKeySpec(Base64.getDecoder().decode(base64PublicVerifyKey));
-            // RSAKeyFactory
-            KeyFactory keyFactory = KeyFactory.getInstance(CipherConsts.ALGORITHM_RSA);
-            // RSA publicKey
-            publicVerifyKey = keyFactory.generatePublic(publicKeySpec);
+            publicVerifyKey = RSAKeyCache.publicKey(base64PublicVerifyKey);
         } catch (Exception e) {
-            throw Assert.toRuntimeException(e, "(" + CipherConsts.ALGORITHM_RSA + ")验签公钥（" + base64PublicVerifyKey + "）初始化失败");
+            throw Assert.toRuntimeException(e, "(" + CipherConsts.ALGORITHM_RSA + ")验签公钥初始化失败");
         }
 
-        // 签名
+        // 验签
         try {
+            Signature signature = SIGNATURE.get();
             signature.initVerify(publicVerifyKey);
             signature.update(data);
             return signature.verify(sign);
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.cipher;
+
+import com.giannuo.util.Assert;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.Signature;
+
+/**
+ * RSA签名器/验签器（抽象类），持有一个已初始化的签名实例，支持流式追加待签名数据
+ * <br>
+ * 非线程安全：同一时刻只能处理一条消息，多线程请各自持有实例
+ * </br>
+ *
+ * @see RSASigner
+ * @see RSAVerifier
+ * @since 1.1
+ */
+abstract class RSASignature {
+    /**
+     * 已初始化的签名实例，签名/验签完成后自动恢复为初始化状态
+     *
+     * @since 1.1
+     */
+    protected final Signature signature;
+
+    /**
+     * 签名器/验签器（抽象类）构造
+     *
+     * @since 1.1
+     */
+    protected RSASignature() {
+        try {
+            this.signature = Signature.getInstance(CipherConsts.ALGORITHM_RSA_SIGNATURE_ALGORITHM_NAME);
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, "(" + CipherConsts.ALGORITHM_RSA_SIGNATURE_ALGORITHM_NAME + ")签名算法实例获取失败");
+        }
+    }
+
+    /**
+     * 以秘钥（重新）初始化签名实例，丢弃已追加的数据
+     *
+     * @since 1.1
+     */
+    public abstract void reset();
+
+    /**
+     * 追加待签名数据
+     *
+     * @param data 待签名数据
+     * @since 1.1
+     */
+    public void update(@NotNull byte[] data) {
+        update(data, 0, data.length);
+    }
+
+    /**
+     * 追加待签名数据
+     *
+     * @param data   待签名数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @since 1.1
+     */
+    public void update(@NotNull byte[] data, int offset, int length) {
+        try {
+            signature.update(data, offset, length);
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e);
+        }
+    }
+
+    /**
+     * 追加待签名数据（读取{@code data}的全部剩余数据）
+     *
+     * @param data 待签名数据
+     * @since 1.1
+     */
+    public void update(@NotNull ByteBuffer data) {
+        try {
+            signature.update(data);
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e);
+        }
+    }
+
+    /**
+     * 追加待签名数据（读取至流结束，不关闭流）
+     *
+     * @param in 待签名数据输入流
+     * @since 1.1
+     */
+    public void update(@NotNull InputStream in) {
+        byte[] buffer = new byte[CipherConsts.STREAM_CRYPT_DEF_BUFFER_BYTE_SIZE];
+        try {
+            int i;
+            while ((i = in.read(buffer)) != -1) {
+                signature.update(buffer, 0, i);
+            }
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, "读取待签名数据失败");
+        }
+    }
+
+    /**
+     * 追加待签名文件的全部数据
+     *
+     * @param file 待签名文件
+     * @since 1.1
+     */
+    protected void updateFile(@NotNull Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(CipherConsts.FILE_CRYPT_DEF_BUFFER_BYTE_SIZE);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                signature.update(buffer);
+                buffer.clear();
+            }
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, "读取待签名文件[" + file + "]失败");
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.cipher;
+
+import com.giannuo.util.Assert;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+import java.security.PrivateKey;
+import java.util.Base64;
+
+/**
+ * RSA签名器（采用默认SHA512withRSA算法），构造时解析一次私钥，可长期复用
+ * <br>
+ * 用法：多次{@code update(...)}追加数据后调用{@link #sign()}，签名后自动恢复为初始状态以签名下一条消息；
+ * 非线程安全，多线程请各自持有实例
+ * </br>
+ *
+ * @see RSASignUtil#newSigner(String)
+ * @since 1.1
+ */
+public final class RSASigner extends RSASignature {
+    /**
+     * 签名私钥
+     *
+     * @since 1.1
+     */
+    private final PrivateKey privateSignKey;
+
+    /**
+     * (RSA)签名器构造
+     *
+     * @param base64PrivateSignKey Base64签名私钥（PKCS#8）
+     * @since 1.1
+     */
+    public RSASigner(@NotNull String base64PrivateSignKey) {
+        this(RSAKeyCache.parsePrivateKey(base64PrivateSignKey));
+    }
+
+    /**
+     * (RSA)签名器构造
+     *
+     * @param privateSignKey 签名私钥
+     * @since 1.1
+     */
+    RSASigner(@NotNull PrivateKey privateSignKey) {
+        this.privateSignKey = privateSignKey;
+        reset();
+    }
+
+    @Override
+    public void reset() {
+        try {
+            signature.initSign(privateSignKey);
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, "(" + CipherConsts.ALGORITHM_RSA_SIGNATURE_ALGORITHM_NAME + ")签名私钥初始化失败");
+        }
+    }
+
+    /**
+     * 对已追加的数据签名，签名后（含签名失败时）恢复为初始状态
+     *
+     * @return 签名结果
+     * @since 1.1
+     */
+    @NotNull
+    public byte[] sign() {
+        try {
+            return signature.sign();
+        } catch (Exception e) {
+            reset();
+            throw Assert.toRuntimeException(e, "(" + CipherConsts.ALGORITHM_RSA_SIGNATURE_ALGORITHM_NAME + ")签名失败");
+        }
+    }
+
+    /**
+     * 对已追加的数据签名，签名后恢复为初始状态
+     *
+     * @return Base64签名结果
+     * @since 1.1
+     */
+    @NotNull
+    public String signBase64() {
+        return Base64.getEncoder().encodeToString(sign());
+    }
+
+    /**
+     * 签名（整条消息）
+     *
+     * @param data 待签名数据
+     * @return 签名结果
+     * @since 1.1
+     */
+    @NotNull
+    public byte[] sign(@NotNull byte[] data) {
+        update(data);
+        return sign();
+    }
+
+    /**
+     * 签名文件（流式读取，内存占用有界）
+     *
+     * @param file 待签名文件
+     * @return 签名结果
+     * @since 1.1
+     */
+    @NotNull
+    public byte[] signFile(@NotNull Path file) {
+        try {
+            updateFile(file);
+        } catch (RuntimeException e) {
+            reset();
+            throw e;
+        }
+        return sign();
+    }
+}
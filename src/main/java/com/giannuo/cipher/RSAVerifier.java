@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.cipher;
+
+import com.giannuo.util.Assert;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+import java.security.PublicKey;
+import java.util.Base64;
+
+/**
+ * RSA验签器（采用默认SHA512withRSA算法），构造时解析一次公钥，可长期复用
+ * <br>
+ * 用法：多次{@code update(...)}追加数据后调用{@link #verify(byte[])}，验签后自动恢复为初始状态以验签下一条消息；
+ * 非线程安全，多线程请各自持有实例
+ * </br>
+ *
+ * @see RSASignUtil#newVerifier(String)
+ * @since 1.1
+ */
+public final class RSAVerifier extends RSASignature {
+    /**
+     * 验签公钥
+     *
+     * @since 1.1
+     */
+    private final PublicKey publicVerifyKey;
+
+    /**
+     * (RSA)验签器构造
+     *
+     * @param base64PublicVerifyKey Base64验签公钥（X.509）
+     * @since 1.1
+     */
+    public RSAVerifier(@NotNull String base64PublicVerifyKey) {
+        this(RSAKeyCache.parsePublicKey(base64PublicVerifyKey));
+    }
+
+    /**
+     * (RSA)验签器构造
+     *
+     * @param publicVerifyKey 验签公钥
+     * @since 1.1
+     */
+    RSAVerifier(@NotNull PublicKey publicVerifyKey) {
+        this.publicVerifyKey = publicVerifyKey;
+        reset();
+    }
+
+    @Override
+    public void reset() {
+        try {
+            signature.initVerify(publicVerifyKey);
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, "(" + CipherConsts.ALGORITHM_RSA_SIGNATURE_ALGORITHM_NAME + ")验签公钥初始化失败");
+        }
+    }
+
+    /**
+     * 验签已追加的数据，验签后恢复为初始状态
+     *
+     * @param sign 签名
+     * @return 验签结果
+     * @since 1.1
+     */
+    public boolean verify(@NotNull byte[] sign) {
+        try {
+            return signature.verify(sign);
+        } catch (Exception e) {
+            reset();
+            throw Assert.toRuntimeException(e, "(" + CipherConsts.ALGORITHM_RSA_SIGNATURE_ALGORITHM_NAME + ")验签失败");
+        }
+    }
+
+    /**
+     * 验签已追加的数据，验签后（含签名不是合法Base64时）恢复为初始状态
+     *
+     * @param base64Sign Base64签名
+     * @return 验签结果
+     * @since 1.1
+     */
+    public boolean verifyBase64(@NotNull String base64Sign) {
+        byte[] sign;
+        try {
+            sign = Base64.getDecoder().decode(base64Sign);
+        } catch (IllegalArgumentException e) {
+            reset();
+            throw Assert.toRuntimeException(e, "(" + CipherConsts.ALGORITHM_RSA_SIGNATURE_ALGORITHM_NAME + ")签名不是合法的Base64数据");
+        }
+        return verify(sign);
+    }
+
+    /**
+     * 验签（整条消息）
+     *
+     * @param data 待验签数据
+     * @param sign 签名
+     * @return 验签结果
+     * @since 1.1
+     */
+    public boolean verify(@NotNull byte[] data, @NotNull byte[] sign) {
+        update(data);
+        return verify(sign);
+    }
+
+    /**
+     * 验签文件（流式读取，内存占用有界）
+     *
+     * @param file 待验签文件
+     * @param sign 签名
+     * @return 验签结果
+     * @since 1.1
+     */
+    public boolean verifyFile(@NotNull Path file, @NotNull byte[] sign) {
+        try {
+            updateFile(file);
+        } catch (RuntimeException e) {
+            reset();
+            throw e;
+        }
+        return verify(sign);
+    }
+}
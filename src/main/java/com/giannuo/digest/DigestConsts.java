@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.digest;
+
+/**
+ * 摘要计算常量
+ *
+ * @since 1.1
+ */
+public interface DigestConsts {
+    /**
+     * 文件摘要默认（直接）缓冲区大小：256KB
+     *
+     * @since 1.1
+     */
+    int FILE_DIGEST_DEF_BUFFER_BYTE_SIZE = 256 * 1024;
+
+    /**
+     * 调用方线程共享的文件读取（直接）缓冲区池容量：8个（共2MB）；池空时临时分配，归还时池满则丢弃
+     * <br>库自身的工作线程（并行摘要、Merkle树摘要）使用线程独享的缓冲区，不占用此池</br>
+     *
+     * @since 1.1
+     */
+    int FILE_DIGEST_BUFFER_POOL_MAX_SIZE = 8;
+
+    /**
+     * 输入流摘要默认（堆）缓冲区大小：8KB
+     *
+     * @since 1.1
+     */
+    int STREAM_DIGEST_DEF_BUFFER_BYTE_SIZE = 8 * 1024;
+
+    /**
+     * 多文件并行摘要默认并行度：CPU核数
+     *
+     * @since 1.1
+     */
+    int PARALLEL_DIGEST_DEF_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 多文件并行摘要中，每个工作线程对应的最大在途（已提交未消费）文件数
+     *
+     * @since 1.1
+     */
+    int PARALLEL_DIGEST_IN_FLIGHT_PER_THREAD = 4;
+
+    /**
+     * 内存映射文件摘要的映射窗口大小：64MB
+     *
+     * @since 1.1
+     */
+    int MAPPED_DIGEST_WINDOW_BYTE_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * 内存映射文件摘要的最大文件大小：4GB，超过时回退为通道读取，避免大量映射窗口等待回收而占满地址空间
+     *
+     * @since 1.1
+     */
+    long MAPPED_DIGEST_MAX_FILE_BYTE_SIZE = 4L * 1024 * 1024 * 1024;
+
+    /**
+     * 摘要索引文件的初始映射大小：1MB，写满时按倍数扩展
+     *
+     * @since 1.1
+     */
+    int DIGEST_INDEX_INITIAL_MAPPED_BYTE_SIZE = 1024 * 1024;
+
+    /**
+     * 摘要索引触发自动压缩的最少失效记录数，且失效记录数需超过有效记录数
+     *
+     * @since 1.1
+     */
+    int DIGEST_INDEX_COMPACT_MIN_STALE_RECORDS = 1024;
+
+    /**
+     * 默克尔树摘要的默认叶子大小：4MB
+     *
+     * @since 1.1
+     */
+    int MERKLE_DIGEST_DEF_LEAF_BYTE_SIZE = 4 * 1024 * 1024;
+}
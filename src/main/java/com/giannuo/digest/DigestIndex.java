@@ -0,0 +1,482 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.digest;
+
+import com.giannuo.util.Assert;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 持久化的文件摘要索引
+ * <ul>
+ *     <li>以（路径，大小，最后修改时间，文件键）为键记录文件摘要，文件未变化时直接返回索引中的摘要，不再读取文件</li>
+ *     <li>索引文件经内存映射只追加写入，失效记录（文件变化、删除）超过有效记录时自动压缩，也可手动{@link #compact()}</li>
+ *     <li>可选经{@code WatchService}监听目录，文件变化、删除时及时使对应记录失效</li>
+ *     <li>统计：命中、未命中次数</li>
+ * </ul>
+ * 索引文件格式：魔数"GDIX"(4) + 版本(1) + 算法长度(2) + 算法 + 记录*，
+ * 记录：长度(4) + 路径长度(2) + 路径 + 大小(8) + 最后修改时间(8，纳秒) + 文件键长度(2) + 文件键 + 摘要长度(2) + 摘要，
+ * 大小为-1的记录表示删除；长度为0表示记录结束（映射区域的未写入部分）
+ *
+ * @since 1.1
+ */
+public final class DigestIndex implements Closeable {
+    /**
+     * 魔数："GDIX"
+     *
+     * @since 1.1
+     */
+    private static final int MAGIC = 0x47444958;
+    /**
+     * 格式版本
+     *
+     * @since 1.1
+     */
+    private static final byte VERSION = 1;
+    /**
+     * 删除记录的大小
+     *
+     * @since 1.1
+     */
+    private static final long REMOVED = -1;
+
+    private final IDigest digest;
+    private final Path indexFile;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    /**
+     * 下一条记录的写入位置
+     *
+     * @since 1.1
+     */
+    private int writePosition;
+    /**
+     * 索引文件中的记录总数（含失效记录）
+     *
+     * @since 1.1
+     */
+    private int records;
+    private WatchService watchService;
+    private Thread watcher;
+    private volatile boolean closed;
+
+    /**
+     * 打开（不存在时创建）摘要索引
+     *
+     * @param digest    摘要计算
+     * @param indexFile 索引文件
+     * @since 1.1
+     */
+    public DigestIndex(@NotNull IDigest digest, @NotNull Path indexFile) {
+        this.digest = digest;
+        this.indexFile = indexFile;
+        try {
+            open();
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, "[" + digest.getAlgorithm() + "]打开摘要索引[" + indexFile + "]出错");
+        }
+    }
+
+    /**
+     * 计算文件摘要，文件未变化时直接返回索引中的摘要
+     *
+     * @param file 文件对象
+     * @return 文件摘要
+     * @see IDigest#fileDigest(File)
+     * @since 1.1
+     */
+    @NotNull
+    public String fileDigest(@NotNull File file) {
+        Path path = file.toPath().toAbsolutePath().normalize();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw Assert.toRuntimeException(e, "[" + digest.getAlgorithm() + "]读取文件[" + path + "]属性出错");
+        }
+        if (!attributes.isRegularFile()) {
+            throw Assert.toRuntimeException("非文件不可计算摘要");
+        }
+        String key = path.toString();
+        Entry current = new Entry(attributes.size(), attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS),
+                attributes.fileKey() == null ? "" : attributes.fileKey().toString(), null);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.matches(current)) {
+            hitCount.increment();
+            return entry.digest;
+        }
+        missCount.increment();
+        Entry computed = new Entry(current.size, current.lastModified, current.fileKey, digest.fileDigest(path.toFile()));
+        put(key, computed);
+        return computed.digest;
+    }
+
+    /**
+     * 计算文件摘要，文件未变化时直接返回索引中的摘要
+     *
+     * @param filePath 文件路径
+     * @return 文件摘要
+     * @since 1.1
+     */
+    @NotNull
+    public String fileDigest(@NotNull String filePath) {
+        return fileDigest(new File(filePath));
+    }
+
+    /**
+     * 相同文件比较，文件未变化时使用索引中的摘要
+     *
+     * @param base   （比较）基准文件
+     * @param target （比较）目标文件
+     * @return 比较结果
+     * @see IDigest#fileEquals(File, File)
+     * @since 1.1
+     */
+    public boolean fileEquals(@NotNull File base, @NotNull File target) {
+        return base.length() == target.length() && fileDigest(base).equals(fileDigest(target));
+    }
+
+    /**
+     * 相同文件比较，文件未变化时使用索引中的摘要
+     *
+     * @param baseFilePath   （比较）基准文件路径
+     * @param targetFilePath （比较）目标文件路径
+     * @return 比较结果
+     * @since 1.1
+     */
+    public boolean fileEquals(@NotNull String baseFilePath, @NotNull String targetFilePath) {
+        return fileEquals(new File(baseFilePath), new File(targetFilePath));
+    }
+
+    /**
+     * 使文件的索引记录失效
+     *
+     * @param file 文件
+     * @since 1.1
+     */
+    public void invalidate(@NotNull Path file) {
+        String key = file.toAbsolutePath().normalize().toString();
+        if (entries.containsKey(key)) {
+            put(key, null);
+        }
+    }
+
+    /**
+     * 监听目录（不含子目录），其中的文件变化、删除时使对应记录失效
+     *
+     * @param directory 目录
+     * @since 1.1
+     */
+    public synchronized void watch(@NotNull Path directory) {
+        Assert.state(!closed, "摘要索引已关闭");
+        try {
+            if (watchService == null) {
+                watchService = directory.getFileSystem().newWatchService();
+                watcher = new Thread(this::watchLoop, "giannuo-digest-index-watcher");
+                watcher.setDaemon(true);
+                watcher.start();
+            }
+            directory.toAbsolutePath().normalize().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            throw Assert.toRuntimeException(e, "监听目录[" + directory + "]出错");
+        }
+    }
+
+    /**
+     * 压缩索引文件：仅保留有效记录，写入临时文件后替换；替换失败时保留原索引文件并重新打开
+     *
+     * @since 1.1
+     */
+    public synchronized void compact() {
+        Assert.state(!closed, "摘要索引已关闭");
+        Path compacting = indexFile.resolveSibling(indexFile.getFileName() + ".compact");
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(writePosition);
+            writeHeader(buffer);
+            entries.forEach((key, entry) -> writeRecord(buffer, key, entry));
+            buffer.flip();
+            try (FileChannel out = FileChannel.open(compacting, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(true);
+            }
+            // 部分平台不允许替换已打开的文件，先写入并关闭；替换失败时重新打开原索引文件，索引仍可用
+            mapped.force();
+            channel.close();
+            try {
+                Files.move(compacting, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                open();
+            }
+        } catch (Exception e) {
+            try {
+                Files.deleteIfExists(compacting);
+            } catch (IOException ignored) {
+                // 临时文件残留不影响索引，下次压缩时覆盖
+            }
+            throw Assert.toRuntimeException(e, "[" + digest.getAlgorithm() + "]压缩摘要索引[" + indexFile + "]出错");
+        }
+    }
+
+    /**
+     * 将映射区域的修改写入磁盘
+     *
+     * @since 1.1
+     */
+    public synchronized void flush() {
+        if (!closed) {
+            mapped.force();
+        }
+    }
+
+    /**
+     * @return 有效记录数
+     * @since 1.1
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return 命中（文件未变化）次数
+     * @since 1.1
+     */
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return 未命中（计算摘要）次数
+     * @since 1.1
+     */
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 停止监听，写入并截断索引文件
+     *
+     * @throws IOException 关闭异常
+     * @since 1.1
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (watchService != null) {
+            watchService.close();
+        }
+        mapped.force();
+        try {
+            channel.truncate(writePosition);
+        } catch (IOException ignored) {
+            // 部分平台不允许截断已映射的文件，未写入部分以长度0结束，不影响读取
+        }
+        channel.close();
+    }
+
+    /**
+     * 打开并映射索引文件，读取全部记录
+     *
+     * @throws IOException 读取异常
+     * @since 1.1
+     */
+    private void open() throws IOException {
+        channel = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        Assert.state(size <= Integer.MAX_VALUE, "摘要索引[" + indexFile + "]过大");
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, DigestConsts.DIGEST_INDEX_INITIAL_MAPPED_BYTE_SIZE));
+        entries.clear();
+        records = 0;
+        if (size == 0) {
+            writeHeader(mapped);
+            writePosition = mapped.position();
+            return;
+        }
+        Assert.state(mapped.getInt() == MAGIC && mapped.get() == VERSION, "文件[" + indexFile + "]不是摘要索引");
+        String algorithm = readString(mapped);
+        Assert.state(digest.getAlgorithm().equals(algorithm), "摘要索引[" + indexFile + "]的算法[" + algorithm + "]与[" + digest.getAlgorithm() + "]不一致");
+        while (mapped.remaining() >= Integer.BYTES) {
+            int start = mapped.position();
+            int length = mapped.getInt();
+            if (length <= 0 || length > mapped.remaining()) {
+                // 结束或（异常退出导致的）不完整记录
+                mapped.position(start);
+                break;
+            }
+            String key = readString(mapped);
+            long fileSize = mapped.getLong();
+            long lastModified = mapped.getLong();
+            String fileKey = readString(mapped);
+            String fileDigest = readString(mapped);
+            if (fileSize == REMOVED) {
+                entries.remove(key);
+            } else {
+                entries.put(key, new Entry(fileSize, lastModified, fileKey, fileDigest));
+            }
+            records++;
+        }
+        writePosition = mapped.position();
+    }
+
+    /**
+     * 更新（entry为null时删除）记录，并追加写入索引文件
+     *
+     * @param key   路径
+     * @param entry 记录
+     * @since 1.1
+     */
+    private synchronized void put(String key, Entry entry) {
+        Assert.state(!closed, "摘要索引已关闭");
+        if (entry == null) {
+            entries.remove(key);
+        } else {
+            entries.put(key, entry);
+        }
+        try {
+            int length = recordLength(key, entry);
+            // 预留结束标记
+            int required = writePosition + length + Integer.BYTES;
+            if (required > mapped.capacity()) {
+                mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max((long) mapped.capacity() * 2, required));
+            }
+            mapped.position(writePosition);
+            writeRecord(mapped, key, entry);
+            writePosition = mapped.position();
+            records++;
+        } catch (IOException e) {
+            throw Assert.toRuntimeException(e, "[" + digest.getAlgorithm() + "]写入摘要索引[" + indexFile + "]出错");
+        }
+        if (records - entries.size() >= DigestConsts.DIGEST_INDEX_COMPACT_MIN_STALE_RECORDS && records - entries.size() > entries.size()) {
+            compact();
+        }
+    }
+
+    private void writeHeader(ByteBuffer buffer) {
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        writeString(buffer, digest.getAlgorithm());
+    }
+
+    private static int recordLength(String key, Entry entry) {
+        int length = Integer.BYTES + stringLength(key) + Long.BYTES * 2;
+        return entry == null ? length + stringLength("") * 2 : length + stringLength(entry.fileKey) + stringLength(entry.digest);
+    }
+
+    private static void writeRecord(ByteBuffer buffer, String key, Entry entry) {
+        buffer.putInt(recordLength(key, entry) - Integer.BYTES);
+        writeString(buffer, key);
+        buffer.putLong(entry == null ? REMOVED : entry.size);
+        buffer.putLong(entry == null ? 0 : entry.lastModified);
+        writeString(buffer, entry == null ? "" : entry.fileKey);
+        writeString(buffer, entry == null ? "" : entry.digest);
+    }
+
+    private static int stringLength(String value) {
+        int length = value.getBytes(StandardCharsets.UTF_8).length;
+        Assert.state(length <= 0xFFFF, "字符串[" + value + "]过长");
+        return Short.BYTES + length;
+    }
+
+    private static void writeString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 监听循环：文件新建（可能覆盖已删除的同名文件）、变化、删除时使对应记录失效
+     *
+     * @since 1.1
+     */
+    private void watchLoop() {
+        try {
+            while (!closed) {
+                WatchKey watchKey = watchService.take();
+                Path directory = (Path) watchKey.watchable();
+                for (WatchEvent<?> event : watchKey.pollEvents()) {
+                    if (event.context() instanceof Path) {
+                        invalidate(directory.resolve((Path) event.context()));
+                    }
+                }
+                watchKey.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+            // 已关闭
+        } catch (RuntimeException e) {
+            if (!closed) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 索引记录
+     *
+     * @since 1.1
+     */
+    private static final class Entry {
+        private final long size;
+        private final long lastModified;
+        private final String fileKey;
+        private final String digest;
+
+        private Entry(long size, long lastModified, String fileKey, String digest) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.fileKey = fileKey;
+            this.digest = digest;
+        }
+
+        private boolean matches(Entry current) {
+            return size == current.size && lastModified == current.lastModified && fileKey.equals(current.fileKey);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.digest;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Path;
+
+/**
+ * 文件摘要结果，成功时包含摘要，失败时包含异常
+ *
+ * @see IDigest#treeDigest(Path)
+ * @see IDigest#batchDigest(Iterable)
+ * @since 1.1
+ */
+public final class DigestResult {
+    /**
+     * 文件路径
+     *
+     * @since 1.1
+     */
+    private final Path path;
+    /**
+     * 文件摘要，失败时为null
+     *
+     * @since 1.1
+     */
+    private final String digest;
+    /**
+     * 异常，成功时为null
+     *
+     * @since 1.1
+     */
+    private final Exception error;
+
+    private DigestResult(Path path, String digest, Exception error) {
+        this.path = path;
+        this.digest = digest;
+        this.error = error;
+    }
+
+    /**
+     * @param path   文件路径
+     * @param digest 文件摘要
+     * @return 成功的摘要结果
+     * @since 1.1
+     */
+    static DigestResult success(@NotNull Path path, @NotNull String digest) {
+        return new DigestResult(path, digest, null);
+    }
+
+    /**
+     * @param path  文件路径
+     * @param error 异常
+     * @return 失败的摘要结果
+     * @since 1.1
+     */
+    static DigestResult failure(@NotNull Path path, @NotNull Exception error) {
+        return new DigestResult(path, null, error);
+    }
+
+    /**
+     * @return 文件路径
+     * @since 1.1
+     */
+    @NotNull
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return 文件摘要，失败时为null
+     * @since 1.1
+     */
+    @Nullable
+    public String getDigest() {
+        return digest;
+    }
+
+    /**
+     * @return 异常，成功时为null
+     * @since 1.1
+     */
+    @Nullable
+    public Exception getError() {
+        return error;
+    }
+
+    /**
+     * @return 是否成功
+     * @since 1.1
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess() ? digest + "  " + path : "ERROR(" + error + ")  " + path;
+    }
+}
@@ -0,0 +1,574 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.digest;
+
+import com.giannuo.util.Assert;
+import com.giannuo.util.Hex;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 摘要计算的公共实现
+ *
+ * @since 1.1
+ */
+final class DigestSupport {
+    /**
+     * 多算法并行摘要的线程编号
+     *
+     * @since 1.1
+     */
+    private static final AtomicInteger MULTI_DIGEST_THREAD_NUMBER = new AtomicInteger();
+    /**
+     * 库工作线程独享的文件读取（直接）缓冲区，调用方线程使用{@link #BUFFER_POOL}
+     *
+     * @see #acquireBuffer(boolean)
+     * @since 1.1
+     */
+    private static final ThreadLocal<ByteBuffer> BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(DigestConsts.FILE_DIGEST_DEF_BUFFER_BYTE_SIZE));
+
+    /**
+     * 库工作线程独享的第二（直接）缓冲区，与{@link #BUFFER}成对使用（文件比较、双缓冲读取）
+     *
+     * @since 1.1
+     */
+    private static final ThreadLocal<ByteBuffer> PAIRED_BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(DigestConsts.FILE_DIGEST_DEF_BUFFER_BYTE_SIZE));
+
+    /**
+     * 调用方线程共享的有界（直接）缓冲区池，避免应用线程各自长期持有直接内存
+     *
+     * @see DigestConsts#FILE_DIGEST_BUFFER_POOL_MAX_SIZE
+     * @since 1.1
+     */
+    private static final ArrayBlockingQueue<ByteBuffer> BUFFER_POOL = new ArrayBlockingQueue<>(DigestConsts.FILE_DIGEST_BUFFER_POOL_MAX_SIZE);
+
+    /**
+     * 多算法并行摘要的工作线程池（按需创建的守护线程）
+     *
+     * @since 1.1
+     */
+    private static final ExecutorService MULTI_DIGEST_EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "giannuo-multi-digest-" + MULTI_DIGEST_THREAD_NUMBER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 线程独享的流读取缓冲区
+     *
+     * @since 1.1
+     */
+    private static final ThreadLocal<byte[]> STREAM_BUFFER = ThreadLocal.withInitial(() -> new byte[DigestConsts.STREAM_DIGEST_DEF_BUFFER_BYTE_SIZE]);
+    /**
+     * 线程独享的{@code MessageDigest}，按算法缓存
+     *
+     * @since 1.1
+     */
+    private static final ThreadLocal<Map<String, MessageDigest>> MESSAGE_DIGESTS = ThreadLocal.withInitial(HashMap::new);
+
+    private DigestSupport() {
+    }
+
+    /**
+     * 创建库工作线程（守护线程），在其中读取文件时使用线程独享的直接缓冲区
+     *
+     * @param runnable 任务
+     * @param name     线程名称
+     * @return 线程
+     * @since 1.1
+     */
+    @NotNull
+    static Thread newWorkerThread(@NotNull Runnable runnable, @NotNull String name) {
+        Thread thread = new WorkerThread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * 借出文件读取（直接）缓冲区：库工作线程（含执行Merkle树摘要的ForkJoin工作线程）使用线程独享的缓冲区，
+     * 其他（调用方）线程从有界缓冲区池中借出，用完须经{@link #releaseBuffer(ByteBuffer)}归还
+     *
+     * @param paired 是否为成对使用的第二缓冲区
+     * @return 已清空的缓冲区
+     * @since 1.1
+     */
+    @NotNull
+    static ByteBuffer acquireBuffer(boolean paired) {
+        if (isWorkerThread()) {
+            ByteBuffer buffer = paired ? PAIRED_BUFFER.get() : BUFFER.get();
+            buffer.clear();
+            return buffer;
+        }
+        ByteBuffer buffer = BUFFER_POOL.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(DigestConsts.FILE_DIGEST_DEF_BUFFER_BYTE_SIZE);
+    }
+
+    /**
+     * 归还{@link #acquireBuffer(boolean)}借出的缓冲区，池满时丢弃
+     *
+     * @param buffer 缓冲区
+     * @since 1.1
+     */
+    static void releaseBuffer(@NotNull ByteBuffer buffer) {
+        if (!isWorkerThread()) {
+            buffer.clear();
+            BUFFER_POOL.offer(buffer);
+        }
+    }
+
+    /**
+     * @return 当前线程是否为（线程数有界的）库工作线程
+     * @since 1.1
+     */
+    private static boolean isWorkerThread() {
+        Thread thread = Thread.currentThread();
+        return thread instanceof WorkerThread || thread instanceof ForkJoinWorkerThread;
+    }
+
+    /**
+     * 获取线程独享的（已重置的）{@code MessageDigest}
+     * <br>
+     * 仅用于一次性完成的摘要计算，同一线程内同一算法的实例被复用，不可在计算完成前再次获取
+     * </br>
+     *
+     * @param algorithm 摘要算法
+     * @return 已重置的摘要
+     * @throws NoSuchAlgorithmException 算法不存在
+     * @since 1.1
+     */
+    @NotNull
+    static MessageDigest messageDigest(@NotNull String algorithm) throws NoSuchAlgorithmException {
+        Map<String, MessageDigest> digests = MESSAGE_DIGESTS.get();
+        MessageDigest digest = digests.get(algorithm);
+        if (digest == null) {
+            digest = MessageDigest.getInstance(algorithm);
+            digests.put(algorithm, digest);
+        } else {
+            // 上次计算可能异常中断
+            digest.reset();
+        }
+        return digest;
+    }
+
+    /**
+     * 创建独立的{@code MessageDigest}，用于生命周期不确定的场景（如摘要流）
+     *
+     * @param algorithm 摘要算法
+     * @return 摘要
+     * @since 1.1
+     */
+    @NotNull
+    static MessageDigest newMessageDigest(@NotNull String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw Assert.toRuntimeException(e, "[" + algorithm + "]摘要算法不存在");
+        }
+    }
+
+    /**
+     * 计算数据摘要
+     *
+     * @param algorithm 摘要算法
+     * @param data      数据
+     * @param offset    偏移量
+     * @param length    长度
+     * @return 摘要
+     * @throws NoSuchAlgorithmException 算法不存在
+     * @since 1.1
+     */
+    @NotNull
+    static byte[] digest(@NotNull String algorithm, @NotNull byte[] data, int offset, int length) throws NoSuchAlgorithmException {
+        MessageDigest digest = messageDigest(algorithm);
+        digest.update(data, offset, length);
+        return digest.digest();
+    }
+
+    /**
+     * 计算缓冲区剩余数据的摘要，计算后缓冲区位置移至上限
+     *
+     * @param algorithm 摘要算法
+     * @param data      数据
+     * @return 摘要
+     * @throws NoSuchAlgorithmException 算法不存在
+     * @since 1.1
+     */
+    @NotNull
+    static byte[] digest(@NotNull String algorithm, @NotNull ByteBuffer data) throws NoSuchAlgorithmException {
+        MessageDigest digest = messageDigest(algorithm);
+        digest.update(data);
+        return digest.digest();
+    }
+
+    /**
+     * 读取输入流至末尾并计算摘要（不关闭输入流）
+     *
+     * @param algorithm 摘要算法
+     * @param in        输入流
+     * @return 摘要
+     * @throws Exception 读取或算法异常
+     * @since 1.1
+     */
+    @NotNull
+    static byte[] digest(@NotNull String algorithm, @NotNull InputStream in) throws Exception {
+        MessageDigest digest = messageDigest(algorithm);
+        byte[] buffer = STREAM_BUFFER.get();
+        int len;
+        while ((len = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, len);
+        }
+        return digest.digest();
+    }
+
+    /**
+     * 经{@code FileChannel}及（借出的）直接缓冲区计算文件摘要
+     *
+     * @param algorithm 摘要算法
+     * @param file      文件
+     * @return 摘要
+     * @throws Exception 读取或算法异常
+     * @since 1.1
+     */
+    @NotNull
+    static byte[] digest(@NotNull String algorithm, @NotNull Path file) throws Exception {
+        MessageDigest digest = messageDigest(algorithm);
+        ByteBuffer buffer = acquireBuffer(false);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            update(digest, channel, buffer);
+        } finally {
+            releaseBuffer(buffer);
+        }
+        return digest.digest();
+    }
+
+    /**
+     * 单次读取文件，同时计算多个算法的摘要
+     * <br>
+     * 串行模式下每块数据依次更新各算法；并行模式下各算法在独立线程中更新，
+     * 同时以双缓冲读取下一块，适用于SHA-512等计算密集的算法组合
+     * </br>
+     *
+     * @param algorithms 摘要算法（重复的算法只计算一次）
+     * @param file       文件
+     * @param parallel   是否各算法并行计算
+     * @return 算法与摘要，按算法的传入顺序
+     * @throws Exception 读取或算法异常
+     * @since 1.1
+     */
+    @NotNull
+    static Map<String, byte[]> digest(@NotNull Iterable<String> algorithms, @NotNull Path file, boolean parallel) throws Exception {
+        Map<String, MessageDigest> digests = new LinkedHashMap<>();
+        for (String algorithm : algorithms) {
+            if (!digests.containsKey(algorithm)) {
+                digests.put(algorithm, messageDigest(algorithm));
+            }
+        }
+        ByteBuffer first = acquireBuffer(false);
+        ByteBuffer second = acquireBuffer(true);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer current = first;
+            ByteBuffer next = second;
+            fill(channel, current, current.capacity());
+            while (current.hasRemaining()) {
+                if (parallel && digests.size() > 1) {
+                    ByteBuffer data = current;
+                    CompletableFuture<?>[] updates = digests.values().stream()
+                            .map(digest -> CompletableFuture.runAsync(() -> digest.update(data.duplicate()), MULTI_DIGEST_EXECUTOR))
+                            .toArray(CompletableFuture[]::new);
+                    fill(channel, next, next.capacity());
+                    CompletableFuture.allOf(updates).join();
+                } else {
+                    for (MessageDigest digest : digests.values()) {
+                        digest.update(current.duplicate());
+                    }
+                    fill(channel, next, next.capacity());
+                }
+                ByteBuffer swap = current;
+                current = next;
+                next = swap;
+            }
+        } finally {
+            releaseBuffer(first);
+            releaseBuffer(second);
+        }
+        Map<String, byte[]> results = new LinkedHashMap<>();
+        digests.forEach((algorithm, digest) -> results.put(algorithm, digest.digest()));
+        return results;
+    }
+
+    /**
+     * 经内存映射窗口计算文件摘要，小于读取缓冲区或超过映射上限的文件回退为通道读取
+     *
+     * @param algorithm 摘要算法
+     * @param file      文件
+     * @return 摘要
+     * @throws Exception 读取或算法异常
+     * @see DigestConsts#MAPPED_DIGEST_WINDOW_BYTE_SIZE
+     * @see DigestConsts#MAPPED_DIGEST_MAX_FILE_BYTE_SIZE
+     * @since 1.1
+     */
+    @NotNull
+    static byte[] mappedDigest(@NotNull String algorithm, @NotNull Path file) throws Exception {
+        MessageDigest digest = messageDigest(algorithm);
+        ByteBuffer buffer = acquireBuffer(false);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size <= DigestConsts.FILE_DIGEST_DEF_BUFFER_BYTE_SIZE || size > DigestConsts.MAPPED_DIGEST_MAX_FILE_BYTE_SIZE) {
+                update(digest, channel, buffer);
+            } else {
+                for (long position = 0; position < size; position += DigestConsts.MAPPED_DIGEST_WINDOW_BYTE_SIZE) {
+                    long length = Math.min(DigestConsts.MAPPED_DIGEST_WINDOW_BYTE_SIZE, size - position);
+                    digest.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+                }
+                // 映射期间文件被追加时，补读剩余数据，与通道读取的结果保持一致
+                channel.position(size);
+                update(digest, channel, buffer);
+            }
+        } finally {
+            releaseBuffer(buffer);
+        }
+        return digest.digest();
+    }
+
+    /**
+     * 分块同步读取两个文件并逐块比较，遇到首个不同字节即返回
+     *
+     * @param base   （比较）基准文件
+     * @param target （比较）目标文件
+     * @return 首个不同字节的偏移量，文件内容相同时返回-1；一个文件是另一个的前缀时返回较短文件的大小
+     * @throws IOException 读取异常
+     * @since 1.1
+     */
+    static long mismatch(@NotNull Path base, @NotNull Path target) throws IOException {
+        if (Files.isSameFile(base, target)) {
+            return -1;
+        }
+        try (FileChannel baseChannel = FileChannel.open(base, StandardOpenOption.READ);
+             FileChannel targetChannel = FileChannel.open(target, StandardOpenOption.READ)) {
+            long baseSize = baseChannel.size();
+            long targetSize = targetChannel.size();
+            long size = Math.min(baseSize, targetSize);
+            ByteBuffer baseBuffer = acquireBuffer(false);
+            ByteBuffer targetBuffer = acquireBuffer(true);
+            try {
+                return mismatch(baseChannel, targetChannel, baseBuffer, targetBuffer, size, baseSize == targetSize);
+            } finally {
+                releaseBuffer(baseBuffer);
+                releaseBuffer(targetBuffer);
+            }
+        }
+    }
+
+    /**
+     * 分块同步读取两个通道并逐块比较
+     *
+     * @param baseChannel   基准文件通道
+     * @param targetChannel 目标文件通道
+     * @param baseBuffer    基准读取缓冲区
+     * @param targetBuffer  目标读取缓冲区
+     * @param size          比较长度（较短文件的大小）
+     * @param sameSize      两个文件大小是否相同
+     * @return 首个不同字节的偏移量，相同时返回-1；仅大小不同时返回{@code size}
+     * @throws IOException 读取异常
+     * @since 1.1
+     */
+    private static long mismatch(FileChannel baseChannel, FileChannel targetChannel, ByteBuffer baseBuffer, ByteBuffer targetBuffer,
+                                 long size, boolean sameSize) throws IOException {
+        for (long position = 0; position < size; ) {
+            int length = (int) Math.min(baseBuffer.capacity(), size - position);
+            fill(baseChannel, baseBuffer, length);
+            fill(targetChannel, targetBuffer, length);
+            int limit = Math.min(baseBuffer.limit(), targetBuffer.limit());
+            int index = mismatch(baseBuffer, targetBuffer, limit);
+            if (index >= 0) {
+                return position + index;
+            }
+            if (limit < length) {
+                // 比较期间文件被截断
+                return position + limit;
+            }
+            position += length;
+        }
+        return sameSize ? -1 : size;
+    }
+
+    /**
+     * 从通道读取指定长度（或至文件末尾）的数据，读取后缓冲区处于可读状态
+     *
+     * @param channel 文件通道
+     * @param buffer  缓冲区
+     * @param length  读取长度
+     * @throws IOException 读取异常
+     * @since 1.1
+     */
+    private static void fill(FileChannel channel, ByteBuffer buffer, int length) throws IOException {
+        buffer.clear();
+        buffer.limit(length);
+        while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+            // 读满为止
+        }
+        buffer.flip();
+    }
+
+    /**
+     * 比较两个缓冲区[0, limit)范围内的数据，先按long比较，再定位到字节
+     *
+     * @param a     缓冲区
+     * @param b     缓冲区
+     * @param limit 比较长度
+     * @return 首个不同字节的下标，相同时返回-1
+     * @since 1.1
+     */
+    private static int mismatch(ByteBuffer a, ByteBuffer b, int limit) {
+        int i = 0;
+        for (; i + Long.BYTES <= limit; i += Long.BYTES) {
+            if (a.getLong(i) != b.getLong(i)) {
+                break;
+            }
+        }
+        for (; i < limit; i++) {
+            if (a.get(i) != b.get(i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 将通道的全部剩余数据追加到摘要
+     *
+     * @param digest  摘要
+     * @param channel 文件通道
+     * @param buffer  读取缓冲区
+     * @throws IOException 读取异常
+     * @since 1.1
+     */
+    static void update(@NotNull MessageDigest digest, @NotNull FileChannel channel, @NotNull ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        while (channel.read(buffer) != -1) {
+            buffer.flip();
+            digest.update(buffer);
+            buffer.clear();
+        }
+    }
+
+    /**
+     * 经位置读取（不改变通道位置，可多线程共享通道）将指定范围的数据追加到摘要，使用（借出的）直接缓冲区
+     *
+     * @param digest   摘要
+     * @param channel  文件通道
+     * @param position 起始位置
+     * @param length   长度
+     * @throws IOException 读取异常，或范围超出文件末尾
+     * @since 1.1
+     */
+    static void update(@NotNull MessageDigest digest, @NotNull FileChannel channel, long position, long length) throws IOException {
+        ByteBuffer buffer = acquireBuffer(false);
+        try {
+            update(digest, channel, buffer, position, position + length);
+        } finally {
+            releaseBuffer(buffer);
+        }
+    }
+
+    /**
+     * 经位置读取将[position, end)范围的数据追加到摘要
+     *
+     * @param digest   摘要
+     * @param channel  文件通道
+     * @param buffer   读取缓冲区
+     * @param position 起始位置
+     * @param end      结束位置（不含）
+     * @throws IOException 读取异常，或范围超出文件末尾
+     * @since 1.1
+     */
+    private static void update(MessageDigest digest, FileChannel channel, ByteBuffer buffer, long position, long end) throws IOException {
+        while (position < end) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("文件在位置[" + position + "]提前结束");
+            }
+            buffer.flip();
+            digest.update(buffer);
+            position += read;
+        }
+    }
+
+    /**
+     * 摘要的（定宽、小写）十六进制表示
+     *
+     * @param digest 摘要
+     * @return 十六进制字符串，长度为摘要长度的2倍
+     * @since 1.1
+     */
+    @NotNull
+    static String toHex(@NotNull byte[] digest) {
+        return Hex.encode(digest);
+    }
+
+    /**
+     * 比较十六进制摘要（忽略大小写），{@code hex}可省略前导0（如1.0的{@code BigInteger#toString(16)}结果）
+     *
+     * @param hex           待比较的摘要，可省略前导0
+     * @param fixedWidthHex 定宽摘要
+     * @return 是否相同
+     * @since 1.1
+     */
+    static boolean hexEquals(@NotNull String hex, @NotNull String fixedWidthHex) {
+        int padding = fixedWidthHex.length() - hex.length();
+        if (padding < 0) {
+            return false;
+        }
+        for (int i = 0; i < padding; i++) {
+            if (fixedWidthHex.charAt(i) != '0') {
+                return false;
+            }
+        }
+        return fixedWidthHex.regionMatches(true, padding, hex, 0, hex.length());
+    }
+
+    /**
+     * 库工作线程
+     *
+     * @since 1.1
+     */
+    private static final class WorkerThread extends Thread {
+        private WorkerThread(Runnable runnable, String name) {
+            super(runnable, name);
+        }
+    }
+}
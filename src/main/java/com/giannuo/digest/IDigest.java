@@ -16,13 +16,23 @@
 package com.giannuo.digest;
 
 import com.giannuo.util.Assert;
+import com.giannuo.util.Hex;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.math.BigInteger;
-import java.security.MessageDigest;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 
 /**
  * 摘要计算接口
@@ -42,8 +52,153 @@ public interface IDigest {
      */
     String getAlgorithm();
 
+    /**
+     * 计算数据摘要
+     *
+     * @param data 数据
+     * @return 摘要
+     * @since 1.1
+     */
+    @NotNull
+    default byte[] rawDigest(@NotNull byte[] data) {
+        return rawDigest(data, 0, data.length);
+    }
+
+    /**
+     * 计算数据摘要（复用线程独享的{@code MessageDigest}）
+     *
+     * @param data   数据
+     * @param offset 偏移量
+     * @param length 长度
+     * @return 摘要
+     * @since 1.1
+     */
+    @NotNull
+    default byte[] rawDigest(@NotNull byte[] data, int offset, int length) {
+        try {
+            return DigestSupport.digest(getAlgorithm(), data, offset, length);
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, "[" + getAlgorithm() + "]计算摘要出错");
+        }
+    }
+
+    /**
+     * 计算缓冲区剩余数据的摘要，计算后缓冲区位置移至上限
+     *
+     * @param data 数据
+     * @return 摘要
+     * @since 1.1
+     */
+    @NotNull
+    default byte[] rawDigest(@NotNull ByteBuffer data) {
+        try {
+            return DigestSupport.digest(getAlgorithm(), data);
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, "[" + getAlgorithm() + "]计算摘要出错");
+        }
+    }
+
+    /**
+     * 读取输入流至末尾并计算摘要（不关闭输入流）
+     *
+     * @param in 输入流
+     * @return 摘要
+     * @since 1.1
+     */
+    @NotNull
+    default byte[] rawDigest(@NotNull InputStream in) {
+        try {
+            return DigestSupport.digest(getAlgorithm(), in);
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, "[" + getAlgorithm() + "]计算输入流摘要出错");
+        }
+    }
+
+    /**
+     * 计算数据摘要
+     *
+     * @param data 数据
+     * @return 摘要（十六进制）
+     * @since 1.1
+     */
+    @NotNull
+    default String digest(@NotNull byte[] data) {
+        return Hex.encode(rawDigest(data));
+    }
+
+    /**
+     * 计算字符串摘要
+     *
+     * @param data    字符串
+     * @param charset 字符集
+     * @return 摘要（十六进制）
+     * @since 1.1
+     */
+    @NotNull
+    default String digest(@NotNull String data, @NotNull Charset charset) {
+        return digest(data.getBytes(charset));
+    }
+
+    /**
+     * 计算缓冲区剩余数据的摘要，计算后缓冲区位置移至上限
+     *
+     * @param data 数据
+     * @return 摘要（十六进制）
+     * @since 1.1
+     */
+    @NotNull
+    default String digest(@NotNull ByteBuffer data) {
+        return Hex.encode(rawDigest(data));
+    }
+
+    /**
+     * 读取输入流至末尾并计算摘要（不关闭输入流）
+     *
+     * @param in 输入流
+     * @return 摘要（十六进制）
+     * @since 1.1
+     */
+    @NotNull
+    default String digest(@NotNull InputStream in) {
+        return Hex.encode(rawDigest(in));
+    }
+
+    /**
+     * 包装输入流，读取的数据同时计算摘要
+     * <br>
+     * 读取完毕后经{@code getMessageDigest().digest()}取得摘要，可经{@link Hex#encode(byte[])}转为十六进制
+     * </br>
+     *
+     * @param in 输入流
+     * @return 摘要输入流
+     * @since 1.1
+     */
+    @NotNull
+    default DigestInputStream digestInputStream(@NotNull InputStream in) {
+        return new DigestInputStream(in, DigestSupport.newMessageDigest(getAlgorithm()));
+    }
+
+    /**
+     * 包装输出流，写入的数据同时计算摘要
+     * <br>
+     * 写入完毕后经{@code getMessageDigest().digest()}取得摘要，可经{@link Hex#encode(byte[])}转为十六进制
+     * </br>
+     *
+     * @param out 输出流
+     * @return 摘要输出流
+     * @since 1.1
+     */
+    @NotNull
+    default DigestOutputStream digestOutputStream(@NotNull OutputStream out) {
+        return new DigestOutputStream(out, DigestSupport.newMessageDigest(getAlgorithm()));
+    }
+
     /**
      * 计算文件摘要
+     * <br>
+     * 自1.1起结果为定宽（摘要长度的2倍）小写十六进制，保留前导0；1.0省略前导0，摘要以0开头时（如MD5约1/16）结果不同，
+     * 与1.0保存的摘要比较请使用{@link #digestEquals(String, File)}
+     * </br>
      *
      * @param file 文件对象
      * @return 文件摘要
@@ -54,26 +209,10 @@ public interface IDigest {
         if (!file.isFile()) {
             throw Assert.toRuntimeException("非文件不可计算摘要");
         }
-        FileInputStream in = null;
-        byte[] buffer = new byte[1024];
-        int len;
         try {
-            MessageDigest digest = MessageDigest.getInstance(getAlgorithm());
-            in = new FileInputStream(file);
-            while ((len = in.read(buffer)) != -1) {
-                digest.update(buffer, 0, len);
-            }
-            BigInteger bigInt = new BigInteger(1, digest.digest());
-            return bigInt.toString(16);
+            return DigestSupport.toHex(DigestSupport.digest(getAlgorithm(), file.toPath()));
         } catch (Exception e) {
             throw Assert.toRuntimeException(e, "[" + getAlgorithm() + "]计算文件摘要出错");
-        } finally {
-            if (in != null) {
-                try {
-                    in.close();
-                } catch (IOException ignored) {
-                }
-            }
         }
     }
 
@@ -90,16 +229,211 @@ public interface IDigest {
     }
 
 
+    /**
+     * 单次读取文件，同时计算多个算法的摘要
+     *
+     * @param file    文件对象
+     * @param digests 摘要计算（如{@link MD5Util#SINGLETON}、{@link SHAUtil#SINGLETON}）
+     * @return 算法与文件摘要，按传入顺序
+     * @see #fileDigests(File, boolean, IDigest...)
+     * @since 1.1
+     */
+    @NotNull
+    static Map<String, String> fileDigests(@NotNull File file, @NotNull IDigest... digests) {
+        return fileDigests(file, false, digests);
+    }
+
+    /**
+     * 单次读取文件，同时计算多个算法的摘要
+     * <br>
+     * 每块数据读入后供各算法共用，文件只读取一次；并行时各算法在独立线程中计算，同时读取下一块
+     * </br>
+     *
+     * @param file     文件对象
+     * @param parallel 是否各算法并行计算
+     * @param digests  摘要计算（如{@link MD5Util#SINGLETON}、{@link SHAUtil#SINGLETON}）
+     * @return 算法与文件摘要，按传入顺序
+     * @since 1.1
+     */
+    @NotNull
+    static Map<String, String> fileDigests(@NotNull File file, boolean parallel, @NotNull IDigest... digests) {
+        Assert.state(digests.length > 0, "摘要计算不能为空");
+        if (!file.isFile()) {
+            throw Assert.toRuntimeException("非文件不可计算摘要");
+        }
+        List<String> algorithms = new ArrayList<>(digests.length);
+        for (IDigest digest : digests) {
+            algorithms.add(digest.getAlgorithm());
+        }
+        try {
+            Map<String, String> results = new LinkedHashMap<>();
+            DigestSupport.digest(algorithms, file.toPath(), parallel)
+                    .forEach((algorithm, digest) -> results.put(algorithm, DigestSupport.toHex(digest)));
+            return results;
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, algorithms + "计算文件摘要出错");
+        }
+    }
+
+    /**
+     * 经内存映射计算文件摘要
+     * <br>
+     * 以{@link DigestConsts#MAPPED_DIGEST_WINDOW_BYTE_SIZE}大小的只读映射窗口直接更新摘要，省去缓冲区复制，适用于大文件；
+     * 小于读取缓冲区或超过{@link DigestConsts#MAPPED_DIGEST_MAX_FILE_BYTE_SIZE}的文件回退为通道读取，结果与{@link #fileDigest(File)}一致
+     * </br>
+     *
+     * @param file 文件对象
+     * @return 文件摘要
+     * @since 1.1
+     */
+    @NotNull
+    default String mappedFileDigest(@NotNull File file) {
+        if (!file.isFile()) {
+            throw Assert.toRuntimeException("非文件不可计算摘要");
+        }
+        try {
+            return DigestSupport.toHex(DigestSupport.mappedDigest(getAlgorithm(), file.toPath()));
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, "[" + getAlgorithm() + "]计算文件摘要出错");
+        }
+    }
+
+    /**
+     * 经内存映射计算文件摘要
+     *
+     * @param filePath 文件路径
+     * @return 文件摘要
+     * @see #mappedFileDigest(File)
+     * @since 1.1
+     */
+    @NotNull
+    default String mappedFileDigest(@NotNull String filePath) {
+        return mappedFileDigest(new File(filePath));
+    }
+
+    /**
+     * 计算文件的默克尔树根摘要（默认叶子大小，公共线程池并行计算叶子）
+     *
+     * @param file 文件对象
+     * @return 根摘要，与{@link #fileDigest(File)}不同
+     * @see #merkleDigest(File, int, boolean, ForkJoinPool)
+     * @since 1.1
+     */
+    @NotNull
+    default String merkleFileDigest(@NotNull File file) {
+        return merkleDigest(file, DigestConsts.MERKLE_DIGEST_DEF_LEAF_BYTE_SIZE, false).getRoot();
+    }
+
+    /**
+     * 计算文件的默克尔树摘要（公共线程池并行计算叶子）
+     *
+     * @param file       文件对象
+     * @param leafSize   叶子大小
+     * @param keepLeaves 是否保存叶子摘要（用于部分校验）
+     * @return 默克尔树摘要
+     * @see #merkleDigest(File, int, boolean, ForkJoinPool)
+     * @since 1.1
+     */
+    @NotNull
+    default MerkleDigest merkleDigest(@NotNull File file, int leafSize, boolean keepLeaves) {
+        return merkleDigest(file, leafSize, keepLeaves, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 计算文件的默克尔树摘要
+     * <br>
+     * 文件按叶子大小切分，各叶子经位置读取在线程池中并行计算，再逐层合并至根，
+     * 单个大文件的摘要计算不再受限于单核
+     * </br>
+     *
+     * @param file       文件对象
+     * @param leafSize   叶子大小
+     * @param keepLeaves 是否保存叶子摘要（用于部分校验）
+     * @param pool       计算叶子摘要的线程池
+     * @return 默克尔树摘要
+     * @since 1.1
+     */
+    @NotNull
+    default MerkleDigest merkleDigest(@NotNull File file, int leafSize, boolean keepLeaves, @NotNull ForkJoinPool pool) {
+        if (!file.isFile()) {
+            throw Assert.toRuntimeException("非文件不可计算摘要");
+        }
+        try {
+            return MerkleDigest.compute(getAlgorithm(), file.toPath(), leafSize, keepLeaves, pool);
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, "[" + getAlgorithm() + "]计算文件默克尔树摘要出错");
+        }
+    }
+
+    /**
+     * 并行计算目录树下所有常规文件的摘要（默认并行度）
+     *
+     * @param root 根目录（或单个文件）
+     * @return 按完成顺序返回的摘要结果，未消费完毕时应关闭以终止计算
+     * @see #treeDigest(Path, int)
+     * @since 1.1
+     */
+    @NotNull
+    default Stream<DigestResult> treeDigest(@NotNull Path root) {
+        return treeDigest(root, DigestConsts.PARALLEL_DIGEST_DEF_PARALLELISM);
+    }
+
+    /**
+     * 并行计算目录树下所有常规文件的摘要
+     * <br>
+     * 结果按完成顺序返回，单个文件出错不影响其它文件，以{@link DigestResult#getError()}体现
+     * </br>
+     *
+     * @param root        根目录（或单个文件）
+     * @param parallelism 并行度
+     * @return 按完成顺序返回的摘要结果，未消费完毕时应关闭以终止计算
+     * @since 1.1
+     */
+    @NotNull
+    default Stream<DigestResult> treeDigest(@NotNull Path root, int parallelism) {
+        return ParallelDigest.tree(getAlgorithm(), root, parallelism);
+    }
+
+    /**
+     * 并行计算多个文件的摘要（默认并行度）
+     *
+     * @param files 文件
+     * @return 按完成顺序返回的摘要结果，未消费完毕时应关闭以终止计算
+     * @see #batchDigest(Iterable, int)
+     * @since 1.1
+     */
+    @NotNull
+    default Stream<DigestResult> batchDigest(@NotNull Iterable<Path> files) {
+        return batchDigest(files, DigestConsts.PARALLEL_DIGEST_DEF_PARALLELISM);
+    }
+
+    /**
+     * 并行计算多个文件的摘要
+     *
+     * @param files       文件
+     * @param parallelism 并行度
+     * @return 按完成顺序返回的摘要结果，未消费完毕时应关闭以终止计算
+     * @since 1.1
+     */
+    @NotNull
+    default Stream<DigestResult> batchDigest(@NotNull Iterable<Path> files, int parallelism) {
+        return ParallelDigest.batch(getAlgorithm(), files, parallelism);
+    }
+
     /**
      * 相同文件比较
+     * <br>
+     * 自1.1起，大小相同时分块同步读取并逐块比较，遇到首个不同字节即结束，不再完整计算两个文件的摘要
+     * </br>
      *
      * @param base   （比较）基准文件
      * @param target （比较）目标文件
      * @return 比较结果
+     * @see #fileMismatch(File, File)
      * @since 1.0
      */
     default boolean fileEquals(@NotNull File base, @NotNull File target) {
-        return base.length() == target.length() && fileDigest(base).equals(fileDigest(target));
+        return base.length() == target.length() && fileMismatch(base, target) == -1;
     }
 
     /**
@@ -113,4 +447,55 @@ public interface IDigest {
     default boolean fileEquals(@NotNull String baseFilePath, @NotNull String targetFilePath) {
         return fileEquals(new File(baseFilePath), new File(targetFilePath));
     }
+
+    /**
+     * 与缓存的基准文件摘要比较
+     * <br>
+     * 适用于同一基准文件与多个目标文件比较的场景，基准文件摘要只需计算一次；
+     * 忽略大小写，并兼容1.0（省略前导0）的{@link #fileDigest(File)}结果
+     * </br>
+     *
+     * @param baseDigest （比较）基准文件摘要，即{@link #fileDigest(File)}的结果
+     * @param target     （比较）目标文件
+     * @return 比较结果
+     * @since 1.1
+     */
+    default boolean digestEquals(@NotNull String baseDigest, @NotNull File target) {
+        return DigestSupport.hexEquals(baseDigest, fileDigest(target));
+    }
+
+    /**
+     * 查找两个文件首个不同字节的偏移量
+     * <br>
+     * 分块同步读取两个文件并逐块比较，遇到首个不同字节即返回，不同文件通常只需读取首块
+     * </br>
+     *
+     * @param base   （比较）基准文件
+     * @param target （比较）目标文件
+     * @return 首个不同字节的偏移量，文件内容相同时返回-1；一个文件是另一个的前缀时返回较短文件的大小
+     * @since 1.1
+     */
+    default long fileMismatch(@NotNull File base, @NotNull File target) {
+        if (!base.isFile() || !target.isFile()) {
+            throw Assert.toRuntimeException("非文件不可比较");
+        }
+        try {
+            return DigestSupport.mismatch(base.toPath(), target.toPath());
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, "比较文件出错");
+        }
+    }
+
+    /**
+     * 查找两个文件首个不同字节的偏移量
+     *
+     * @param baseFilePath   （比较）基准文件路径
+     * @param targetFilePath （比较）目标文件路径
+     * @return 首个不同字节的偏移量，文件内容相同时返回-1
+     * @see #fileMismatch(File, File)
+     * @since 1.1
+     */
+    default long fileMismatch(@NotNull String baseFilePath, @NotNull String targetFilePath) {
+        return fileMismatch(new File(baseFilePath), new File(targetFilePath));
+    }
 }
@@ -0,0 +1,309 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.digest;
+
+import com.giannuo.util.Assert;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * 文件的默克尔树摘要
+ * <ul>
+ *     <li>文件按固定大小切分为叶子，叶子摘要 = H(0x00 || 数据)，各叶子经位置读取并行计算</li>
+ *     <li>节点摘要 = H(0x01 || 左 || 右)，逐层两两合并至根，落单的节点直接进入上一层</li>
+ *     <li>可选保存叶子摘要，用于之后仅校验文件的部分范围</li>
+ * </ul>
+ * 根摘要与{@link IDigest#fileDigest(java.io.File)}不同，只可与相同算法、相同叶子大小的默克尔树摘要比较
+ *
+ * @see IDigest#merkleDigest(java.io.File, int, boolean)
+ * @since 1.1
+ */
+public final class MerkleDigest {
+    /**
+     * 叶子前缀
+     *
+     * @since 1.1
+     */
+    private static final byte LEAF = 0x00;
+    /**
+     * 节点前缀
+     *
+     * @since 1.1
+     */
+    private static final byte NODE = 0x01;
+
+    private final String algorithm;
+    private final long fileSize;
+    private final int leafSize;
+    private final byte[] root;
+    /**
+     * 叶子摘要，未保存时为null
+     *
+     * @since 1.1
+     */
+    private final byte[][] leaves;
+
+    private MerkleDigest(String algorithm, long fileSize, int leafSize, byte[] root, byte[][] leaves) {
+        this.algorithm = algorithm;
+        this.fileSize = fileSize;
+        this.leafSize = leafSize;
+        this.root = root;
+        this.leaves = leaves;
+    }
+
+    /**
+     * 计算文件的默克尔树摘要
+     *
+     * @param algorithm  摘要算法
+     * @param file       文件
+     * @param leafSize   叶子大小
+     * @param keepLeaves 是否保存叶子摘要
+     * @param pool       计算叶子摘要的线程池
+     * @return 默克尔树摘要
+     * @throws Exception 读取或算法异常
+     * @since 1.1
+     */
+    static MerkleDigest compute(@NotNull String algorithm, @NotNull Path file, int leafSize, boolean keepLeaves, @NotNull ForkJoinPool pool) throws Exception {
+        Assert.state(leafSize > 0, "叶子大小[" + leafSize + "]必须大于0");
+        DigestSupport.messageDigest(algorithm);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            int count = leafCount(fileSize, leafSize);
+            byte[][] leaves = new byte[count][];
+            try {
+                pool.submit(() -> IntStream.range(0, count).parallel().forEach(index -> {
+                    try {
+                        leaves[index] = leaf(algorithm, channel, fileSize, leafSize, index);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })).get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e.getCause();
+                throw cause instanceof Exception ? (Exception) cause : e;
+            }
+            return new MerkleDigest(algorithm, fileSize, leafSize, root(algorithm, leaves), keepLeaves ? leaves : null);
+        }
+    }
+
+    /**
+     * 由（之前保存的）叶子摘要重建默克尔树摘要，用于部分校验
+     *
+     * @param algorithm 摘要算法
+     * @param fileSize  文件大小
+     * @param leafSize  叶子大小
+     * @param leaves    叶子摘要，即{@link #getLeaf(int)}的结果
+     * @return 默克尔树摘要
+     * @since 1.1
+     */
+    @NotNull
+    public static MerkleDigest of(@NotNull String algorithm, long fileSize, int leafSize, @NotNull List<byte[]> leaves) {
+        Assert.state(leafSize > 0, "叶子大小[" + leafSize + "]必须大于0");
+        Assert.state(leaves.size() == leafCount(fileSize, leafSize), "叶子数[" + leaves.size() + "]与文件大小[" + fileSize + "]不一致");
+        byte[][] copy = new byte[leaves.size()][];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = leaves.get(i).clone();
+        }
+        try {
+            return new MerkleDigest(algorithm, fileSize, leafSize, root(algorithm, copy), copy);
+        } catch (NoSuchAlgorithmException e) {
+            throw Assert.toRuntimeException(e, "[" + algorithm + "]重建默克尔树摘要出错");
+        }
+    }
+
+    /**
+     * @return 根摘要（十六进制）
+     * @since 1.1
+     */
+    @NotNull
+    public String getRoot() {
+        return DigestSupport.toHex(root);
+    }
+
+    /**
+     * @return 摘要算法
+     * @since 1.1
+     */
+    @NotNull
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * @return 文件大小
+     * @since 1.1
+     */
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * @return 叶子大小
+     * @since 1.1
+     */
+    public int getLeafSize() {
+        return leafSize;
+    }
+
+    /**
+     * @return 叶子数
+     * @since 1.1
+     */
+    public int getLeafCount() {
+        return leafCount(fileSize, leafSize);
+    }
+
+    /**
+     * @return 是否保存了叶子摘要
+     * @since 1.1
+     */
+    public boolean hasLeaves() {
+        return leaves != null;
+    }
+
+    /**
+     * @param index 叶子下标
+     * @return 叶子摘要（副本）
+     * @since 1.1
+     */
+    @NotNull
+    public byte[] getLeaf(int index) {
+        Assert.state(leaves != null, "未保存叶子摘要");
+        return leaves[index].clone();
+    }
+
+    /**
+     * @return 全部叶子摘要（副本），可保存后经{@link #of(String, long, int, List)}重建
+     * @since 1.1
+     */
+    @NotNull
+    public List<byte[]> getLeaves() {
+        Assert.state(leaves != null, "未保存叶子摘要");
+        List<byte[]> copy = new ArrayList<>(leaves.length);
+        for (byte[] leaf : leaves) {
+            copy.add(leaf.clone());
+        }
+        return Collections.unmodifiableList(copy);
+    }
+
+    /**
+     * 部分校验：仅读取覆盖指定范围的叶子，与保存的叶子摘要比较
+     *
+     * @param file     文件
+     * @param position 起始位置
+     * @param length   长度
+     * @return 范围内的数据是否一致（文件大小不一致时为false）
+     * @since 1.1
+     */
+    public boolean verifyRange(@NotNull Path file, long position, long length) {
+        Assert.state(leaves != null, "未保存叶子摘要，不可部分校验");
+        Assert.state(position >= 0 && length >= 0 && position + length <= fileSize, "校验范围[" + position + ", " + (position + length) + ")超出文件大小[" + fileSize + "]");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != fileSize) {
+                return false;
+            }
+            int from = (int) (position / leafSize);
+            int to = length == 0 ? from : (int) ((position + length - 1) / leafSize);
+            for (int index = from; index <= to && index < leaves.length; index++) {
+                if (!MessageDigest.isEqual(leaves[index], leaf(algorithm, channel, fileSize, leafSize, index))) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            throw Assert.toRuntimeException(e, "[" + algorithm + "]部分校验文件[" + file + "]出错");
+        }
+    }
+
+    /**
+     * 部分校验：仅读取指定叶子
+     *
+     * @param file  文件
+     * @param index 叶子下标
+     * @return 叶子数据是否一致
+     * @since 1.1
+     */
+    public boolean verifyLeaf(@NotNull Path file, int index) {
+        Assert.state(index >= 0 && index < getLeafCount(), "叶子下标[" + index + "]越界");
+        long position = (long) index * leafSize;
+        return verifyRange(file, position, Math.min(leafSize, fileSize - position));
+    }
+
+    @Override
+    public String toString() {
+        return algorithm + "-merkle(" + leafSize + ")=" + getRoot();
+    }
+
+    /**
+     * 叶子数，空文件也有一个（空）叶子
+     *
+     * @param fileSize 文件大小
+     * @param leafSize 叶子大小
+     * @return 叶子数
+     * @since 1.1
+     */
+    private static int leafCount(long fileSize, int leafSize) {
+        long count = Math.max(1, (fileSize + leafSize - 1) / leafSize);
+        Assert.state(count <= Integer.MAX_VALUE, "叶子数过多，请增大叶子大小[" + leafSize + "]");
+        return (int) count;
+    }
+
+    private static byte[] leaf(String algorithm, FileChannel channel, long fileSize, int leafSize, int index) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = DigestSupport.messageDigest(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw Assert.toRuntimeException(e, "[" + algorithm + "]计算叶子摘要出错");
+        }
+        long position = (long) index * leafSize;
+        digest.update(LEAF);
+        DigestSupport.update(digest, channel, position, Math.min(leafSize, fileSize - position));
+        return digest.digest();
+    }
+
+    private static byte[] root(String algorithm, byte[][] leaves) throws NoSuchAlgorithmException {
+        MessageDigest digest = DigestSupport.messageDigest(algorithm);
+        byte[][] level = leaves;
+        while (level.length > 1) {
+            byte[][] parent = new byte[(level.length + 1) / 2][];
+            for (int i = 0; i < parent.length; i++) {
+                if (2 * i + 1 < level.length) {
+                    digest.update(NODE);
+                    digest.update(level[2 * i]);
+                    digest.update(level[2 * i + 1]);
+                    parent[i] = digest.digest();
+                } else {
+                    parent[i] = level[2 * i];
+                }
+            }
+            level = parent;
+        }
+        return level[0].clone();
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.digest;
+
+import com.giannuo.util.Assert;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 多文件并行摘要
+ * <br>
+ * 由一个生产线程遍历文件（目录树或文件集合）并提交至有界工作线程池，结果按完成顺序进入队列，
+ * 由调用方以{@code Stream}消费；在途（已提交未消费）文件数受信号量限制，内存占用与文件总数无关；
+ * 单个文件出错以失败结果返回，遍历本身出错则在结果消费完毕后抛出
+ * </br>
+ *
+ * @see IDigest#treeDigest(Path, int)
+ * @see IDigest#batchDigest(Iterable, int)
+ * @since 1.1
+ */
+final class ParallelDigest implements Iterator<DigestResult> {
+    /**
+     * 生产结束标记
+     *
+     * @since 1.1
+     */
+    private static final Object END = new Object();
+    /**
+     * 线程编号
+     *
+     * @since 1.1
+     */
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private final String algorithm;
+    private final ExecutorService workers;
+    private final Semaphore permits;
+    private final BlockingQueue<Object> results = new LinkedBlockingQueue<>();
+    private final Thread producer;
+    /**
+     * 结果总数，生产结束前为-1
+     *
+     * @since 1.1
+     */
+    private volatile long total = -1;
+    /**
+     * 遍历文件出错时的异常
+     *
+     * @since 1.1
+     */
+    private volatile Exception walkError;
+    private long consumed;
+    private DigestResult next;
+
+    private ParallelDigest(String algorithm, int parallelism, PathSource source) {
+        this.algorithm = algorithm;
+        this.workers = Executors.newFixedThreadPool(parallelism, r -> DigestSupport.newWorkerThread(r, "giannuo-digest-" + THREAD_NUMBER.incrementAndGet()));
+        this.permits = new Semaphore(parallelism * DigestConsts.PARALLEL_DIGEST_IN_FLIGHT_PER_THREAD);
+        this.producer = daemon(() -> produce(source), "giannuo-digest-walker-" + THREAD_NUMBER.incrementAndGet());
+    }
+
+    /**
+     * 并行计算目录树下所有常规文件的摘要
+     *
+     * @param algorithm   摘要算法
+     * @param root        根目录（或单个文件）
+     * @param parallelism 并行度
+     * @return 按完成顺序的摘要结果，关闭时终止未完成的计算
+     * @since 1.1
+     */
+    static Stream<DigestResult> tree(@NotNull String algorithm, @NotNull Path root, int parallelism) {
+        return stream(algorithm, parallelism, sink -> Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (attrs.isRegularFile()) {
+                    sink.submit(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+                sink.fail(file, exc);
+                return FileVisitResult.CONTINUE;
+            }
+        }));
+    }
+
+    /**
+     * 并行计算多个文件的摘要
+     *
+     * @param algorithm   摘要算法
+     * @param files       文件
+     * @param parallelism 并行度
+     * @return 按完成顺序的摘要结果，关闭时终止未完成的计算
+     * @since 1.1
+     */
+    static Stream<DigestResult> batch(@NotNull String algorithm, @NotNull Iterable<Path> files, int parallelism) {
+        return stream(algorithm, parallelism, sink -> {
+            for (Path file : files) {
+                sink.submit(file);
+            }
+        });
+    }
+
+    private static Stream<DigestResult> stream(String algorithm, int parallelism, PathSource source) {
+        Assert.state(parallelism > 0, "并行度[" + parallelism + "]必须大于0");
+        ParallelDigest iterator = new ParallelDigest(algorithm, parallelism, source);
+        iterator.producer.start();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        try {
+            while (total < 0 || consumed < total) {
+                Object result = results.take();
+                if (result != END) {
+                    next = (DigestResult) result;
+                    consumed++;
+                    permits.release();
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw Assert.toRuntimeException(e, "[" + algorithm + "]等待摘要结果时被中断");
+        }
+        close();
+        if (walkError != null) {
+            throw Assert.toRuntimeException(walkError, "[" + algorithm + "]遍历文件出错");
+        }
+        return false;
+    }
+
+    @Override
+    public DigestResult next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        DigestResult result = next;
+        next = null;
+        return result;
+    }
+
+    /**
+     * 终止遍历及未完成的计算
+     *
+     * @since 1.1
+     */
+    private void close() {
+        producer.interrupt();
+        workers.shutdownNow();
+    }
+
+    /**
+     * 生产：遍历文件并提交计算，结束（含异常、中断）后写入结果总数及结束标记
+     *
+     * @param source 文件来源
+     * @since 1.1
+     */
+    private void produce(PathSource source) {
+        long[] submitted = new long[1];
+        Sink sink = new Sink() {
+            @Override
+            public void submit(Path file) throws IOException {
+                acquire();
+                submitted[0]++;
+                workers.execute(() -> results.add(digest(file)));
+            }
+
+            @Override
+            public void fail(Path file, Exception error) throws IOException {
+                acquire();
+                submitted[0]++;
+                results.add(DigestResult.failure(file, error));
+            }
+        };
+        try {
+            source.forEach(sink);
+        } catch (InterruptedIOException e) {
+            // 已关闭
+        } catch (Exception e) {
+            walkError = e;
+        } finally {
+            total = submitted[0];
+            results.add(END);
+        }
+    }
+
+    private void acquire() throws InterruptedIOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("多文件摘要已关闭");
+        }
+    }
+
+    private DigestResult digest(Path file) {
+        try {
+            return DigestResult.success(file, DigestSupport.toHex(DigestSupport.digest(algorithm, file)));
+        } catch (Exception e) {
+            return DigestResult.failure(file, e);
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * 文件来源
+     *
+     * @since 1.1
+     */
+    @FunctionalInterface
+    private interface PathSource {
+        void forEach(Sink sink) throws Exception;
+    }
+
+    /**
+     * 文件提交入口
+     *
+     * @since 1.1
+     */
+    private interface Sink {
+        void submit(Path file) throws IOException;
+
+        void fail(Path file, Exception error) throws IOException;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.util;
+
+/**
+ * 十六进制编码工具
+ * <ul>
+ *     <li>查表编码：每个字节直接取对应的两个字符，不经{@code BigInteger}/{@code String.format}</li>
+ *     <li>定宽：每个字节固定两个小写字符，保留前导0</li>
+ *     <li>可写入调用方提供的字符/字节缓冲区，避免中间对象</li>
+ * </ul>
+ *
+ * @since 1.1
+ */
+public class Hex {
+    /**
+     * 十六进制字符
+     *
+     * @since 1.1
+     */
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+    /**
+     * 字节到两个十六进制字符的查找表：下标[2 * (b & 0xFF)]、[2 * (b & 0xFF) + 1]
+     *
+     * @since 1.1
+     */
+    private static final char[] TABLE = new char[512];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            TABLE[i << 1] = DIGITS[i >>> 4];
+            TABLE[(i << 1) + 1] = DIGITS[i & 0x0F];
+        }
+    }
+
+    /**
+     * 编码为十六进制字符串
+     *
+     * @param data 数据
+     * @return 十六进制字符串，长度为数据长度的2倍
+     * @since 1.1
+     */
+    public static String encode(byte[] data) {
+        char[] out = new char[data.length << 1];
+        encode(data, 0, data.length, out, 0);
+        return new String(out);
+    }
+
+    /**
+     * 编码并写入字符数组
+     *
+     * @param data      数据
+     * @param offset    数据偏移量
+     * @param length    数据长度
+     * @param out       输出字符数组，剩余空间不小于数据长度的2倍
+     * @param outOffset 输出偏移量
+     * @return 写入的字符数
+     * @since 1.1
+     */
+    public static int encode(byte[] data, int offset, int length, char[] out, int outOffset) {
+        Assert.state(out.length - outOffset >= length << 1, "输出空间不足");
+        for (int i = offset, end = offset + length, j = outOffset; i < end; i++, j += 2) {
+            int index = (data[i] & 0xFF) << 1;
+            out[j] = TABLE[index];
+            out[j + 1] = TABLE[index + 1];
+        }
+        return length << 1;
+    }
+
+    /**
+     * 编码并写入（ASCII）字节数组
+     *
+     * @param data      数据
+     * @param offset    数据偏移量
+     * @param length    数据长度
+     * @param out       输出字节数组，剩余空间不小于数据长度的2倍
+     * @param outOffset 输出偏移量
+     * @return 写入的字节数
+     * @since 1.1
+     */
+    public static int encode(byte[] data, int offset, int length, byte[] out, int outOffset) {
+        Assert.state(out.length - outOffset >= length << 1, "输出空间不足");
+        for (int i = offset, end = offset + length, j = outOffset; i < end; i++, j += 2) {
+            int index = (data[i] & 0xFF) << 1;
+            out[j] = (byte) TABLE[index];
+            out[j + 1] = (byte) TABLE[index + 1];
+        }
+        return length << 1;
+    }
+
+    /**
+     * 编码并追加到{@code StringBuilder}
+     *
+     * @param data 数据
+     * @param out  输出
+     * @return 输出
+     * @since 1.1
+     */
+    public static StringBuilder encode(byte[] data, StringBuilder out) {
+        out.ensureCapacity(out.length() + (data.length << 1));
+        for (byte b : data) {
+            int index = (b & 0xFF) << 1;
+            out.append(TABLE[index]).append(TABLE[index + 1]);
+        }
+        return out;
+    }
+
+    /**
+     * 解码十六进制字符串（大小写均可）
+     *
+     * @param hex 十六进制字符串，长度为偶数
+     * @return 数据
+     * @since 1.1
+     */
+    public static byte[] decode(CharSequence hex) {
+        Assert.state((hex.length() & 1) == 0, "十六进制字符串长度必须为偶数");
+        byte[] data = new byte[hex.length() >> 1];
+        for (int i = 0; i < data.length; i++) {
+            int high = Character.digit(hex.charAt(i << 1), 16);
+            int low = Character.digit(hex.charAt((i << 1) + 1), 16);
+            Assert.state(high >= 0 && low >= 0, "非法的十六进制字符串");
+            data[i] = (byte) (high << 4 | low);
+        }
+        return data;
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 有界、并发的LRU/TTL缓存
+ * <ul>
+ *     <li>命中路径无锁：仅读取{@code ConcurrentHashMap}并更新条目的最近访问时间</li>
+ *     <li>容量淘汰：新增条目使容量超限时，淘汰最近访问时间最早的条目（近似LRU）；淘汰时线性扫描全部条目（O(n)），仅适合容量较小（数百条以内）的缓存</li>
+ *     <li>过期淘汰：条目写入超过存活时间后，下次访问时视为未命中并重新加载</li>
+ *     <li>统计：命中、未命中（实际加载）、淘汰（容量及过期）次数；并发未命中时只有执行加载的线程计为未命中</li>
+ * </ul>
+ *
+ * @param <K> 键
+ * @param <V> 值
+ * @since 1.1
+ */
+public class LruCache<K, V> {
+    /**
+     * 最大条目数
+     *
+     * @since 1.1
+     */
+    private final int maxSize;
+    /**
+     * 条目存活时间（纳秒），不大于0表示永不过期
+     *
+     * @since 1.1
+     */
+    private final long ttlNanos;
+    private final ConcurrentHashMap<K, Node<V>> map = new ConcurrentHashMap<>();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * 缓存构造
+     *
+     * @param maxSize 最大条目数
+     * @param ttl     条目存活时间，不大于0表示永不过期
+     * @param unit    存活时间单位
+     * @since 1.1
+     */
+    public LruCache(int maxSize, long ttl, TimeUnit unit) {
+        Assert.state(maxSize > 0, "缓存容量[" + maxSize + "]必须大于0");
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl > 0 ? unit.toNanos(ttl) : 0;
+    }
+
+    /**
+     * 获取缓存值，未命中（或已过期）时加载并缓存
+     *
+     * @param key    键
+     * @param loader 加载函数（同一键并发未命中时只加载一次）
+     * @return 缓存值
+     * @since 1.1
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long now = System.nanoTime();
+        Node<V> node = map.get(key);
+        if (node != null) {
+            if (!node.isExpired(now)) {
+                node.accessTime = now;
+                hitCount.increment();
+                return node.value;
+            }
+            if (map.remove(key, node)) {
+                evictionCount.increment();
+            }
+        }
+        boolean[] loaded = new boolean[1];
+        node = map.computeIfAbsent(key, k -> {
+            loaded[0] = true;
+            missCount.increment();
+            return new Node<>(loader.apply(k), now, ttlNanos);
+        });
+        if (!loaded[0]) {
+            // 其他线程已加载
+            node.accessTime = now;
+            hitCount.increment();
+        } else if (map.size() > maxSize) {
+            evictEldest();
+        }
+        return node.value;
+    }
+
+    /**
+     * 移除缓存值
+     *
+     * @param key 键
+     * @since 1.1
+     */
+    public void invalidate(K key) {
+        map.remove(key);
+    }
+
+    /**
+     * 清空缓存（不重置统计）
+     *
+     * @since 1.1
+     */
+    public void clear() {
+        map.clear();
+    }
+
+    /**
+     * @return 当前条目数
+     * @since 1.1
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * @return 命中次数
+     * @since 1.1
+     */
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return 未命中（实际加载）次数
+     * @since 1.1
+     */
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return 淘汰次数（含容量淘汰及过期淘汰）
+     * @since 1.1
+     */
+    public long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * 淘汰最近访问时间最早的条目，直至容量不超限（每次淘汰线性扫描全部条目）
+     *
+     * @since 1.1
+     */
+    private void evictEldest() {
+        while (map.size() > maxSize) {
+            Map.Entry<K, Node<V>> eldest = null;
+            for (Map.Entry<K, Node<V>> entry : map.entrySet()) {
+                if (eldest == null || entry.getValue().accessTime - eldest.getValue().accessTime < 0) {
+                    eldest = entry;
+                }
+            }
+            if (eldest == null) {
+                return;
+            }
+            if (map.remove(eldest.getKey(), eldest.getValue())) {
+                evictionCount.increment();
+            }
+        }
+    }
+
+    /**
+     * 缓存条目
+     *
+     * @param <V> 值
+     * @since 1.1
+     */
+    private static final class Node<V> {
+        private final V value;
+        /**
+         * 过期时间（纳秒），0表示永不过期
+         */
+        private final long expireTime;
+        private volatile long accessTime;
+
+        private Node(V value, long now, long ttlNanos) {
+            this.value = value;
+            this.accessTime = now;
+            this.expireTime = ttlNanos > 0 ? now + ttlNanos : 0;
+        }
+
+        private boolean isExpired(long now) {
+            return expireTime != 0 && now - expireTime >= 0;
+        }
+    }
+}
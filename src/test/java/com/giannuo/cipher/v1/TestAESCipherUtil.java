@@ -18,6 +18,9 @@ package com.giannuo.cipher.v1;
 import com.giannuo.cipher.AESCipherUtil;
 import com.giannuo.cipher.AESDecrypt;
 import com.giannuo.cipher.AESEncrypt;
+import com.giannuo.cipher.BufferedRandomSource;
+import com.giannuo.cipher.CipherEngineMode;
+import com.giannuo.cipher.IRandomSource;
 import com.giannuo.digest.MD5Util;
 import com.giannuo.digest.SHAUtil;
 import org.junit.Assert;
@@ -26,8 +29,28 @@ import org.junit.Test;
 import org.junit.runners.MethodSorters;
 
 import java.io.File;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 @FixMethodOrder(MethodSorters.JVM)
 public class TestAESCipherUtil {
@@ -168,4 +191,326 @@ public class TestAESCipherUtil {
 
     }
 
+    @Test
+    public void testAESCryptConcurrent() throws Exception {
+        System.out.println(">>>>>>>>>>>>>>>>\ntest for setEngineMode(CipherEngineMode mode) shared by threads");
+        String charsetName = StandardCharsets.UTF_8.displayName();
+        String key = util.generateBase64Key(256);
+
+        AESEncrypt cipherEncrypt = new AESEncrypt(key, charsetName);
+        cipherEncrypt.setEngineMode(CipherEngineMode.POOLED);
+        AESDecrypt cipherDecrypt = new AESDecrypt(cipherEncrypt.getBase64Key(), cipherEncrypt.getBase64Iv(), charsetName);
+        cipherDecrypt.setEngineMode(CipherEngineMode.THREAD_LOCAL);
+        System.out.println("Encrypt engine mode ： " + cipherEncrypt.getEngineMode());
+        System.out.println("Decrypt engine mode ： " + cipherDecrypt.getEngineMode());
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    int count = 0;
+                    for (int i = 0; i < 500; i++) {
+                        String data = "线程" + thread + "的第" + i + "段密文，我需要被加密";
+                        String secretData = util.encrypt(data, cipherEncrypt);
+                        String unsecretData = util.decrypt(secretData, cipherDecrypt);
+                        Assert.assertEquals("期望的解密数据与原数据不同", data, unsecretData);
+                        count++;
+                    }
+                    return count;
+                }));
+            }
+            int total = 0;
+            for (Future<Integer> future : futures) {
+                total += future.get();
+            }
+            System.out.println("并发加解密次数 ： " + total);
+            Assert.assertEquals("并发加解密次数不符", 16 * 500, total);
+        } finally {
+            executor.shutdown();
+        }
+
+        System.out.println("<<<<<<<<<<<<<<<<\n");
+    }
+
+    @Test
+    public void testAESCryptFileParallel() throws Exception {
+        System.out.println(">>>>>>>>>>>>>>>>\ntest for encryptFileParallel(String sourceFilePath,String destFilePath,int segmentSize,ForkJoinPool pool)/decryptFileParallel(String sourceFilePath,String destFilePath,ForkJoinPool pool)");
+        final String baseResourcePath = getClass().getResource("/").getPath();
+        final String sourceFilePath$todoEncrypt = baseResourcePath + "original.txt";
+        final String destFilePath$doneEncrypt = baseResourcePath + "encrypted_parallel.txt";
+        final String destFilePath$doneDecrypt = baseResourcePath + "decrypted_parallel.txt";
+
+        String charsetName = StandardCharsets.UTF_8.displayName();
+        String key = util.generateBase64Key(256);
+        AESEncrypt cipherEncrypt = new AESEncrypt(key, charsetName);
+        AESDecrypt cipherDecrypt = new AESDecrypt(cipherEncrypt.getBase64Key(), cipherEncrypt.getBase64Iv(), charsetName);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int segmentSize : new int[]{1000, 4096, 1024 * 1024}) {
+                System.out.println("segmentSize ： " + segmentSize);
+                cipherEncrypt.encryptFileParallel(sourceFilePath$todoEncrypt, destFilePath$doneEncrypt, segmentSize, pool);
+                cipherDecrypt.decryptFileParallel(destFilePath$doneEncrypt, destFilePath$doneDecrypt, pool);
+
+                Assert.assertTrue("期望的原始文件与解密后的文件不同", MD5Util.SINGLETON.fileEquals(sourceFilePath$todoEncrypt, destFilePath$doneDecrypt));
+            }
+
+            // 篡改密文
+            try (RandomAccessFile file = new RandomAccessFile(destFilePath$doneEncrypt, "rw")) {
+                file.seek(file.length() / 2);
+                int b = file.read();
+                file.seek(file.length() / 2);
+                file.write(b ^ 0x01);
+            }
+            Assert.assertThrows(RuntimeException.class, () -> cipherDecrypt.decryptFileParallel(destFilePath$doneEncrypt, destFilePath$doneDecrypt, pool));
+
+            // 篡改头部分段大小（超过上限），应在分配缓冲区前被拒绝
+            try (RandomAccessFile file = new RandomAccessFile(destFilePath$doneEncrypt, "rw")) {
+                file.seek(5);
+                file.writeInt(Integer.MAX_VALUE - 8);
+            }
+            Assert.assertThrows(RuntimeException.class, () -> cipherDecrypt.decryptFileParallel(destFilePath$doneEncrypt, destFilePath$doneDecrypt, pool));
+            Assert.assertThrows(RuntimeException.class, () -> cipherDecrypt.openSeekable(destFilePath$doneEncrypt));
+        } finally {
+            pool.shutdown();
+        }
+
+        System.out.println("<<<<<<<<<<<<<<<<\n");
+    }
+
+    @Test
+    public void testAESDecryptFileRange() throws Exception {
+        System.out.println(">>>>>>>>>>>>>>>>\ntest for decryptFileRange(String sourceFilePath,long offset,int length)");
+        final String baseResourcePath = getClass().getResource("/").getPath();
+        final String sourceFilePath$todoEncrypt = baseResourcePath + "original.txt";
+        final String destFilePath$doneEncrypt = baseResourcePath + "encrypted_seekable.txt";
+
+        String charsetName = StandardCharsets.UTF_8.displayName();
+        String key = util.generateBase64Key(128);
+        AESEncrypt cipherEncrypt = new AESEncrypt(key, charsetName);
+        AESDecrypt cipherDecrypt = new AESDecrypt(cipherEncrypt.getBase64Key(), cipherEncrypt.getBase64Iv(), charsetName);
+        cipherEncrypt.encryptFileParallel(sourceFilePath$todoEncrypt, destFilePath$doneEncrypt, 4096, ForkJoinPool.commonPool());
+
+        byte[] original = Files.readAllBytes(Paths.get(sourceFilePath$todoEncrypt));
+        long[][] ranges = new long[][]{{0, 10}, {4090, 20}, {8192, 4096}, {100000, 65536}, {original.length - 5, 100}, {original.length + 1, 10}};
+        for (long[] range : ranges) {
+            int offset = (int) range[0];
+            int length = (int) range[1];
+            byte[] expected = offset >= original.length ? new byte[0] : Arrays.copyOfRange(original, offset, Math.min(original.length, offset + length));
+            byte[] actual = cipherDecrypt.decryptFileRange(destFilePath$doneEncrypt, offset, length);
+            System.out.println("range ： [" + offset + ", +" + length + "] => " + actual.length);
+            Assert.assertArrayEquals("期望的范围解密数据与原数据不同", expected, actual);
+        }
+
+        System.out.println("<<<<<<<<<<<<<<<<\n");
+    }
+
+    @Test
+    public void testAESCryptIntoBuffer() {
+        System.out.println(">>>>>>>>>>>>>>>>\ntest for encrypt(ByteBuffer in,ByteBuffer out)/decrypt(byte[] in,int inOffset,int inLength,byte[] out,int outOffset)");
+        String charsetName = StandardCharsets.UTF_8.displayName();
+        byte[] data = "aaaaaaaaaaaaaaaaaaaa我是一段密文，我需要被加密".getBytes(StandardCharsets.UTF_8);
+        AESEncrypt cipherEncrypt = new AESEncrypt(util.generateBase64Key(256), charsetName);
+        AESDecrypt cipherDecrypt = new AESDecrypt(cipherEncrypt.getBase64Key(), cipherEncrypt.getBase64Iv(), charsetName);
+
+        ByteBuffer in = ByteBuffer.allocateDirect(data.length);
+        ByteBuffer out = ByteBuffer.allocateDirect(cipherEncrypt.getOutputSize(data.length));
+        byte[] plain = new byte[data.length + 16];
+        for (int i = 0; i < 3; i++) {
+            in.clear();
+            in.put(data).flip();
+            out.clear();
+            int secretLength = cipherEncrypt.encrypt(in, out);
+            Assert.assertArrayEquals("期望的加密数据与整体加密结果不同", cipherEncrypt.encrypt(data), toArray(out));
+
+            int plainLength = cipherDecrypt.decrypt(toArray(out), 0, secretLength, plain, 0);
+            Assert.assertEquals("期望的解密数据与原数据不同", new String(data, StandardCharsets.UTF_8), new String(plain, 0, plainLength, StandardCharsets.UTF_8));
+        }
+
+        System.out.println("<<<<<<<<<<<<<<<<\n");
+    }
+
+    @Test
+    public void testAESCryptIvPrefixed() throws Exception {
+        System.out.println(">>>>>>>>>>>>>>>>\ntest for AESEncrypt(String base64Key,String charsetName,boolean ivPrefixed)/AESDecrypt(String base64Key,String charsetName)");
+        String charsetName = StandardCharsets.UTF_8.displayName();
+        String data = "aaaaaaaaaaaaaaaaaaaa我是一段密文，我需要被加密";
+        AESEncrypt cipherEncrypt = new AESEncrypt(util.generateBase64Key(256), charsetName, true);
+        AESDecrypt cipherDecrypt = new AESDecrypt(cipherEncrypt.getBase64Key(), charsetName);
+
+        // 相同明文每次加密结果不同，且均可解密
+        String secret1 = cipherEncrypt.encryptBase64(data);
+        String secret2 = cipherEncrypt.encryptBase64(data);
+        System.out.println("secret1 : " + secret1);
+        System.out.println("secret2 : " + secret2);
+        Assert.assertNotEquals("期望相同明文的加密结果不同", secret1, secret2);
+        Assert.assertEquals("期望的解密数据与原数据不同", data, cipherDecrypt.decryptBase64(secret1));
+        Assert.assertEquals("期望的解密数据与原数据不同", data, cipherDecrypt.decryptBase64(secret2));
+        Assert.assertThrows(RuntimeException.class, cipherEncrypt::getBase64Iv);
+
+        // 批量
+        List<String> datas = Arrays.asList(data, "", "b");
+        Assert.assertEquals("期望的批量解密数据与原数据不同", datas, cipherDecrypt.decryptBase64(cipherEncrypt.encryptBase64(datas, true)));
+
+        // 调用方缓冲区
+        byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        byte[] secret = new byte[cipherEncrypt.getOutputSize(bytes.length)];
+        int secretLength = cipherEncrypt.encrypt(bytes, 0, bytes.length, secret, 0);
+        ByteBuffer plain = ByteBuffer.allocate(cipherDecrypt.getOutputSize(secretLength));
+        cipherDecrypt.decrypt(ByteBuffer.wrap(secret, 0, secretLength), plain);
+        plain.flip();
+        Assert.assertEquals("期望的解密数据与原数据不同", data, StandardCharsets.UTF_8.decode(plain).toString());
+
+        // 文件
+        final String baseResourcePath = getClass().getResource("/").getPath();
+        final String sourceFilePath$todoEncrypt = baseResourcePath + "original.txt";
+        final String destFilePath$doneEncrypt = baseResourcePath + "encrypted_iv_prefixed.txt";
+        final String destFilePath$doneDecrypt = baseResourcePath + "decrypted_iv_prefixed.txt";
+        cipherEncrypt.encryptFile(sourceFilePath$todoEncrypt, destFilePath$doneEncrypt);
+        cipherDecrypt.decryptFile(destFilePath$doneEncrypt, destFilePath$doneDecrypt, 1000);
+        Assert.assertTrue("期望的原始文件与解密后的文件不同", MD5Util.SINGLETON.fileEquals(sourceFilePath$todoEncrypt, destFilePath$doneDecrypt));
+
+        System.out.println("<<<<<<<<<<<<<<<<\n");
+    }
+
+    @Test
+    public void testAESRandomSource() throws Exception {
+        System.out.println(">>>>>>>>>>>>>>>>\ntest for BufferedRandomSource/setRandomSource(IRandomSource randomSource)");
+        String charsetName = StandardCharsets.UTF_8.displayName();
+        String data = "aaaaaaaaaaaaaaaaaaaa我是一段密文，我需要被加密";
+        AESEncrypt cipherEncrypt = new AESEncrypt(util.generateBase64Key(256), charsetName, true);
+        cipherEncrypt.setEngineMode(CipherEngineMode.THREAD_LOCAL);
+        AESDecrypt cipherDecrypt = new AESDecrypt(cipherEncrypt.getBase64Key(), charsetName);
+        Assert.assertSame("期望默认随机数源为BufferedRandomSource", BufferedRandomSource.SINGLETON, cipherEncrypt.getRandomSource());
+
+        // 多线程抽取的向量互不相同
+        int threads = 4;
+        int perThread = 500;
+        long drawnBefore = BufferedRandomSource.SINGLETON.bytesDrawn();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<List<String>>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                List<String> ivs = new ArrayList<>();
+                for (int j = 0; j < perThread; j++) {
+                    byte[] secret = cipherEncrypt.encrypt(data.getBytes(StandardCharsets.UTF_8));
+                    ivs.add(Base64.getEncoder().encodeToString(Arrays.copyOf(secret, 16)));
+                }
+                return ivs;
+            }));
+        }
+        Set<String> ivs = new HashSet<>();
+        for (Future<List<String>> future : futures) {
+            ivs.addAll(future.get());
+        }
+        executor.shutdown();
+        Assert.assertEquals("期望每条消息的向量互不相同", threads * perThread, ivs.size());
+        long drawn = BufferedRandomSource.SINGLETON.bytesDrawn() - drawnBefore;
+        System.out.println("bytes drawn ： " + drawn);
+        Assert.assertTrue("期望随机字节计数覆盖所有向量", drawn >= threads * perThread * 16L);
+
+        // 自定义随机数源
+        AtomicLong custom = new AtomicLong();
+        cipherEncrypt.setRandomSource(new IRandomSource() {
+            @Override
+            public void nextBytes(byte[] bytes) {
+                custom.addAndGet(bytes.length);
+                BufferedRandomSource.SINGLETON.nextBytes(bytes);
+            }
+
+            @Override
+            public SecureRandom secureRandom() {
+                return BufferedRandomSource.SINGLETON.secureRandom();
+            }
+
+            @Override
+            public long bytesDrawn() {
+                return custom.get();
+            }
+        });
+        Assert.assertEquals("期望的解密数据与原数据不同", data, cipherDecrypt.decryptBase64(cipherEncrypt.encryptBase64(data)));
+        Assert.assertEquals("期望使用自定义随机数源生成向量", 16L, cipherEncrypt.getRandomSource().bytesDrawn());
+
+        // 线程共享的生成器不可重新设置种子；带种子的秘钥生成不影响共享生成器
+        SecureRandom shared = BufferedRandomSource.SINGLETON.secureRandom();
+        Assert.assertEquals("期望视图可生成随机数", 32, shared.generateSeed(32).length);
+        Assert.assertThrows("共享生成器不应允许设置种子", UnsupportedOperationException.class, () -> shared.setSeed(new byte[]{1, 2, 3}));
+        Assert.assertThrows("共享生成器不应允许设置种子", UnsupportedOperationException.class, () -> shared.setSeed(1L));
+        Assert.assertNotNull(AESCipherUtil.SINGLETON.generateBase64Key("seed", StandardCharsets.UTF_8));
+
+        System.out.println("<<<<<<<<<<<<<<<<\n");
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.flip();
+        byte[] bytes = new byte[duplicate.remaining()];
+        duplicate.get(bytes);
+        return bytes;
+    }
+
+    @Test
+    public void testAESBase64Stream() throws Exception {
+        System.out.println(">>>>>>>>>>>>>>>>\ntest for encryptBase64(Reader,Writer)/decryptBase64(Reader,Writer)/wrapBase64/encryptBase64File/decryptBase64File");
+        String charsetName = StandardCharsets.UTF_8.displayName();
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            builder.append("{\"序号\":").append(i).append(",\"内容\":\"我是一段密文，我需要被加密\"},");
+        }
+        String data = builder.toString();
+        AESEncrypt cipherEncrypt = new AESEncrypt(util.generateBase64Key(256), charsetName);
+        AESDecrypt cipherDecrypt = new AESDecrypt(cipherEncrypt.getBase64Key(), cipherEncrypt.getBase64Iv(), charsetName);
+        String expected = cipherEncrypt.encryptBase64(data);
+
+        // Reader/Writer
+        StringWriter secret = new StringWriter();
+        cipherEncrypt.encryptBase64(new StringReader(data), secret);
+        Assert.assertEquals("期望的流式加密数据与加密数据相同", expected, secret.toString());
+        StringWriter plain = new StringWriter();
+        cipherDecrypt.decryptBase64(new StringReader(secret.toString()), plain);
+        Assert.assertEquals("期望的解密数据与原数据不同", data, plain.toString());
+
+        // 包装
+        StringWriter wrapped = new StringWriter();
+        try (Writer writer = cipherEncrypt.wrapBase64(wrapped)) {
+            writer.write(data, 0, 100);
+            writer.write(data.substring(100));
+        }
+        Assert.assertEquals("期望的包装加密数据与加密数据相同", expected, wrapped.toString());
+        StringWriter unwrapped = new StringWriter();
+        try (Reader reader = cipherDecrypt.wrapBase64(new StringReader(expected))) {
+            char[] buffer = new char[333];
+            int len;
+            while ((len = reader.read(buffer)) != -1) {
+                unwrapped.write(buffer, 0, len);
+            }
+        }
+        Assert.assertEquals("期望的解密数据与原数据不同", data, unwrapped.toString());
+        // 非ASCII字符（截断低8位后恰为原字符）不可被静默接受
+        String nonAscii = (char) (0x100 + expected.charAt(0)) + expected.substring(1);
+        Assert.assertThrows("非ASCII字符未被拒绝", Exception.class, () -> cipherDecrypt.decryptBase64(new StringReader(nonAscii), new StringWriter()));
+        Assert.assertThrows("非ASCII字符未被拒绝", Exception.class, () -> {
+            try (Reader reader = cipherDecrypt.wrapBase64(new StringReader(nonAscii))) {
+                while (reader.read() != -1) {
+                    // 读取全部数据
+                }
+            }
+        });
+
+        // 文件
+        final String baseResourcePath = getClass().getResource("/").getPath();
+        final String sourceFilePath$todoEncrypt = baseResourcePath + "original.txt";
+        final String destFilePath$doneEncrypt = baseResourcePath + "encrypted_base64.txt";
+        final String destFilePath$doneDecrypt = baseResourcePath + "decrypted_base64.txt";
+        cipherEncrypt.encryptBase64File(sourceFilePath$todoEncrypt, destFilePath$doneEncrypt);
+        Assert.assertArrayEquals("期望的Base64文件与加密数据相同",
+                cipherEncrypt.encrypt(Files.readAllBytes(Paths.get(sourceFilePath$todoEncrypt))),
+                Base64.getDecoder().decode(Files.readAllBytes(Paths.get(destFilePath$doneEncrypt))));
+        cipherDecrypt.decryptBase64File(destFilePath$doneEncrypt, destFilePath$doneDecrypt);
+        Assert.assertTrue("期望的原始文件与解密后的文件不同", MD5Util.SINGLETON.fileEquals(sourceFilePath$todoEncrypt, destFilePath$doneDecrypt));
+
+        System.out.println("<<<<<<<<<<<<<<<<\n");
+    }
 }
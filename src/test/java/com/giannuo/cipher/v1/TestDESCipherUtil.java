@@ -28,6 +28,8 @@ import org.junit.runners.MethodSorters;
 import java.io.File;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 @FixMethodOrder(MethodSorters.JVM)
 public class TestDESCipherUtil {
@@ -167,4 +169,55 @@ public class TestDESCipherUtil {
 
     }
 
+    @Test
+    public void testDESCryptFileWithBufferSize() {
+        System.out.println(">>>>>>>>>>>>>>>>\ntest for encryptFile(String sourceFilePath,String destFilePath,int bufferSize)/decryptFile(String sourceFilePath,String destFilePath,int bufferSize)");
+        final String baseResourcePath = getClass().getResource("/").getPath();
+        final String sourceFilePath$todoEncrypt = baseResourcePath + "original.txt";
+        final String destFilePath$doneEncrypt = baseResourcePath + "encrypted_buffered.txt";
+        final String destFilePath$doneDecrypt = baseResourcePath + "decrypted_buffered.txt";
+
+        String charsetName = StandardCharsets.UTF_8.displayName();
+        String key = util.generateBase64Key(56);
+        DESEncrypt cipherEncrypt = new DESEncrypt(key, charsetName);
+        DESDecrypt cipherDecrypt = new DESDecrypt(cipherEncrypt.getBase64Key(), cipherEncrypt.getBase64Iv(), charsetName);
+
+        // 非块大小整数倍的缓冲区
+        for (int bufferSize : new int[]{7, 512, 1024 * 1024}) {
+            System.out.println("bufferSize ： " + bufferSize);
+            cipherEncrypt.encryptFile(sourceFilePath$todoEncrypt, destFilePath$doneEncrypt, bufferSize);
+            cipherDecrypt.decryptFile(destFilePath$doneEncrypt, destFilePath$doneDecrypt, bufferSize);
+
+            Assert.assertTrue("期望的原始文件与解密后的文件不同", MD5Util.SINGLETON.fileEquals(sourceFilePath$todoEncrypt, destFilePath$doneDecrypt));
+        }
+
+        System.out.println("<<<<<<<<<<<<<<<<\n");
+    }
+
+    @Test
+    public void testDESCryptBatch() {
+        System.out.println(">>>>>>>>>>>>>>>>\ntest for encrypt(List<String> datas,CipherEncrypt cipherEncrypt,boolean parallel)/decrypt(List<String> datas,CipherDecrypt cipherDecrypt,boolean parallel)");
+        String charsetName = StandardCharsets.UTF_8.displayName();
+        DESEncrypt cipherEncrypt = new DESEncrypt(util.generateBase64Key(56), charsetName);
+        DESDecrypt cipherDecrypt = new DESDecrypt(cipherEncrypt.getBase64Key(), cipherEncrypt.getBase64Iv(), charsetName);
+
+        List<String> datas = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            datas.add("第" + i + "条字段值，我需要被加密");
+        }
+
+        for (boolean parallel : new boolean[]{false, true}) {
+            System.out.println("parallel ： " + parallel);
+            List<String> secretDatas = util.encrypt(datas, cipherEncrypt, parallel);
+            Assert.assertEquals("批量加密结果数量不符", datas.size(), secretDatas.size());
+            for (int i = 0; i < datas.size(); i += 99) {
+                Assert.assertEquals("期望的批量加密数据与单条加密数据不同", util.encrypt(datas.get(i), cipherEncrypt), secretDatas.get(i));
+            }
+            List<String> unsecretDatas = util.decrypt(secretDatas, cipherDecrypt, parallel);
+            Assert.assertEquals("期望的解密数据与原数据不同", datas, unsecretDatas);
+        }
+
+        System.out.println("<<<<<<<<<<<<<<<<\n");
+    }
+
 }
@@ -25,9 +25,14 @@ import org.junit.FixMethodOrder;
 import org.junit.Test;
 import org.junit.runners.MethodSorters;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Random;
 
 @FixMethodOrder(MethodSorters.JVM)
 public class TestDESedeCipherUtil {
@@ -170,4 +175,44 @@ public class TestDESedeCipherUtil {
 
     }
 
+    @Test
+    public void testDESedeCryptStream() throws Exception {
+        System.out.println(">>>>>>>>>>>>>>>>\ntest for wrap(OutputStream out)/wrap(InputStream in)");
+        String charsetName = StandardCharsets.UTF_8.displayName();
+        String key = util.generateBase64Key(168);
+        DESedeEncrypt cipherEncrypt = new DESedeEncrypt(key, charsetName);
+        DESedeDecrypt cipherDecrypt = new DESedeDecrypt(cipherEncrypt.getBase64Key(), cipherEncrypt.getBase64Iv(), charsetName);
+
+        byte[] data = new byte[100003];
+        new Random(7).nextBytes(data);
+
+        // 分多次不规则写入
+        ByteArrayOutputStream secret = new ByteArrayOutputStream();
+        try (OutputStream out = cipherEncrypt.wrap(secret)) {
+            int offset = 0;
+            int step = 1;
+            while (offset < data.length) {
+                int length = Math.min(step, data.length - offset);
+                out.write(data, offset, length);
+                offset += length;
+                step = step * 3 % 20011 + 1;
+            }
+        }
+        System.out.println("secret data length ： " + secret.size());
+        Assert.assertArrayEquals("期望的流式加密结果与整体加密结果不同", cipherEncrypt.encrypt(data), secret.toByteArray());
+
+        // 小缓冲区读取
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        try (InputStream in = cipherDecrypt.wrap(new ByteArrayInputStream(secret.toByteArray()))) {
+            byte[] buffer = new byte[333];
+            int i;
+            while ((i = in.read(buffer)) != -1) {
+                plain.write(buffer, 0, i);
+            }
+        }
+        Assert.assertArrayEquals("期望的解密数据与原数据不同", data, plain.toByteArray());
+
+        System.out.println("<<<<<<<<<<<<<<<<\n");
+    }
+
 }
@@ -16,15 +16,38 @@
 package com.giannuo.cipher.v1;
 
 import com.giannuo.cipher.Base64KeyPair;
+import com.giannuo.cipher.CipherEngineMode;
+import com.giannuo.cipher.IAsymmetricCipherUtil;
 import com.giannuo.cipher.RSACipherUtil;
 import com.giannuo.cipher.RSADecrypt;
 import com.giannuo.cipher.RSAEncrypt;
+import com.giannuo.cipher.RSAKeyPairPool;
+import com.giannuo.cipher.RSAKeyRegistry;
+import com.giannuo.digest.MD5Util;
 import org.junit.*;
 import org.junit.runners.MethodSorters;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.security.interfaces.RSAPrivateCrtKey;
 import java.security.spec.RSAKeyGenParameterSpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThrows;
@@ -130,4 +153,286 @@ public class TestRSACipherUtil {
         Assert.assertEquals("解密数据与原数据不一致", data, unsecretData);
 
     }
+
+    @Test
+    public void test9_CipherIntoBuffer() {
+        byte[] data = new byte[1000];
+        new Random(9).nextBytes(data);
+        Base64KeyPair keyPair = util.generateBase64Key(1024);
+        String charsetName = StandardCharsets.UTF_8.displayName();
+        RSAEncrypt encrypt = new RSAEncrypt(keyPair.getBase64PublicKey(), charsetName);
+        RSADecrypt decrypt = new RSADecrypt(keyPair.getBase64PrivateKey(), charsetName);
+
+        // 字节数组
+        byte[] secret = new byte[encrypt.getOutputSize(data.length) + 3];
+        int secretLength = encrypt.encrypt(data, 0, data.length, secret, 3);
+        System.out.println("secret length : " + secretLength);
+        assertEquals("密文长度与预计不一致", encrypt.getOutputSize(data.length), secretLength);
+        byte[] plain = new byte[decrypt.getOutputSize(secretLength)];
+        int plainLength = decrypt.decrypt(secret, 3, secretLength, plain, 0);
+        Assert.assertArrayEquals("解密数据与原数据不一致", data, Arrays.copyOf(plain, plainLength));
+
+        // 直接缓冲区
+        ByteBuffer in = ByteBuffer.allocateDirect(data.length);
+        in.put(data).flip();
+        ByteBuffer out = ByteBuffer.allocateDirect(encrypt.getOutputSize(data.length));
+        encrypt.encrypt(in, out);
+        out.flip();
+        ByteBuffer result = ByteBuffer.allocateDirect(data.length);
+        decrypt.decrypt(out, result);
+        result.flip();
+        byte[] actual = new byte[result.remaining()];
+        result.get(actual);
+        Assert.assertArrayEquals("解密数据与原数据不一致", data, actual);
+
+        // 输出空间不足：处理失败后输入缓冲区的limit不变
+        in.clear();
+        ByteBuffer small = ByteBuffer.allocateDirect(200);
+        assertThrows("输出空间不足未被发现", RuntimeException.class, () -> encrypt.encrypt(in, small));
+        assertEquals("处理失败后limit被改变", data.length, in.limit());
+    }
+
+    @Test
+    public void testA_CipherParallel() throws Exception {
+        byte[] data = new byte[100 * 1024];
+        new Random(10).nextBytes(data);
+        Base64KeyPair keyPair = util.generateBase64Key(2048);
+        String charsetName = StandardCharsets.UTF_8.displayName();
+        RSAEncrypt encrypt = new RSAEncrypt(keyPair.getBase64PublicKey(), charsetName);
+        RSADecrypt decrypt = new RSADecrypt(keyPair.getBase64PrivateKey(), charsetName);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            long start = System.currentTimeMillis();
+            byte[] secret = encrypt.encryptParallel(data, pool);
+            byte[] plain = decrypt.decryptParallel(secret, pool);
+            System.out.println("parallel cost : " + (System.currentTimeMillis() - start) + "ms");
+            assertEquals("密文长度与预计不一致", encrypt.getOutputSize(data.length), secret.length);
+            Assert.assertArrayEquals("并行解密数据与原数据不一致", data, plain);
+            Assert.assertArrayEquals("并行解密与顺序解密结果不一致", decrypt.decrypt(secret), plain);
+
+            // 明文短于单块上限的密文块：解密结果需压缩
+            ByteArrayOutputStream shortBlocks = new ByteArrayOutputStream();
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            for (int i = 0; i < 50; i++) {
+                byte[] piece = Arrays.copyOfRange(data, i * 100, i * 100 + 1 + i);
+                shortBlocks.write(encrypt.encrypt(piece));
+                expected.write(piece);
+            }
+            Assert.assertArrayEquals("短块并行解密数据与原数据不一致", expected.toByteArray(), decrypt.decryptParallel(shortBlocks.toByteArray(), pool));
+
+            // 重复调用（工作线程复用密码器）及各引擎模式
+            Assert.assertArrayEquals("重复并行解密数据与原数据不一致", data, decrypt.decryptParallel(encrypt.encryptParallel(data, pool), pool));
+            for (CipherEngineMode mode : new CipherEngineMode[]{CipherEngineMode.THREAD_LOCAL, CipherEngineMode.POOLED}) {
+                encrypt.setEngineMode(mode);
+                decrypt.setEngineMode(mode);
+                Assert.assertArrayEquals("[" + mode + "]并行解密数据与原数据不一致", data, decrypt.decryptParallel(encrypt.encryptParallel(data, pool), pool));
+                Assert.assertArrayEquals("[" + mode + "]并行与顺序解密结果不一致", data, decrypt.decrypt(encrypt.encryptParallel(data, pool)));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testB_Envelope() throws Exception {
+        byte[] data = new byte[1024 * 1024 + 7];
+        new Random(11).nextBytes(data);
+        Base64KeyPair keyPair = util.generateBase64Key(2048);
+        String charsetName = StandardCharsets.UTF_8.displayName();
+        RSAEncrypt encrypt = new RSAEncrypt(keyPair.getBase64PublicKey(), charsetName);
+        RSADecrypt decrypt = new RSADecrypt(keyPair.getBase64PrivateKey(), charsetName);
+
+        // 字节数组
+        long start = System.currentTimeMillis();
+        byte[] envelope = encrypt.encryptEnvelope(data);
+        Assert.assertArrayEquals("信封解密数据与原数据不一致", data, decrypt.decryptEnvelope(envelope));
+        System.out.println("envelope length : " + envelope.length + ", cost : " + (System.currentTimeMillis() - start) + "ms");
+        Assert.assertEquals("信封长度不一致", 7 + 256 + 32 + data.length + 17 * 16, envelope.length);
+        Assert.assertArrayEquals("空数据信封解密不一致", new byte[0], decrypt.decryptEnvelope(encrypt.encryptEnvelope(new byte[0])));
+        String text = "我是一只小小小小鸟，想要飞呀飞，却飞也飞不高~";
+        Assert.assertEquals("信封解密数据与原数据不一致", text, decrypt.decryptEnvelopeBase64(encrypt.encryptEnvelopeBase64(text)));
+
+        // 流
+        ByteArrayOutputStream secret = new ByteArrayOutputStream();
+        try (OutputStream out = encrypt.wrapEnvelope(secret)) {
+            for (int offset = 0; offset < data.length; offset += 1000) {
+                out.write(data, offset, Math.min(1000, data.length - offset));
+            }
+        }
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        try (InputStream in = decrypt.wrapEnvelope(new ByteArrayInputStream(secret.toByteArray()))) {
+            byte[] buffer = new byte[4096];
+            int i;
+            while ((i = in.read(buffer)) != -1) {
+                plain.write(buffer, 0, i);
+            }
+        }
+        Assert.assertArrayEquals("流式信封解密数据与原数据不一致", data, plain.toByteArray());
+        Assert.assertArrayEquals("流式信封可由整体解密", data, decrypt.decryptEnvelope(secret.toByteArray()));
+
+        // 文件
+        final String baseResourcePath = getClass().getResource("/").getPath();
+        final String sourceFilePath = baseResourcePath + "original.txt";
+        final String envelopeFilePath = baseResourcePath + "encrypted_envelope.txt";
+        final String decryptedFilePath = baseResourcePath + "decrypted_envelope.txt";
+        encrypt.encryptEnvelopeFile(sourceFilePath, envelopeFilePath);
+        decrypt.decryptEnvelopeFile(envelopeFilePath, decryptedFilePath);
+        Assert.assertTrue("期望的原始文件与解密后的文件不同", MD5Util.SINGLETON.fileEquals(sourceFilePath, decryptedFilePath));
+
+        // 非信封格式
+        assertThrows(RuntimeException.class, () -> decrypt.decryptEnvelope(data));
+
+        // 篡改：信封头部（加密秘钥）、消息体头部（随机盐）、消息体，及截断，均应认证失败
+        for (int position : new int[]{7 + 100, 7 + 256 + 10, envelope.length / 2, envelope.length - 1}) {
+            byte[] tampered = envelope.clone();
+            tampered[position] ^= 1;
+            assertThrows("篡改位置[" + position + "]未被发现", RuntimeException.class, () -> decrypt.decryptEnvelope(tampered));
+            assertThrows("篡改位置[" + position + "]未被发现", RuntimeException.class, () -> {
+                try (InputStream in = decrypt.wrapEnvelope(new ByteArrayInputStream(tampered))) {
+                    while (in.read(new byte[4096]) != -1) {
+                        // 读至末尾
+                    }
+                }
+            });
+        }
+        byte[] truncated = Arrays.copyOf(envelope, 7 + 256 + 32 + 65536 + 16);
+        assertThrows("截断未被发现", RuntimeException.class, () -> decrypt.decryptEnvelope(truncated));
+    }
+
+    @Test
+    public void testC_KeyRegistry() throws Exception {
+        Base64KeyPair keyPair = util.generateBase64Key(1024);
+        RSAKeyRegistry registry = RSAKeyRegistry.SINGLETON;
+        Charset charset = StandardCharsets.UTF_8;
+
+        Assert.assertTrue("期望私钥携带CRT参数", registry.privateKey(keyPair.getBase64PrivateKey()) instanceof RSAPrivateCrtKey);
+        RSAEncrypt encrypt = registry.encryptor(keyPair.getBase64PublicKey(), charset);
+        RSADecrypt decrypt = registry.decryptor(keyPair.getBase64PrivateKey(), charset);
+        Assert.assertSame("期望相同秘钥复用加密器", encrypt, registry.encryptor(keyPair.getBase64PublicKey(), charset));
+        Assert.assertSame("期望相同秘钥复用解密器", decrypt, registry.decryptor(keyPair.getBase64PrivateKey(), charset));
+        Assert.assertEquals("期望解密器为池化引擎", CipherEngineMode.POOLED, decrypt.getEngineMode());
+        Assert.assertTrue("期望共享的加密器配置已冻结", encrypt.isFrozen());
+        assertThrows("共享的解密器不应允许修改引擎模式", RuntimeException.class, () -> decrypt.setEngineMode(CipherEngineMode.SINGLE));
+        assertThrows("共享的加密器不应允许修改随机数源", RuntimeException.class, () -> encrypt.setRandomSource(encrypt.getRandomSource()));
+        Assert.assertEquals("期望解密器仍为池化引擎", CipherEngineMode.POOLED, decrypt.getEngineMode());
+
+        // 公开构造直接解析秘钥，不冻结
+        RSADecrypt own = new RSADecrypt(keyPair.getBase64PrivateKey(), charset);
+        Assert.assertFalse("期望自行构造的解密器未冻结", own.isFrozen());
+        own.setEngineMode(CipherEngineMode.THREAD_LOCAL);
+
+        // 多线程共享
+        String data = "我是一只小小小小鸟，想要飞呀飞，却飞也飞不高~";
+        String secret = util.encrypt(data, encrypt);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                futures.add(executor.submit(() -> util.decrypt(secret, () -> registry.decryptor(keyPair.getBase64PrivateKey(), charset))));
+            }
+            for (Future<String> future : futures) {
+                assertEquals("解密数据与原数据不一致", data, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        System.out.println("decryptor cache hit/miss : " + registry.decryptorCache().hitCount() + "/" + registry.decryptorCache().missCount());
+        Assert.assertTrue("期望解密器缓存命中", registry.decryptorCache().hitCount() >= 40);
+    }
+
+    @Test
+    public void testD_KeyPairPool() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            RSAKeyPairPool pool = new RSAKeyPairPool(util, 2, executor);
+            pool.prefill(1024);
+            long deadline = System.currentTimeMillis() + 30_000;
+            while (pool.depth(1024) < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            System.out.println("pool depth : " + pool.depth(1024));
+            assertEquals("期望池已填满", 2, pool.depth(1024));
+
+            CompletableFuture<Base64KeyPair> first = pool.take(1024);
+            Assert.assertTrue("期望池中有秘钥对时立即完成", first.isDone());
+            Base64KeyPair second = pool.poll(1024);
+            Assert.assertNotNull("期望池中仍有秘钥对", second);
+            Assert.assertNotEquals("期望每个秘钥对只被取出一次", first.get().getBase64PrivateKey(), second.getBase64PrivateKey());
+            assertEquals("期望命中2次", 2, pool.hitCount());
+
+            // 取出的秘钥对可用
+            String data = "我是一只小小小小鸟";
+            RSAEncrypt encrypt = new RSAEncrypt(second.getBase64PublicKey(), StandardCharsets.UTF_8);
+            RSADecrypt decrypt = new RSADecrypt(second.getBase64PrivateKey(), StandardCharsets.UTF_8);
+            assertEquals("解密数据与原数据不一致", data, util.decrypt(util.encrypt(data, encrypt), decrypt));
+
+            // 未预热的秘钥长度：异步生成
+            Base64KeyPair generated = pool.take(512).get(30, TimeUnit.SECONDS);
+            Assert.assertNotNull(generated);
+            Assert.assertTrue("期望未命中", pool.missCount() >= 1);
+
+            // 非法秘钥长度：立即抛出，不调度后台生成
+            long generatedCount = pool.generatedCount();
+            assertThrows("非法秘钥长度未被拒绝", RuntimeException.class, () -> pool.poll(100));
+            assertThrows("非法秘钥长度未被拒绝", RuntimeException.class, () -> pool.take(100));
+            assertEquals("非法秘钥长度不应调度生成", 0, pool.depth(100));
+            assertEquals("非法秘钥长度不应生成", generatedCount, pool.generatedCount());
+            assertEquals("非法秘钥长度不应计为生成失败", 0, pool.failureCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testE_KeyPairPoolOrderAndRetry() throws Exception {
+        Base64KeyPair[] keyPairs = new Base64KeyPair[8];
+        for (int i = 0; i < keyPairs.length; i++) {
+            keyPairs[i] = util.generateBase64Key(512);
+        }
+        AtomicInteger sequence = new AtomicInteger();
+        AtomicBoolean failing = new AtomicBoolean();
+        IAsymmetricCipherUtil fake = new IAsymmetricCipherUtil() {
+            @Override
+            public String getAlgorithm() {
+                return util.getAlgorithm();
+            }
+
+            @Override
+            public Base64KeyPair generateBase64Key(int keySize) {
+                if (failing.get()) {
+                    throw new RuntimeException("模拟生成失败");
+                }
+                return keyPairs[sequence.getAndIncrement() % keyPairs.length];
+            }
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // 未命中时本次生成先于补充提交
+            RSAKeyPairPool pool = new RSAKeyPairPool(fake, 3, executor);
+            Assert.assertSame("期望未命中的取用不排在补充之后", keyPairs[0], pool.take(1024).get(30, TimeUnit.SECONDS));
+
+            // 后台补充失败后退避，间隔过后仅通过poll也会恢复补充
+            RSAKeyPairPool retrying = new RSAKeyPairPool(fake, 2, executor);
+            failing.set(true);
+            retrying.prefill(1024);
+            long deadline = System.currentTimeMillis() + 30_000;
+            while (retrying.failureCount() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertNull(retrying.poll(1024));
+            Thread.sleep(100);
+            assertEquals("期望退避期间不调度生成", 2, retrying.failureCount());
+            failing.set(false);
+            Thread.sleep(1100);
+            Assert.assertNull(retrying.poll(1024));
+            while (retrying.depth(1024) < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            System.out.println("pool depth after retry : " + retrying.depth(1024));
+            assertEquals("期望退避后恢复补充", 2, retrying.depth(1024));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -18,11 +18,30 @@ package com.giannuo.cipher.v1;
 import com.giannuo.cipher.Base64KeyPair;
 import com.giannuo.cipher.RSACipherUtil;
 import com.giannuo.cipher.RSASignUtil;
+import com.giannuo.cipher.RSASigner;
+import com.giannuo.cipher.RSAVerifier;
+import com.giannuo.util.LruCache;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 public class TestRSASignUtil {
     RSACipherUtil cipherUtil = RSACipherUtil.SINGLETON;
@@ -54,4 +73,109 @@ public class TestRSASignUtil {
 
     }
 
+    @Test
+    public void test2_KeyCache() throws Exception {
+        String data = "我是一只小小小小鸟，想要飞呀飞，却飞也飞不高~";
+        Charset charset = StandardCharsets.UTF_8;
+        Base64KeyPair keyPair = cipherUtil.generateBase64Key();
+
+        LruCache<String, PrivateKey> privateKeyCache = signUtil.privateKeyCache();
+        LruCache<String, PublicKey> publicKeyCache = signUtil.publicKeyCache();
+        long privateMiss = privateKeyCache.missCount();
+        long privateHit = privateKeyCache.hitCount();
+        long publicMiss = publicKeyCache.missCount();
+        long publicHit = publicKeyCache.hitCount();
+        for (int i = 0; i < 10; i++) {
+            String sign = signUtil.sign(keyPair.getBase64PrivateKey(), data, charset);
+            Assert.assertTrue("验签失败", signUtil.verify(keyPair.getBase64PublicKey(), data, sign, charset));
+        }
+        System.out.println("private key cache hit/miss : " + privateKeyCache.hitCount() + "/" + privateKeyCache.missCount());
+        System.out.println("public key cache hit/miss : " + publicKeyCache.hitCount() + "/" + publicKeyCache.missCount());
+        Assert.assertEquals("期望私钥只解析一次", 1, privateKeyCache.missCount() - privateMiss);
+        Assert.assertEquals("期望私钥缓存命中9次", 9, privateKeyCache.hitCount() - privateHit);
+        Assert.assertEquals("期望公钥只解析一次", 1, publicKeyCache.missCount() - publicMiss);
+        Assert.assertEquals("期望公钥缓存命中9次", 9, publicKeyCache.hitCount() - publicHit);
+
+        // 容量淘汰：淘汰最近访问时间最早的条目
+        LruCache<String, String> cache = new LruCache<>(2, 0, TimeUnit.MILLISECONDS);
+        cache.get("a", String::toUpperCase);
+        cache.get("b", String::toUpperCase);
+        Thread.sleep(1);
+        cache.get("a", String::toUpperCase);
+        cache.get("c", String::toUpperCase);
+        Assert.assertEquals("期望缓存容量不超限", 2, cache.size());
+        Assert.assertEquals("期望淘汰1次", 1, cache.evictionCount());
+        cache.get("a", String::toUpperCase);
+        Assert.assertEquals("期望最近访问的条目未被淘汰", 2, cache.hitCount());
+
+        // 过期淘汰
+        LruCache<String, String> ttlCache = new LruCache<>(2, 10, TimeUnit.MILLISECONDS);
+        ttlCache.get("a", String::toUpperCase);
+        Thread.sleep(20);
+        Assert.assertEquals("A", ttlCache.get("a", String::toUpperCase));
+        Assert.assertEquals("期望过期条目重新加载", 2, ttlCache.missCount());
+        Assert.assertEquals("期望过期淘汰1次", 1, ttlCache.evictionCount());
+
+        // 并发未命中：只加载一次，等待加载的线程计为命中
+        LruCache<String, String> loadingCache = new LruCache<>(2, 0, TimeUnit.MILLISECONDS);
+        CountDownLatch ready = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> {
+                    ready.await();
+                    return loadingCache.get("a", k -> {
+                        try {
+                            Thread.sleep(100);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return k.toUpperCase();
+                    });
+                }));
+            }
+            ready.countDown();
+            for (Future<String> future : futures) {
+                Assert.assertEquals("A", future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertEquals("期望并发未命中只计1次", 1, loadingCache.missCount());
+        Assert.assertEquals("期望命中与未命中之和等于访问次数", 4, loadingCache.hitCount() + loadingCache.missCount());
+    }
+
+    @Test
+    public void test3_SignerAndVerifier() throws Exception {
+        Base64KeyPair keyPair = cipherUtil.generateBase64Key();
+        RSASigner signer = signUtil.newSigner(keyPair.getBase64PrivateKey());
+        RSAVerifier verifier = signUtil.newVerifier(keyPair.getBase64PublicKey());
+        byte[] data = "我是一只小小小小鸟，想要飞呀飞，却飞也飞不高~我寻寻觅觅，寻寻觅觅，一个温暖的怀抱……".getBytes(StandardCharsets.UTF_8);
+
+        // 分段追加与整体签名结果一致，且签名后可复用
+        for (int i = 0; i < 3; i++) {
+            signer.update(data, 0, 10);
+            signer.update(ByteBuffer.wrap(data, 10, 20));
+            signer.update(new ByteArrayInputStream(data, 30, data.length - 30));
+            byte[] sign = signer.sign();
+            Assert.assertArrayEquals("期望的分段签名与整体签名不同", signUtil.sign(keyPair.getBase64PrivateKey(), data), sign);
+            Assert.assertTrue("验签失败", verifier.verify(data, sign));
+            Assert.assertFalse("期望篡改数据验签失败", verifier.verify(Arrays.copyOf(data, data.length - 1), sign));
+        }
+
+        // 文件签名
+        Path file = Paths.get(getClass().getResource("/original.txt").toURI());
+        byte[] fileSign = signer.signFile(file);
+        System.out.println("file sign : " + Base64.getEncoder().encodeToString(fileSign));
+        Assert.assertArrayEquals("期望的文件签名与整体签名不同", signUtil.sign(keyPair.getBase64PrivateKey(), Files.readAllBytes(file)), fileSign);
+        Assert.assertTrue("文件验签失败", verifier.verifyFile(file, fileSign));
+
+        // 非法Base64签名：验签器恢复为初始状态，不影响下一条消息
+        verifier.update(data);
+        Assert.assertThrows("非法Base64签名未被拒绝", RuntimeException.class, () -> verifier.verifyBase64("不是Base64!"));
+        verifier.update(data);
+        Assert.assertTrue("非法签名后验签器未恢复", verifier.verifyBase64(Base64.getEncoder().encodeToString(signUtil.sign(keyPair.getBase64PrivateKey(), data))));
+    }
+
 }
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2020 姚嘉乐（Giannuo）
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.giannuo.digest.v1;
+
+import com.giannuo.digest.DigestIndex;
+import com.giannuo.digest.DigestResult;
+import com.giannuo.digest.IDigest;
+import com.giannuo.digest.MD5Util;
+import com.giannuo.digest.MerkleDigest;
+import com.giannuo.digest.SHA256Util;
+import com.giannuo.digest.SHA512Util;
+import com.giannuo.digest.SHAUtil;
+import com.giannuo.util.Hex;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class TestDigestUtil {
+    MD5Util md5Util = MD5Util.SINGLETON;
+    SHAUtil shaUtil = SHAUtil.SINGLETON;
+
+    @Test
+    public void test1_ParallelDigest() throws Exception {
+        Path root = Files.createTempDirectory("giannuo-digest");
+        try {
+            Random random = new Random(20);
+            List<Path> files = new ArrayList<>();
+            for (int i = 0; i < 24; i++) {
+                Path dir = Files.createDirectories(root.resolve("d" + (i % 3)).resolve("e" + (i % 2)));
+                byte[] data = new byte[random.nextInt(600 * 1024)];
+                random.nextBytes(data);
+                files.add(Files.write(dir.resolve("f" + i + ".bin"), data));
+            }
+
+            Map<Path, String> tree;
+            try (Stream<DigestResult> results = shaUtil.treeDigest(root, 3)) {
+                tree = results.peek(result -> Assert.assertTrue("摘要失败 : " + result, result.isSuccess()))
+                        .collect(Collectors.toMap(DigestResult::getPath, DigestResult::getDigest));
+            }
+            System.out.println("tree digest - files : " + tree.size());
+            Assert.assertEquals("目录树摘要文件数不一致", files.size(), tree.size());
+            for (Path file : files) {
+                Assert.assertEquals("目录树摘要不一致", shaUtil.fileDigest(file.toFile()), tree.get(file));
+            }
+
+            List<Path> batch = new ArrayList<>(files);
+            batch.add(root.resolve("missing.bin"));
+            List<DigestResult> results;
+            try (Stream<DigestResult> stream = md5Util.batchDigest(batch, 2)) {
+                results = stream.collect(Collectors.toList());
+            }
+            Assert.assertEquals("批量摘要结果数不一致", batch.size(), results.size());
+            for (DigestResult result : results) {
+                if (result.getPath().equals(root.resolve("missing.bin"))) {
+                    Assert.assertFalse("不存在的文件应摘要失败", result.isSuccess());
+                    System.out.println("batch digest - failure : " + result.getError());
+                } else {
+                    Assert.assertEquals("批量摘要不一致", md5Util.fileDigest(result.getPath().toFile()), result.getDigest());
+                }
+            }
+
+            try (Stream<DigestResult> stream = md5Util.treeDigest(root, 2)) {
+                Assert.assertEquals("提前关闭前应取得结果", 1, stream.limit(1).count());
+            }
+        } finally {
+            try (Stream<Path> walk = Files.walk(root)) {
+                walk.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    public void test2_MappedDigest() throws Exception {
+        Random random = new Random(21);
+        for (int size : new int[]{0, 1000, 300 * 1024, 64 * 1024 * 1024 + 4097}) {
+            Path file = Files.createTempFile("giannuo-digest", ".bin");
+            try {
+                byte[] data = new byte[size];
+                random.nextBytes(data);
+                Files.write(file, data);
+                String digest = md5Util.fileDigest(file.toFile());
+                String mapped = md5Util.mappedFileDigest(file.toFile());
+                System.out.println("mapped digest - size : " + size + ", digest : " + mapped);
+                Assert.assertEquals("内存映射摘要不一致", digest, mapped);
+                Assert.assertEquals("内存映射摘要不一致", shaUtil.fileDigest(file.toFile()), shaUtil.mappedFileDigest(file.toString()));
+            } finally {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void test3_FileMismatch() throws Exception {
+        Random random = new Random(22);
+        byte[] data = new byte[700 * 1024];
+        random.nextBytes(data);
+        Path base = Files.write(Files.createTempFile("giannuo-digest", ".bin"), data);
+        Path same = Files.write(Files.createTempFile("giannuo-digest", ".bin"), data);
+        byte[] changed = data.clone();
+        changed[600 * 1024 + 3] ^= 1;
+        Path differ = Files.write(Files.createTempFile("giannuo-digest", ".bin"), changed);
+        Path prefix = Files.write(Files.createTempFile("giannuo-digest", ".bin"), Arrays.copyOf(data, 1000));
+        try {
+            Assert.assertEquals("相同文件应无差异", -1, md5Util.fileMismatch(base.toFile(), same.toFile()));
+            Assert.assertEquals("差异偏移量不正确", 600 * 1024 + 3, md5Util.fileMismatch(base.toFile(), differ.toFile()));
+            Assert.assertEquals("前缀文件差异偏移量不正确", 1000, md5Util.fileMismatch(base.toString(), prefix.toString()));
+            Assert.assertTrue("相同文件比较失败", md5Util.fileEquals(base.toFile(), same.toFile()));
+            Assert.assertFalse("不同文件比较失败", md5Util.fileEquals(base.toFile(), differ.toFile()));
+
+            String baseDigest = shaUtil.fileDigest(base.toFile());
+            Assert.assertTrue("缓存摘要比较失败", shaUtil.digestEquals(baseDigest, same.toFile()));
+            Assert.assertFalse("缓存摘要比较失败", shaUtil.digestEquals(baseDigest, differ.toFile()));
+
+            // 兼容1.0（省略前导0）的摘要
+            byte[] leadingZero = null;
+            for (int i = 0; leadingZero == null; i++) {
+                byte[] candidate = ("leading-zero-" + i).getBytes(StandardCharsets.UTF_8);
+                if (md5Util.digest(candidate).startsWith("0")) {
+                    leadingZero = candidate;
+                }
+            }
+            Files.write(differ, leadingZero);
+            String fixedWidth = md5Util.fileDigest(differ.toFile());
+            String legacy = new BigInteger(1, Hex.decode(fixedWidth)).toString(16);
+            System.out.println("fixed width / 1.0 digest : " + fixedWidth + " / " + legacy);
+            Assert.assertEquals("期望定宽摘要", 32, fixedWidth.length());
+            Assert.assertTrue("期望1.0摘要省略前导0", legacy.length() < fixedWidth.length());
+            Assert.assertTrue("1.0摘要比较失败", md5Util.digestEquals(legacy, differ.toFile()));
+            Assert.assertTrue("大写摘要比较失败", md5Util.digestEquals(fixedWidth.toUpperCase(), differ.toFile()));
+            Assert.assertFalse("不同摘要比较失败", md5Util.digestEquals("1" + legacy, differ.toFile()));
+            System.out.println("file mismatch - offset : " + md5Util.fileMismatch(base.toFile(), differ.toFile()));
+        } finally {
+            for (Path file : new Path[]{base, same, differ, prefix}) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void test4_MultiDigest() throws Exception {
+        byte[] data = new byte[1024 * 1024 + 17];
+        new Random(23).nextBytes(data);
+        Path file = Files.write(Files.createTempFile("giannuo-digest", ".bin"), data);
+        try {
+            IDigest[] digests = {md5Util, shaUtil, SHA256Util.SINGLETON, SHA512Util.SINGLETON};
+            for (boolean parallel : new boolean[]{false, true}) {
+                Map<String, String> results = IDigest.fileDigests(file.toFile(), parallel, digests);
+                System.out.println("multi digest - parallel : " + parallel + ", results : " + results);
+                Assert.assertEquals("算法数不一致", digests.length, results.size());
+                for (IDigest digest : digests) {
+                    Assert.assertEquals("[" + digest.getAlgorithm() + "]摘要不一致", digest.fileDigest(file.toFile()), results.get(digest.getAlgorithm()));
+                }
+            }
+            Assert.assertEquals("重复算法应只计算一次", 1, IDigest.fileDigests(file.toFile(), md5Util, md5Util).size());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void test5_DigestIndex() throws Exception {
+        Path dir = Files.createTempDirectory("giannuo-digest-index");
+        Path indexFile = dir.resolve("digest.idx");
+        Path a = Files.write(dir.resolve("a.bin"), "我是一只小小小小鸟".getBytes(StandardCharsets.UTF_8));
+        Path b = Files.write(dir.resolve("b.bin"), "我是一只小小小小鸟".getBytes(StandardCharsets.UTF_8));
+        try {
+            try (DigestIndex index = new DigestIndex(shaUtil, indexFile)) {
+                Assert.assertEquals("索引摘要不一致", shaUtil.fileDigest(a.toFile()), index.fileDigest(a.toFile()));
+                Assert.assertTrue("索引比较失败", index.fileEquals(a.toString(), b.toString()));
+                Assert.assertEquals("首次计算应未命中", 2, index.missCount());
+                index.fileDigest(a.toFile());
+                Assert.assertEquals("文件未变化应命中", 2, index.hitCount());
+
+                Files.write(b, "想要飞呀飞，却飞也飞不高".getBytes(StandardCharsets.UTF_8));
+                Assert.assertEquals("文件变化后摘要不一致", shaUtil.fileDigest(b.toFile()), index.fileDigest(b.toFile()));
+                Assert.assertFalse("文件变化后比较失败", index.fileEquals(a.toFile(), b.toFile()));
+                Assert.assertEquals("文件变化应未命中", 3, index.missCount());
+            }
+
+            long size = Files.size(indexFile);
+            try (DigestIndex index = new DigestIndex(shaUtil, indexFile)) {
+                Assert.assertEquals("重新打开后记录数不一致", 2, index.size());
+                Assert.assertEquals("重新打开后摘要不一致", shaUtil.fileDigest(b.toFile()), index.fileDigest(b.toFile()));
+                Assert.assertEquals("重新打开后应命中", 1, index.hitCount());
+                index.compact();
+                System.out.println("digest index - size : " + size + ", compacted : " + Files.size(indexFile));
+                Assert.assertEquals("压缩后记录数不一致", 2, index.size());
+                index.fileDigest(a.toFile());
+                Assert.assertEquals("压缩后应命中", 2, index.hitCount());
+
+                index.watch(dir);
+                Files.delete(a);
+                for (int i = 0; i < 200 && index.size() > 1; i++) {
+                    Thread.sleep(50);
+                }
+                System.out.println("digest index - after delete : " + index.size());
+                Assert.assertEquals("删除文件后记录应失效", 1, index.size());
+            }
+            Assert.assertThrows("不同算法不可打开", RuntimeException.class, () -> new DigestIndex(md5Util, indexFile));
+        } finally {
+            try (Stream<Path> walk = Files.walk(dir)) {
+                walk.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    public void test6_MerkleDigest() throws Exception {
+        int leafSize = 64 * 1024;
+        byte[] data = new byte[leafSize * 5 + 123];
+        new Random(24).nextBytes(data);
+        Path file = Files.write(Files.createTempFile("giannuo-digest", ".bin"), data);
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            MerkleDigest merkle = SHA256Util.SINGLETON.merkleDigest(file.toFile(), leafSize, true);
+            System.out.println("merkle digest : " + merkle);
+            Assert.assertEquals("叶子数不一致", 6, merkle.getLeafCount());
+            Assert.assertEquals("并行度不同时根摘要不一致", merkle.getRoot(),
+                    SHA256Util.SINGLETON.merkleDigest(file.toFile(), leafSize, false, single).getRoot());
+            Assert.assertEquals("由叶子重建的根摘要不一致", merkle.getRoot(),
+                    MerkleDigest.of(merkle.getAlgorithm(), merkle.getFileSize(), leafSize, merkle.getLeaves()).getRoot());
+            Assert.assertNotEquals("叶子大小不同时根摘要应不同", merkle.getRoot(),
+                    SHA256Util.SINGLETON.merkleDigest(file.toFile(), leafSize * 2, false).getRoot());
+
+            data[leafSize * 3 + 7] ^= 1;
+            Files.write(file, data);
+            Assert.assertTrue("未修改的叶子校验失败", merkle.verifyLeaf(file, 0));
+            Assert.assertTrue("未修改的范围校验失败", merkle.verifyRange(file, leafSize * 4L, leafSize + 123));
+            Assert.assertFalse("修改的叶子应校验失败", merkle.verifyLeaf(file, 3));
+            Assert.assertFalse("修改的范围应校验失败", merkle.verifyRange(file, leafSize * 2L, leafSize + 8));
+            Assert.assertNotEquals("修改后根摘要应不同", merkle.getRoot(), SHA256Util.SINGLETON.merkleFileDigest(file.toFile()));
+        } finally {
+            single.shutdown();
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void test7_DigestApi() throws Exception {
+        String data = "我是一只小小小小鸟，想要飞呀飞，却飞也飞不高~";
+        byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        StringBuilder expected = new StringBuilder();
+        for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+            expected.append(String.format("%02x", b));
+        }
+        SHA256Util sha256Util = SHA256Util.SINGLETON;
+        System.out.println("digest : " + sha256Util.digest(data, StandardCharsets.UTF_8));
+        Assert.assertEquals("字符串摘要不一致", expected.toString(), sha256Util.digest(data, StandardCharsets.UTF_8));
+        Assert.assertEquals("数组摘要不一致", expected.toString(), sha256Util.digest(bytes));
+        Assert.assertEquals("缓冲区摘要不一致", expected.toString(), sha256Util.digest(ByteBuffer.wrap(bytes)));
+        Assert.assertEquals("输入流摘要不一致", expected.toString(), sha256Util.digest(new ByteArrayInputStream(bytes)));
+        Assert.assertArrayEquals("十六进制解码不一致", sha256Util.rawDigest(bytes), Hex.decode(expected));
+
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        try (DigestOutputStream out = sha256Util.digestOutputStream(sink)) {
+            out.write(bytes, 0, 10);
+            out.write(bytes, 10, bytes.length - 10);
+            Assert.assertEquals("摘要输出流不一致", expected.toString(), Hex.encode(out.getMessageDigest().digest()));
+        }
+        try (DigestInputStream in = sha256Util.digestInputStream(new ByteArrayInputStream(sink.toByteArray()))) {
+            while (in.read(new byte[7]) != -1) {
+                // 读取至末尾
+            }
+            Assert.assertEquals("摘要输入流不一致", expected.toString(), Hex.encode(in.getMessageDigest().digest()));
+        }
+
+        // 首字节为0的摘要不可丢失前导0
+        for (int i = 0; ; i++) {
+            byte[] raw = md5Util.rawDigest(Integer.toString(i).getBytes(StandardCharsets.UTF_8));
+            if (raw[0] == 0) {
+                String hex = md5Util.digest(Integer.toString(i), StandardCharsets.UTF_8);
+                System.out.println("digest - leading zero : " + hex);
+                Assert.assertEquals("摘要应定宽", 32, hex.length());
+                Assert.assertTrue("摘要应保留前导0", hex.startsWith("00"));
+                char[] out = new char[34];
+                Assert.assertEquals("写入字符数不一致", 32, Hex.encode(raw, 0, raw.length, out, 2));
+                Assert.assertEquals("写入调用方缓冲区不一致", hex, new String(out, 2, 32));
+                break;
+            }
+        }
+    }
+}